@@ -81,10 +81,20 @@ chrome.runtime.onMessage.addListener((msg, _sender, sendResponse) => {
   return false;
 });
 
+// Pages longer than this go through the async job API so detections show up chunk by chunk
+const JOB_THRESHOLD_CHARS = 4000;
+const JOB_POLL_MS = 750;
+const JOB_MAX_WAIT_MS = 120000;
+
 async function handlePageCapture(payload) {
   try {
     // send snippet to backend extract endpoint
     const backendUrl = getBackendUrl();
+    if ((payload.snippet || "").length > JOB_THRESHOLD_CHARS) {
+      const data = await extractAsJob(backendUrl, payload);
+      if (data) return data;
+      // queue full: fall through to a plain extract
+    }
     const resp = await fetch(`${backendUrl}/api/extract`, {
       method: "POST",
       headers: { "Content-Type": "application/json" },
@@ -99,27 +109,73 @@ async function handlePageCapture(payload) {
       throw new Error(`Extract failed: ${resp.status} ${text}`);
     }
     const data = await resp.json();
+    await storeDetections(data.detected || []);
+    return data;
+  } catch (err) {
+    if (err.message && err.message.includes("Failed to fetch")) {
+      throw new Error(
+        `Backend not reachable. Is the server running on ${getBackendUrl()}?`
+      );
+    }
+    throw err;
+  }
+}
+
+async function extractAsJob(backendUrl, payload) {
+  const submit = await fetch(`${backendUrl}/api/extract/jobs`, {
+    method: "POST",
+    headers: { "Content-Type": "application/json" },
+    body: JSON.stringify({
+      url: payload.url,
+      title: payload.title,
+      snippet: payload.snippet,
+    }),
+  });
+  if (submit.status === 503) return null;
+  if (!submit.ok) {
+    const text = await submit.text();
+    throw new Error(`Extract job failed: ${submit.status} ${text}`);
+  }
+  const job = await submit.json();
+
+  // poll rather than SSE: EventSource is not available in MV3 service workers
+  const detected = [];
+  let next = 0;
+  const deadline = Date.now() + JOB_MAX_WAIT_MS;
+  while (Date.now() < deadline) {
+    const resp = await fetch(`${backendUrl}/api/extract/jobs/${job.id}?after=${next}`);
+    if (!resp.ok) {
+      throw new Error(`Extract job failed: ${resp.status}`);
+    }
+    const status = await resp.json();
+    if (status.detected && status.detected.length) {
+      detected.push(...status.detected);
+      await storeDetections(status.detected);
+    }
+    next = status.next;
+    if (status.status === "DONE") break;
+    await new Promise((r) => setTimeout(r, JOB_POLL_MS));
+  }
+  return { detected };
+}
+
+// resolves once stored, so successive job polls never overwrite each other's writes
+function storeDetections(newDetections) {
+  return new Promise((resolve) => {
     // store locally and notify popup
     chrome.storage.local.get(["detectedEvents"], (res) => {
       const detected = res.detectedEvents || [];
-      const merged = (data.detected || []).concat(detected);
+      const merged = newDetections.concat(detected);
       chrome.storage.local.set({ detectedEvents: merged }, () => {
         // notify popup UI
         chrome.runtime.sendMessage({
           type: "NEW_DETECTIONS",
           detected: merged,
         });
+        resolve();
       });
     });
-    return data;
-  } catch (err) {
-    if (err.message && err.message.includes("Failed to fetch")) {
-      throw new Error(
-        `Backend not reachable. Is the server running on ${getBackendUrl()}?`
-      );
-    }
-    throw err;
-  }
+  });
 }
 
 async function handleSaveEvent(payload) {
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+#
+# Runs the same load test once per set of app settings and prints the
+# per-endpoint results side by side, to compare thread pools and client
+# settings on one machine. Each argument is one run's settings, passed to
+# the in-process app as Spring properties; an empty argument is the defaults.
+#
+#   LOADTEST_ARGS="--workload=capture --concurrency=64 --duration=60s --gemini-latency-ms=800" \
+#   scripts/loadtest.sh "" "--gemini.http.max-connections=8" "--server.tomcat.threads.max=50"
+#
+# LOADTEST_ARGS holds the options shared by all runs (see LoadTest). Results
+# accumulate in target/loadtest/results.csv, percentile distributions in
+# target/loadtest/hgrm.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+OUT=target/loadtest
+mkdir -p "$OUT"
+rm -f "$OUT/results.csv"
+
+./mvnw -B -q -Ploadtest test-compile dependency:build-classpath \
+	-Dmdep.includeScope=test -Dmdep.outputFile="$OUT/classpath.txt"
+CP="target/test-classes:target/classes:$(cat "$OUT/classpath.txt")"
+
+[ $# -gt 0 ] || set -- ""
+for settings in "$@"; do
+	label=${settings:-defaults}
+	tag=${label//--/}
+	echo "=== $label"
+	# shellcheck disable=SC2086 # both argument lists are meant to be split into options
+	java -cp "$CP" com.orbit.loadtest.LoadTest ${LOADTEST_ARGS:-} $settings \
+		--label="${tag//[ ,]/_}" --csv="$OUT/results.csv" --hgrm="$OUT/hgrm"
+done
+
+echo
+if command -v column > /dev/null; then
+	column -t -s, "$OUT/results.csv"
+else
+	cat "$OUT/results.csv"
+fi
@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+#
+# Cold-start measurement for the production build. Starts the extracted jar
+# RUNS times as is and RUNS times with the Spring AOT code and a
+# class-data-sharing archive, and reports for each start the
+# time until /actuator/health answers UP and the latency of the first API
+# request after that.
+#
+#   scripts/startup-benchmark.sh [runs]
+#
+# The app needs its database: set SPRING_DATASOURCE_URL, _USERNAME and
+# _PASSWORD (or use application.properties). EXTRA_CLASSPATH adds jars that
+# are not part of the build, e.g. the H2 driver for a throwaway database:
+#
+#   EXTRA_CLASSPATH=~/.m2/repository/com/h2database/h2/2.3.232/h2-2.3.232.jar \
+#   SPRING_DATASOURCE_URL='jdbc:h2:mem:orbit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=DATE,TIME,VALUE' \
+#   SPRING_JPA_HIBERNATE_DDL_AUTO=create-drop scripts/startup-benchmark.sh
+#
+# SKIP_BUILD=1 reuses target/ from an earlier `./mvnw -Pproduction package`.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+JAR=target/orbit-backend-0.0.1-SNAPSHOT.jar
+APP=target/startup
+MAIN=com.orbit.orbit_backend.OrbitBackendApplication
+FIRST_REQUEST=${FIRST_REQUEST:-/api/events/page?limit=20}
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+	./mvnw -B -q -Pproduction -DskipTests package
+fi
+
+# The CDS archive only matches the exact classpath it was created with, so
+# both the training run and the measured runs use the extracted layout.
+rm -rf "$APP"
+java -Djarmode=tools -jar "$JAR" extract --destination "$APP" > /dev/null
+CP="$APP/$(basename "$JAR")${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}"
+
+echo "Training run for the CDS archive..."
+java -XX:ArchiveClassesAtExit="$APP/orbit.jsa" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+	-cp "$CP" "$MAIN" \
+	> "$APP/training.log" 2>&1 || { cat "$APP/training.log"; exit 1; }
+
+now_ms() {
+	date +%s%3N
+}
+
+# start <log> <java args...>: prints "<ms until UP> <ms for the first request>"
+start() {
+	local log=$1
+	shift
+	local t0 pid ready first
+	t0=$(now_ms)
+	java "$@" --server.port="$PORT" > "$log" 2>&1 &
+	pid=$!
+	until curl -sf "http://localhost:$PORT/actuator/health" 2> /dev/null | grep -q '"UP"'; do
+		if ! kill -0 "$pid" 2> /dev/null; then
+			cat "$log" >&2
+			exit 1
+		fi
+		sleep 0.02
+	done
+	ready=$(( $(now_ms) - t0 ))
+	first=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT$FIRST_REQUEST")
+	kill "$pid"
+	wait "$pid" 2> /dev/null || true
+	echo "$ready $(awk -v s="$first" 'BEGIN { printf "%d", s * 1000 }')"
+}
+
+median() {
+	sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+report() {
+	local name=$1
+	shift
+	local results=()
+	for i in $(seq "$RUNS"); do
+		results+=("$(start "$APP/$name-$i.log" "$@")")
+	done
+	printf '%-10s ready p50 %5d ms   first request p50 %4d ms   (%s)\n' "$name" \
+		"$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)" \
+		"$(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | median)" \
+		"$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | paste -sd' ')"
+}
+
+report plain -cp "$CP" "$MAIN"
+# -Xshare:on fails the start instead of silently running without the archive
+report aot+cds -Xshare:on -XX:SharedArchiveFile="$APP/orbit.jsa" -Dspring.aot.enabled=true -cp "$CP" "$MAIN"
@@ -0,0 +1,87 @@
+package com.orbit.controller;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orbit.dto.EventPage;
+import com.orbit.dto.EventSummary;
+import com.orbit.entity.Event;
+
+/**
+ * JSON cost of the event list endpoints: the full /api/events entity list
+ * versus one /api/events/page worth of snippet-free summaries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventListSerializationBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int events;
+
+	private ObjectMapper mapper;
+	private List<Event> entities;
+	private EventPage page;
+
+	@Setup
+	public void setUp() {
+		mapper = Jackson2ObjectMapperBuilder.json().build(); // same defaults as the MVC converter
+		entities = new ArrayList<>(events);
+		for (long id = 1; id <= events; id++) {
+			Event e = new Event();
+			e.setId(id);
+			e.setTitle("Assignment " + id + " due");
+			e.setDate("2026-04-" + String.format("%02d", 1 + id % 28));
+			e.setTime("23:59");
+			e.setTag("Educational");
+			e.setConfidence(0.87);
+			e.setSourceSnippet("x".repeat(1200)); // typical captured page excerpt
+			e.setUrl("https://example.edu/course/" + id);
+			e.setUpdatedAt(Instant.ofEpochSecond(1_760_000_000L + id));
+			entities.add(e);
+		}
+		page = new EventPage();
+		page.items = entities.stream().limit(50).<EventSummary>map(Summary::new).toList();
+		page.nextCursor = 50L;
+	}
+
+	@Benchmark
+	public byte[] fullList() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(entities);
+	}
+
+	@Benchmark
+	public byte[] summaryPage() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(page);
+	}
+
+	private record Summary(Event e) implements EventSummary {
+		public Long getId() { return e.getId(); }
+		public String getTitle() { return e.getTitle(); }
+		public String getDate() { return e.getDate(); }
+		public String getTime() { return e.getTime(); }
+		public String getTag() { return e.getTag(); }
+		public Double getConfidence() { return e.getConfidence(); }
+		public String getUrl() { return e.getUrl(); }
+	}
+}
@@ -0,0 +1,121 @@
+package com.orbit.controller;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.orbit.entity.Event;
+import com.orbit.entity.UserAccount;
+import com.orbit.repository.EventRepository;
+import com.orbit.service.EventService;
+import com.orbit.service.IcsFeedCache;
+import com.orbit.service.TenantService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * IcsController export over 1k/100k/1M events. Rows are generated lazily by
+ * the stubbed repository cursor, as the database would stream them, and the
+ * body is written to a counting sink. {@code export} streams with the feed
+ * cache disabled; {@code cached} serves repeat polls from a 64 MB cache,
+ * which 1M events overflow, so that size falls back to streaming.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx256m"}) // constant-heap export must fit regardless of row count
+public class IcsExportBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	public int events;
+
+	private IcsController controller;
+	private IcsController cachedController;
+
+	@Setup
+	public void setUp() {
+		EventRepository repo = mock(EventRepository.class, withSettings().stubOnly());
+		when(repo.streamAllOrderById()).thenAnswer(inv -> LongStream.rangeClosed(1, events).mapToObj(IcsExportBenchmark::event));
+		when(repo.streamByUserIdOrderById(anyString()))
+				.thenAnswer(inv -> LongStream.rangeClosed(1, events).mapToObj(IcsExportBenchmark::event));
+		EventService eventService = mock(EventService.class, withSettings().stubOnly());
+		when(eventService.currentEtag(anyString(), anyString())).thenReturn("\"ics-bench\"");
+		EntityManager entityManager = mock(EntityManager.class, withSettings().stubOnly());
+		PlatformTransactionManager txManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+		TenantService tenants = mock(TenantService.class, withSettings().stubOnly());
+		controller = new IcsController(repo, eventService,
+				new IcsFeedCache(repo, entityManager, txManager, 0, 600), tenants, entityManager, txManager);
+		cachedController = new IcsController(repo, eventService,
+				new IcsFeedCache(repo, entityManager, txManager, 64L << 20, 600), tenants, entityManager, txManager);
+	}
+
+	@Benchmark
+	public long export() throws IOException {
+		return export(controller);
+	}
+
+	@Benchmark
+	public long cached() throws IOException {
+		return export(cachedController);
+	}
+
+	private static long export(IcsController controller) throws IOException {
+		CountingSink sink = new CountingSink();
+		controller.exportIcs(UserAccount.LOCAL, null, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/export/ics")))
+				.getBody().writeTo(sink);
+		return sink.count;
+	}
+
+	private static Event event(long id) {
+		Event e = new Event();
+		e.setId(id);
+		e.setTitle("Lecture " + id + ": Graph algorithms, part " + (id % 7));
+		e.setDate("2026-" + String.format("%02d-%02d", 1 + id % 12, 1 + id % 28));
+		e.setTag("Educational");
+		e.setUserId(UserAccount.LOCAL);
+		e.setConfidence(0.9);
+		e.setSourceSnippet("Week " + (id % 15) + " lecture covers BFS, DFS; Dijkstra, and A* search. "
+				+ "Bring your laptop, readings are posted on the course site.");
+		e.setUrl("https://example.edu/cs201/schedule#" + id);
+		e.setUpdatedAt(Instant.ofEpochSecond(1_760_000_000L + id));
+		return e;
+	}
+
+	private static final class CountingSink extends OutputStream {
+		long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.orbit.service;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Near-duplicate lookup against a term's worth of stored events and more. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuplicateLookupBenchmark {
+
+	private static final String[] KINDS = {"Lecture", "Quiz", "Lab", "Office Hours", "Seminar", "Exam Review"};
+
+	@Param({"1000", "100000"})
+	public int events;
+
+	private EventSimilarityIndex index;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		index = new EventSimilarityIndex(null, new LocalEventExtractor("en-US"), null, true, 0.6);
+		LocalDate day = LocalDate.of(2026, 1, 1);
+		for (int i = 0; i < events; i++) {
+			String title = "CS" + (100 + i % 400) + " " + KINDS[i % KINDS.length] + " " + (i / 400);
+			index.put((long) i, "user" + i % 100, title, day.plusDays(i % 365).toString(),
+					title + " takes place in room " + (i % 50) + ". Bring your notes and the reading for week " + (i % 14));
+		}
+	}
+
+	@Benchmark
+	public EventSimilarityIndex.Match duplicate() {
+		int i = next++ % events;
+		String title = "CS" + (100 + i % 400) + " " + KINDS[i % KINDS.length] + " " + (i / 400);
+		return index.findDuplicate("user" + i % 100, title, LocalDate.of(2026, 1, 1).plusDays(i % 365).toString(),
+				"Reminder: " + title + " takes place in room " + (i % 50) + ". Bring your notes");
+	}
+
+	@Benchmark
+	public EventSimilarityIndex.Match miss() {
+		int i = next++ % events;
+		return index.findDuplicate("user" + i % 100, "Spring Mixer " + i, LocalDate.of(2026, 1, 1).plusDays(i % 365).toString(),
+				"Join us for the spring mixer on the lawn with music and snacks");
+	}
+}
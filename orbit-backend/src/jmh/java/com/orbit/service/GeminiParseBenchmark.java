@@ -0,0 +1,143 @@
+package com.orbit.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orbit.support.TestUpstreams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of turning a raw generateContent body into a list of EventExtraction,
+ * streamed off the body bytes, against the tree-and-substring approach it
+ * replaced. {@code parseJsonModeResponse} reads the compact answer JSON mode
+ * returns (no description, no prose) with the strict parser. Run with
+ * {@code -prof gc} to compare allocation per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeminiParseBenchmark {
+
+	private static final String EVENT =
+			"{\\\"title\\\":\\\"CS101 Midterm\\\",\\\"date\\\":\\\"2026-03-18\\\",\\\"time\\\":\\\"14:30\\\","
+					+ "\\\"tag\\\":\\\"Educational\\\",\\\"description\\\":\\\"Midterm exam covering chapters 1-6\\\","
+					+ "\\\"confidence\\\":0.93}";
+
+	private static final String JSON_MODE_EVENT =
+			"{\\\"title\\\":\\\"CS101 Midterm\\\",\\\"date\\\":\\\"2026-03-18\\\",\\\"time\\\":\\\"14:30\\\","
+					+ "\\\"tag\\\":\\\"Educational\\\",\\\"confidence\\\":0.93}";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private GeminiService gemini;
+	private GeminiService jsonModeGemini;
+	private byte[] jsonModeResponse;
+	private byte[] plainResponse;
+	private byte[] fencedResponse;
+	private byte[] streamedResponse;
+
+	@Setup
+	public void setUp() {
+		gemini = new GeminiService(new RestTemplate(), new LocalEventExtractor("en-US"),
+				new ExtractionMetrics(new SimpleMeterRegistry()), TestUpstreams.unlimited(1), null);
+		jsonModeGemini = new GeminiService(new RestTemplate(), new LocalEventExtractor("en-US"),
+				new ExtractionMetrics(new SimpleMeterRegistry()), TestUpstreams.unlimited(1), null);
+		ReflectionTestUtils.setField(jsonModeGemini, "structuredOutput", true);
+		// a syllabus-sized answer
+		String events = String.join(",", Collections.nCopies(8, EVENT));
+		plainResponse = wrap("[" + events + "]").getBytes(StandardCharsets.UTF_8);
+		jsonModeResponse = wrap("[" + String.join(",", Collections.nCopies(8, JSON_MODE_EVENT)) + "]")
+				.getBytes(StandardCharsets.UTF_8);
+		String fencedText = "Here are the events you asked for:\\n```json\\n[" + events + "]\\n```\\n";
+		fencedResponse = wrap(fencedText).getBytes(StandardCharsets.UTF_8);
+		// streamGenerateContent: the same answer spread over partial responses
+		String answer = "[" + events + "]";
+		StringBuilder streamed = new StringBuilder("[");
+		for (int i = 0, end; i < answer.length(); i = end) {
+			end = Math.min(answer.length(), i + 24);
+			while (end < answer.length() && answer.charAt(end - 1) == '\\') {
+				end++; // keep escapes whole
+			}
+			streamed.append(i > 0 ? "," : "").append(wrap(answer.substring(i, end)));
+		}
+		streamedResponse = streamed.append(']').toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public List<GeminiService.EventExtraction> parsePlainResponse() throws IOException {
+		return parse(plainResponse, "single");
+	}
+
+	@Benchmark
+	public List<GeminiService.EventExtraction> parseFencedResponse() throws IOException {
+		return parse(fencedResponse, "single");
+	}
+
+	@Benchmark
+	public List<GeminiService.EventExtraction> parseJsonModeResponse() throws IOException {
+		return jsonModeGemini.parseGeminiResponse(new ByteArrayInputStream(jsonModeResponse), "snippet", "title",
+				"https://example.edu", "single", e -> {});
+	}
+
+	@Benchmark
+	public List<GeminiService.EventExtraction> parseStreamedResponse() throws IOException {
+		return parse(streamedResponse, "stream");
+	}
+
+	/** The previous approach: body as a String, envelope tree, substring, second tree, fields copied off it. */
+	@Benchmark
+	public List<GeminiService.EventExtraction> treeBaseline() throws IOException {
+		String body = new String(fencedResponse, StandardCharsets.UTF_8);
+		String text = mapper.readTree(body).path("candidates").path(0).path("content").path("parts").path(0)
+				.path("text").asText();
+		JsonNode events = mapper.readTree(text.substring(text.indexOf('['), text.lastIndexOf(']') + 1));
+		List<GeminiService.EventExtraction> extractions = new ArrayList<>(events.size());
+		for (JsonNode eventData : events) {
+			GeminiService.EventExtraction extraction = new GeminiService.EventExtraction();
+			extraction.title = eventData.path("title").asText("title");
+			extraction.date = eventData.path("date").asText(null);
+			extraction.time = eventData.path("time").asText(null);
+			extraction.tag = eventData.path("tag").asText("Event");
+			extraction.description = eventData.path("description").asText("");
+			extraction.confidence = eventData.path("confidence").asDouble(0.8);
+			extraction.sourceSnippet = "snippet";
+			extraction.url = "https://example.edu";
+			extractions.add(extraction);
+		}
+		return extractions;
+	}
+
+	private List<GeminiService.EventExtraction> parse(byte[] body, String kind) throws IOException {
+		return gemini.parseGeminiResponse(new ByteArrayInputStream(body), "snippet", "title", "https://example.edu",
+				kind, e -> {});
+	}
+
+	private static String wrap(String escapedText) {
+		return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + escapedText + "\"}],\"role\":\"model\"},"
+				+ "\"finishReason\":\"STOP\",\"index\":0}],"
+				+ "\"usageMetadata\":{\"promptTokenCount\":180,\"candidatesTokenCount\":60,\"totalTokenCount\":240}}";
+	}
+}
@@ -0,0 +1,73 @@
+package com.orbit.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.orbit.config.GeminiClientConfig;
+import com.orbit.support.FakeGeminiServer;
+import com.orbit.support.TestUpstreams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Full extractEvents round trip (prompt, pooled HTTP call, parse) against
+ * a local fake Gemini with configurable latency, so client overhead can be
+ * measured without spending quota.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class GeminiRoundTripBenchmark {
+
+	@Param({"0", "50"})
+	public long latencyMs;
+
+	private FakeGeminiServer server;
+	private GeminiService gemini;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		server = new FakeGeminiServer().latencyMs(latencyMs);
+
+		GeminiClientConfig config = new GeminiClientConfig();
+		ReflectionTestUtils.setField(config, "connectTimeoutMs", 3000L);
+		ReflectionTestUtils.setField(config, "readTimeoutMs", 20000L);
+		ReflectionTestUtils.setField(config, "maxConnections", 64);
+		gemini = new GeminiService(config.geminiRestTemplate(config.geminiHttpClient()),
+				new LocalEventExtractor("en-US"),
+				new ExtractionMetrics(new SimpleMeterRegistry()), TestUpstreams.unlimited(64), null);
+		ReflectionTestUtils.setField(gemini, "apiKey", "bench");
+		ReflectionTestUtils.setField(gemini, "apiUrl", server.url());
+		ReflectionTestUtils.setField(gemini, "acquireTimeoutMs", 5000L);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		server.close();
+	}
+
+	@Benchmark
+	public List<GeminiService.EventExtraction> extractEvents() {
+		return gemini.extractEvents("Team sync on 2026-03-05 at 3pm", "Team calendar", "https://example.com");
+	}
+}
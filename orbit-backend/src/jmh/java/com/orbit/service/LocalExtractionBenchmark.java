@@ -0,0 +1,50 @@
+package com.orbit.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The fallback (non-LLM) extraction path over typical snippet shapes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalExtractionBenchmark {
+
+	@Param({"iso", "natural", "none", "page"})
+	public String shape;
+
+	private LocalEventExtractor extractor;
+	private String snippet;
+
+	@Setup
+	public void setUp() {
+		extractor = new LocalEventExtractor("en-US");
+		snippet = switch (shape) {
+			case "iso" -> "CS101 midterm on 2026-03-18 at 14:30 in Hall B.";
+			case "natural" -> "Join us next Friday, March 20th from 3-5pm for the spring mixer!";
+			case "none" -> "Welcome to the course homepage. Please read the syllabus carefully.";
+			default -> "Home | Courses | Calendar | Sign in\n".repeat(20)
+					+ "Week 1: Introduction (Jan 12). Week 2: Sorting, quiz on 01/21/2026 at 10am. "
+					+ "Office hours Tuesdays 2:00 - 3:30 pm. Final exam May 4, 2026.\n"
+					+ "Footer © 2026 University. Privacy. Accessibility.\n".repeat(10);
+		};
+	}
+
+	@Benchmark
+	public LocalEventExtractor.Result analyze() {
+		return extractor.analyze(snippet);
+	}
+}
@@ -0,0 +1,27 @@
+package com.orbit.loadtest;
+
+/** The API calls a workload can mix. */
+enum Endpoint {
+
+	EXTRACT("extract", "POST /api/extract"),
+	SAVE("save", "POST /api/saveEvent"),
+	EVENTS("events", "GET /api/events"),
+	ICS("ics", "GET /api/export/ics");
+
+	final String key;
+	final String label;
+
+	Endpoint(String key, String label) {
+		this.key = key;
+		this.label = label;
+	}
+
+	static Endpoint of(String key) {
+		for (Endpoint e : values()) {
+			if (e.key.equals(key)) {
+				return e;
+			}
+		}
+		throw new IllegalArgumentException("Unknown endpoint '" + key + "', expected extract, save, events or ics");
+	}
+}
@@ -0,0 +1,79 @@
+package com.orbit.loadtest;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and failures of one endpoint, recorded by all workers at once.
+ * Latencies are kept in microseconds with three significant digits, up to
+ * two minutes.
+ */
+final class EndpointStats {
+
+	static final String CSV_HEADER = "run,endpoint,requests,req_per_s,error_rate,p50_ms,p90_ms,p99_ms,max_ms";
+
+	private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+	final String label;
+	private final Recorder latency = new Recorder(MAX_MICROS, 3);
+	private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+	EndpointStats(String label) {
+		this.label = label;
+	}
+
+	/** One finished request; {@code error} is null for a 2xx or 304 answer. */
+	void record(long nanos, String error) {
+		latency.recordValue(Math.min(MAX_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+		if (error != null) {
+			errors.computeIfAbsent(error, k -> new LongAdder()).increment();
+		}
+	}
+
+	/** The latencies recorded; call once, after the workers stopped. */
+	Histogram finish() {
+		return latency.getIntervalHistogram();
+	}
+
+	long errorCount() {
+		return errors.values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	/** Error counts by cause, e.g. {@code 503} or {@code timeout}. */
+	Map<String, Long> errors() {
+		Map<String, Long> byCause = new TreeMap<>();
+		errors.forEach((cause, n) -> byCause.put(cause, n.sum()));
+		return byCause;
+	}
+
+	static void printHeader(PrintStream out) {
+		out.printf("%-22s %9s %9s %8s %9s %9s %9s %9s%n",
+				"endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+	}
+
+	static void printRow(PrintStream out, String label, Histogram h, long errors, double seconds) {
+		long n = h.getTotalCount();
+		out.printf("%-22s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f%n", label, n, n / seconds,
+				n == 0 ? 0.0 : 100.0 * errors / n, ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+				ms(h.getValueAtPercentile(99)), ms(h.getMaxValue()));
+	}
+
+	static String csvRow(String run, String label, Histogram h, long errors, double seconds) {
+		long n = h.getTotalCount();
+		return String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.4f,%.2f,%.2f,%.2f,%.2f", run, label, n, n / seconds,
+				n == 0 ? 0.0 : (double) errors / n, ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+				ms(h.getValueAtPercentile(99)), ms(h.getMaxValue()));
+	}
+
+	private static double ms(long micros) {
+		return micros / 1000.0;
+	}
+}
@@ -0,0 +1,355 @@
+package com.orbit.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.orbit.orbit_backend.OrbitBackendApplication;
+import com.orbit.support.FakeGeminiServer;
+
+/**
+ * Drives the API with a workload at a fixed concurrency, or a fixed request
+ * rate, and reports latency percentiles, throughput and errors per endpoint.
+ * Gemini is always the local {@link FakeGeminiServer}, so no quota is spent.
+ * By default the app runs in this JVM on the test H2 database; with
+ * {@code --target} it drives an app started elsewhere, which has to use the
+ * fake's URL as {@code gemini.api.url} (printed at startup).
+ * <p>
+ * Options, all {@code --name=value}:
+ * <pre>
+ *   workload            capture, browse, export, mixed, or a mix like extract:3,events:1 (mixed)
+ *   concurrency         workers sending requests (16)
+ *   rate                total requests per second, 0 sends back to back (0)
+ *   duration, warmup    measured time and unmeasured time before it (30s, 10s)
+ *   seed-events         events stored before the run, for reads to return (500)
+ *   repeat-pages        share of extractions that revisit an earlier page (0.1)
+ *   conditional         reads send If-None-Match, like polling clients (false)
+ *   timeout             per request (30s)
+ *   gemini-latency-ms   fake Gemini delay per call (300)
+ *   gemini-error-rate   share of calls answered 500 (0)
+ *   gemini-throttle-rate, gemini-retry-after   share answered 429, and its Retry-After (0, 1)
+ *   gemini-port         fixed port for the fake, for use with --target (random)
+ *   target, token       base URL of a running app, and a bearer token if it has tenancy on
+ *   label, csv          append summary rows to a CSV file under this run label
+ *   hgrm                directory for full percentile distributions per endpoint
+ * </pre>
+ * Anything else is passed to the in-process app as a Spring property, e.g.
+ * {@code --server.tomcat.threads.max=50 --gemini.http.max-connections=8}.
+ */
+public final class LoadTest {
+
+	private static final Set<String> OPTIONS = Set.of("workload", "concurrency", "rate", "duration", "warmup",
+			"seed-events", "repeat-pages", "conditional", "timeout", "gemini-latency-ms", "gemini-error-rate",
+			"gemini-throttle-rate", "gemini-retry-after", "gemini-port", "target", "token", "label", "csv", "hgrm");
+	private static final Pattern CAUSE = Pattern.compile("cause=\"([^\"]*)\"");
+	private static final int SEED_BATCH = 500;
+
+	private final Map<String, String> options;
+	private final Map<String, String> appProperties;
+	private final Workload workload;
+	private final int concurrency;
+	private final double rate;
+	private final boolean conditional;
+	private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+	private HttpClient http;
+	private Requests requests;
+
+	private LoadTest(Map<String, String> options, Map<String, String> appProperties) {
+		this.options = options;
+		this.appProperties = appProperties;
+		this.workload = Workload.parse(option("workload", "mixed"));
+		this.concurrency = Integer.parseInt(option("concurrency", "16"));
+		this.rate = Double.parseDouble(option("rate", "0"));
+		this.conditional = Boolean.parseBoolean(option("conditional", "false"));
+		for (Endpoint e : Endpoint.values()) {
+			if (workload.uses(e)) {
+				stats.put(e, new EndpointStats(e.label));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new LinkedHashMap<>();
+		Map<String, String> appProperties = new LinkedHashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--")) {
+				throw new IllegalArgumentException("Expected --name=value, got " + arg);
+			}
+			int eq = arg.indexOf('=');
+			String name = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+			String value = eq < 0 ? "true" : arg.substring(eq + 1);
+			(OPTIONS.contains(name) ? options : appProperties).put(name, value);
+		}
+		new LoadTest(options, appProperties).run();
+		System.exit(0); // the app's non-daemon threads would keep the JVM up
+	}
+
+	private void run() throws Exception {
+		try (FakeGeminiServer gemini = new FakeGeminiServer(Integer.parseInt(option("gemini-port", "0")))
+				.latencyMs(Long.parseLong(option("gemini-latency-ms", "300")))
+				.errorRate(Double.parseDouble(option("gemini-error-rate", "0")))
+				.throttleRate(Double.parseDouble(option("gemini-throttle-rate", "0")),
+						Integer.parseInt(option("gemini-retry-after", "1")))) {
+			ConfigurableApplicationContext app = null;
+			URI base;
+			if (options.containsKey("target")) {
+				base = URI.create(options.get("target"));
+				System.out.println("Fake Gemini for the target: --gemini.api.url=" + gemini.url() + " --gemini.api.key=loadtest");
+			} else {
+				app = startApp(gemini.url());
+				base = URI.create("http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort() + "/");
+			}
+			try {
+				http = HttpClient.newBuilder()
+						.version(HttpClient.Version.HTTP_1_1)
+						.connectTimeout(Duration.ofSeconds(5))
+						.executor(Executors.newVirtualThreadPerTaskExecutor())
+						.build();
+				requests = new Requests(base, options.get("token"), duration("timeout", "30s"),
+						Double.parseDouble(option("repeat-pages", "0.1")));
+				seed(Integer.parseInt(option("seed-events", "500")));
+				measure(gemini);
+			} finally {
+				if (app != null) {
+					app.close();
+				}
+			}
+		}
+	}
+
+	private ConfigurableApplicationContext startApp(String geminiUrl) {
+		// DevTools is on the test classpath; its restart would run main() again with the app's arguments
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		Map<String, String> properties = new LinkedHashMap<>();
+		properties.put("server.port", "0");
+		properties.put("gemini.api.url", geminiUrl);
+		properties.put("gemini.api.key", "loadtest");
+		properties.put("spring.main.banner-mode", "off");
+		properties.put("logging.level.root", "WARN");
+		properties.putAll(appProperties);
+		return SpringApplication.run(OrbitBackendApplication.class, properties.entrySet().stream()
+				.map(p -> "--" + p.getKey() + "=" + p.getValue())
+				.toArray(String[]::new));
+	}
+
+	private void seed(int events) throws IOException, InterruptedException {
+		for (int from = 1; from <= events; from += SEED_BATCH) {
+			HttpResponse<String> response = http.send(requests.seed(from, Math.min(SEED_BATCH, events - from + 1)),
+					HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				throw new IllegalStateException("Seeding events failed with " + response.statusCode() + ": " + response.body());
+			}
+		}
+	}
+
+	private void measure(FakeGeminiServer gemini) throws IOException {
+		Duration warmup = duration("warmup", "10s");
+		Duration duration = duration("duration", "30s");
+		System.out.printf("Workload %s, %d workers, %s, %ds after %ds warmup%n", workload, concurrency,
+				rate > 0 ? rate + " req/s" : "back to back", duration.toSeconds(), warmup.toSeconds());
+		System.out.printf("Fake Gemini: %s ms latency, %s errors, %s throttled%n", option("gemini-latency-ms", "300"),
+				option("gemini-error-rate", "0"), option("gemini-throttle-rate", "0"));
+
+		long start = System.nanoTime();
+		long measured = start + warmup.toNanos();
+		long end = measured + duration.toNanos();
+		Map<String, Double> fallbacksBefore;
+		long geminiBefore;
+		try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < concurrency; i++) {
+				int worker = i;
+				workers.submit(() -> work(worker, start, measured, end));
+			}
+			sleepUntil(measured);
+			fallbacksBefore = fallbacks();
+			geminiBefore = gemini.requestCount();
+		} // waits for the workers to finish
+		long geminiCalls = gemini.requestCount() - geminiBefore;
+		report(duration.toNanos() / 1e9, geminiCalls, fallbacksBefore, fallbacks());
+	}
+
+	/**
+	 * One worker's loop; requests that start before {@code measured} are
+	 * warmup and not recorded. With a rate each request has a scheduled
+	 * start and its latency counts from there, so time spent waiting behind
+	 * a slow server is not hidden (coordinated omission).
+	 */
+	private void work(int worker, long start, long measured, long end) {
+		Map<Endpoint, String> etags = new EnumMap<>(Endpoint.class);
+		long interval = rate > 0 ? (long) (1e9 * concurrency / rate) : 0;
+		long next = start + interval * worker / concurrency;
+		while (true) {
+			long begin;
+			if (interval > 0) {
+				begin = next;
+				next += interval;
+				if (begin >= end) {
+					return;
+				}
+				sleepUntil(begin);
+			} else {
+				begin = System.nanoTime();
+				if (begin >= end) {
+					return;
+				}
+			}
+			Endpoint endpoint = workload.next();
+			String error = null;
+			try {
+				HttpResponse<Void> response = http.send(requests.next(endpoint, conditional ? etags.get(endpoint) : null),
+						HttpResponse.BodyHandlers.discarding());
+				int status = response.statusCode();
+				if (status / 100 == 2 || status == 304) {
+					response.headers().firstValue("ETag").ifPresent(tag -> etags.put(endpoint, tag));
+				} else {
+					error = Integer.toString(status);
+				}
+			} catch (HttpTimeoutException e) {
+				error = "timeout";
+			} catch (IOException e) {
+				error = e.getClass().getSimpleName();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (begin >= measured) {
+				stats.get(endpoint).record(System.nanoTime() - begin, error);
+			}
+		}
+	}
+
+	private void report(double seconds, long geminiCalls, Map<String, Double> fallbacksBefore,
+			Map<String, Double> fallbacksAfter) throws IOException {
+		PrintStream out = System.out;
+		out.println();
+		EndpointStats.printHeader(out);
+		Histogram total = null;
+		long totalErrors = 0;
+		List<String> csv = new ArrayList<>();
+		String label = option("label", workload.toString().split(" ")[0]);
+		for (EndpointStats s : stats.values()) {
+			Histogram h = s.finish();
+			EndpointStats.printRow(out, s.label, h, s.errorCount(), seconds);
+			csv.add(EndpointStats.csvRow(label, s.label, h, s.errorCount(), seconds));
+			writeHistogram(s.label, h);
+			if (total == null) {
+				total = h.copy();
+			} else {
+				total.add(h);
+			}
+			totalErrors += s.errorCount();
+		}
+		EndpointStats.printRow(out, "total", total, totalErrors, seconds);
+		csv.add(EndpointStats.csvRow(label, "total", total, totalErrors, seconds));
+
+		for (EndpointStats s : stats.values()) {
+			if (s.errorCount() > 0) {
+				StringJoiner causes = new StringJoiner(", ");
+				s.errors().forEach((cause, n) -> causes.add(cause + " x" + n));
+				out.println("errors " + s.label + ": " + causes);
+			}
+		}
+		StringJoiner fallbacks = new StringJoiner(", ");
+		fallbacksAfter.forEach((cause, n) -> {
+			long delta = Math.round(n - fallbacksBefore.getOrDefault(cause, 0.0));
+			if (delta > 0) {
+				fallbacks.add(cause + " " + delta);
+			}
+		});
+		out.printf("Gemini calls: %d (%.1f/s), local fallbacks: %s%n", geminiCalls, geminiCalls / seconds,
+				fallbacks.length() == 0 ? "none" : fallbacks);
+
+		if (options.containsKey("csv")) {
+			Path file = Path.of(options.get("csv"));
+			if (!Files.exists(file)) {
+				csv.add(0, EndpointStats.CSV_HEADER);
+			}
+			Files.write(file, csv, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+	}
+
+	private void writeHistogram(String endpoint, Histogram h) throws IOException {
+		if (!options.containsKey("hgrm")) {
+			return;
+		}
+		Path dir = Files.createDirectories(Path.of(options.get("hgrm")));
+		String name = option("label", "run") + "-" + endpoint.replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm";
+		try (PrintStream file = new PrintStream(Files.newOutputStream(dir.resolve(name)))) {
+			h.outputPercentileDistribution(file, 1000.0); // in milliseconds
+		}
+	}
+
+	/** The app's local fallbacks so far by cause, from /actuator/prometheus; empty when it is not exposed. */
+	private Map<String, Double> fallbacks() {
+		Map<String, Double> byCause = new TreeMap<>();
+		try {
+			HttpResponse<String> response = http.send(requests.get("/actuator/prometheus", null),
+					HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				return byCause;
+			}
+			for (String line : response.body().split("\n")) {
+				if (line.startsWith("orbit_extract_fallback_total{")) {
+					Matcher m = CAUSE.matcher(line);
+					if (m.find()) {
+						byCause.merge(m.group(1), Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)), Double::sum);
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Could not read fallback counts: " + e.getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return byCause;
+	}
+
+	private String option(String name, String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+
+	/** 30s, 2m, 500ms, or plain seconds. */
+	private Duration duration(String name, String defaultValue) {
+		String value = option(name, defaultValue).trim().toLowerCase();
+		if (value.endsWith("ms")) {
+			return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+		}
+		if (value.endsWith("m")) {
+			return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+		}
+		return Duration.ofSeconds(Long.parseLong(value.endsWith("s") ? value.substring(0, value.length() - 1) : value));
+	}
+
+	private static void sleepUntil(long nanoTime) {
+		long wait;
+		while ((wait = nanoTime - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(wait);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.orbit.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Builds the request for each endpoint. Extracted pages are unique, except
+ * that a {@code repeatRate} share revisits an earlier page the extraction
+ * cache can answer; saved events are unique, so every save inserts a row.
+ */
+final class Requests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 12);
+	private static final DateTimeFormatter LONG_DATE = DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.US);
+	private static final String[] TAGS = {"Exam", "Assignment", "Lecture", "Work", "Event"};
+	private static final String FILLER = ("Office hours are held in the department lounge. Slides and recordings "
+			+ "are posted after each lecture, and questions go to the course forum rather than email. ").repeat(4);
+
+	private final URI base;
+	private final String token;
+	private final Duration timeout;
+	private final double repeatRate;
+	private final AtomicLong pages = new AtomicLong();
+	private final AtomicLong events = new AtomicLong();
+
+	Requests(URI base, String token, Duration timeout, double repeatRate) {
+		this.base = base;
+		this.token = token;
+		this.timeout = timeout;
+		this.repeatRate = repeatRate;
+	}
+
+	/** The next request for an endpoint; {@code etag}, when set, makes reads conditional. */
+	HttpRequest next(Endpoint endpoint, String etag) {
+		return switch (endpoint) {
+			case EXTRACT -> post("/api/extract", extractBody());
+			case SAVE -> post("/api/saveEvent", json(event(events.incrementAndGet())));
+			case EVENTS -> get("/api/events", etag);
+			case ICS -> get("/api/export/ics", etag);
+		};
+	}
+
+	/** A /api/events/bulk request with {@code count} seed events, numbered from {@code from}. */
+	HttpRequest seed(long from, int count) {
+		List<Map<String, Object>> items = new ArrayList<>(count);
+		for (long n = from; n < from + count; n++) {
+			items.add(event(-n)); // negative numbers never collide with the saves of the run
+		}
+		return post("/api/events/bulk", json(Map.of("items", items)));
+	}
+
+	HttpRequest get(String path, String etag) {
+		HttpRequest.Builder b = builder(path).GET();
+		if (etag != null) {
+			b.header("If-None-Match", etag);
+		}
+		return b.build();
+	}
+
+	private HttpRequest post(String path, String body) {
+		return builder(path)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+
+	private HttpRequest.Builder builder(String path) {
+		HttpRequest.Builder b = HttpRequest.newBuilder(base.resolve(path)).timeout(timeout);
+		if (token != null) {
+			b.header("Authorization", "Bearer " + token);
+		}
+		return b;
+	}
+
+	private String extractBody() {
+		long page = pages.get() > 0 && ThreadLocalRandom.current().nextDouble() < repeatRate
+				? ThreadLocalRandom.current().nextLong(pages.get()) + 1
+				: pages.incrementAndGet();
+		LocalDate day = FIRST_DAY.plusDays(page % 120);
+		String snippet = "CS" + (100 + page % 400) + " Course Page\n\nAnnouncements\n\n"
+				+ "Midterm exam on " + day.format(LONG_DATE) + " at " + (9 + page % 8) + ":30am in Hall B. "
+				+ "Bring a calculator.\n\n"
+				+ "Homework " + (page % 12 + 1) + " is due " + day.plusDays(7) + " before midnight.\n\n"
+				+ FILLER;
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("url", "https://courses.example.edu/cs" + (100 + page % 400) + "/page/" + page);
+		body.put("title", "CS" + (100 + page % 400) + " Announcements");
+		body.put("snippet", snippet);
+		return json(body);
+	}
+
+	private static Map<String, Object> event(long n) {
+		long k = Math.abs(n);
+		Map<String, Object> event = new LinkedHashMap<>();
+		event.put("title", "Load test event " + n);
+		event.put("date", FIRST_DAY.plusDays(k % 180).toString());
+		event.put("time", String.format("%02d:%02d", 8 + k % 10, k % 4 * 15));
+		event.put("tag", TAGS[(int) (k % TAGS.length)]);
+		event.put("confidence", 0.9);
+		event.put("sourceSnippet", "Load test event " + n + " in Hall B");
+		event.put("url", "https://loadtest.example/events/" + n);
+		return event;
+	}
+
+	private static String json(Object value) {
+		try {
+			return MAPPER.writeValueAsString(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
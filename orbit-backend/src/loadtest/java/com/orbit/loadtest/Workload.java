@@ -0,0 +1,68 @@
+package com.orbit.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A weighted mix of endpoints, either one of the named workloads or a
+ * custom mix such as {@code extract:3,save:2,events:4,ics:1}.
+ */
+final class Workload {
+
+	static final Map<String, String> NAMED = new LinkedHashMap<>();
+
+	static {
+		NAMED.put("capture", "extract:6,save:3,events:1"); // the extension scanning pages and saving events
+		NAMED.put("browse", "events:7,ics:3"); // popup and calendar clients reading
+		NAMED.put("export", "ics:1"); // subscribed calendar apps polling the feed
+		NAMED.put("mixed", "extract:3,save:2,events:4,ics:1");
+	}
+
+	private final String name;
+	private final Map<Endpoint, Integer> weights;
+	private final Endpoint[] wheel;
+
+	private Workload(String name, Map<Endpoint, Integer> weights) {
+		this.name = name;
+		this.weights = weights;
+		List<Endpoint> slots = new ArrayList<>();
+		weights.forEach((e, w) -> {
+			for (int i = 0; i < w; i++) {
+				slots.add(e);
+			}
+		});
+		if (slots.isEmpty()) {
+			throw new IllegalArgumentException("Workload " + name + " has no endpoints");
+		}
+		this.wheel = slots.toArray(Endpoint[]::new);
+	}
+
+	static Workload parse(String nameOrMix) {
+		String mix = NAMED.getOrDefault(nameOrMix, nameOrMix);
+		Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+		for (String part : mix.split(",")) {
+			String[] kv = part.trim().split(":");
+			weights.merge(Endpoint.of(kv[0].trim()), kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1, Integer::sum);
+		}
+		return new Workload(nameOrMix, weights);
+	}
+
+	Endpoint next() {
+		return wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+	}
+
+	boolean uses(Endpoint e) {
+		return weights.containsKey(e);
+	}
+
+	@Override
+	public String toString() {
+		StringJoiner mix = new StringJoiner(", ", name + " (", ")");
+		weights.forEach((e, w) -> mix.add(e.key + " " + w));
+		return mix.toString();
+	}
+}
@@ -0,0 +1,124 @@
+package com.orbit.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.orbit.service.AdaptiveRateLimiter;
+import com.orbit.service.CircuitBreaker;
+import com.orbit.service.UpstreamGuard;
+
+/**
+ * HTTP client and executor for the Gemini call path. Upstream calls go over a
+ * pooled keep-alive connection manager with explicit timeouts and run on
+ * virtual threads, so a slow upstream never parks Tomcat's request threads.
+ */
+@Configuration
+public class GeminiClientConfig {
+
+    @Value("${gemini.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${gemini.http.read-timeout-ms:20000}")
+    private long readTimeoutMs;
+
+    @Value("${gemini.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${gemini.http.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Value("${gemini.http.platform-threads:16}")
+    private int platformThreads;
+
+    @Value("${gemini.http.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${gemini.breaker.window:20}")
+    private int breakerWindow;
+
+    @Value("${gemini.breaker.min-calls:10}")
+    private int breakerMinCalls;
+
+    @Value("${gemini.breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${gemini.breaker.open-ms:30000}")
+    private long breakerOpenMs;
+
+    @Value("${gemini.ratelimit.initial-rps:5}")
+    private double initialRps;
+
+    @Value("${gemini.ratelimit.min-rps:0.2}")
+    private double minRps;
+
+    @Value("${gemini.ratelimit.max-rps:50}")
+    private double maxRps;
+
+    @Value("${gemini.ratelimit.increase-rps:1}")
+    private double increaseRps;
+
+    @Value("${gemini.ratelimit.burst:10}")
+    private double burst;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient geminiHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections) // everything goes to one host
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate geminiRestTemplate(CloseableHttpClient geminiHttpClient) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(geminiHttpClient);
+        factory.setConnectionRequestTimeout(Duration.ofMillis(connectTimeoutMs));
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(factory);
+    }
+
+    /**
+     * Breaker, adaptive rate limit and in-flight cap for upstream calls, so a
+     * throttled or failing Gemini is answered locally instead of waited on.
+     */
+    @Bean
+    public UpstreamGuard geminiUpstreamGuard() {
+        Clock clock = Clock.systemUTC();
+        return new UpstreamGuard(
+                new CircuitBreaker(breakerWindow, breakerMinCalls, breakerFailureRate, breakerOpenMs, clock),
+                new AdaptiveRateLimiter(initialRps, minRps, maxRps, increaseRps, burst, clock),
+                maxInFlight);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService geminiExecutor() {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gemini-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(platformThreads, Thread.ofPlatform().name("gemini-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,17 @@
+package com.orbit.config;
+
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+
+import com.orbit.service.GeminiService;
+
+/**
+ * Reflection hints for a GraalVM native image. Controller request and
+ * response types are registered by Spring AOT on its own; these are the
+ * types Jackson binds outside of a controller, such as cached extractions
+ * read back from the database.
+ */
+@Configuration(proxyBeanMethods = false)
+@RegisterReflectionForBinding(GeminiService.EventExtraction.class)
+public class NativeHints {
+}
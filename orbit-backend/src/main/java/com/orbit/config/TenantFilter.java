@@ -0,0 +1,55 @@
+package com.orbit.config;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.orbit.entity.UserAccount;
+import com.orbit.service.TenantService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates each request as the user it belongs to; the user id is the
+ * principal controllers receive. Without multi-tenancy that is always the
+ * local user. With it, the bearer token decides, or for the ICS feed the
+ * {@code key} parameter; requests with neither stay anonymous and are
+ * turned away by {@link SecurityConfig}.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenantService tenants;
+
+    public TenantFilter(TenantService tenants) {
+        this.tenants = tenants;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String userId = tenants.isEnabled() ? resolve(request) : UserAccount.LOCAL;
+        if (userId != null) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(userId, null, List.of()));
+            SecurityContextHolder.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String resolve(HttpServletRequest request) {
+        String auth = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (auth != null && auth.regionMatches(true, 0, "Bearer ", 0, 7))
+            return tenants.userForToken(auth.substring(7).trim());
+        if ("/api/export/ics".equals(request.getRequestURI()))
+            return tenants.userForFeedKey(request.getParameter("key"));
+        return null;
+    }
+}
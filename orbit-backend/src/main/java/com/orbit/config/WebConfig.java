@@ -12,6 +12,7 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedOrigins("*")     // dev: allow all; for prod replace with extension origin or backend domain
             .allowedMethods("GET","POST","PUT","DELETE","OPTIONS")
             .allowedHeaders("*")
+            .exposedHeaders("X-Duplicate-Of")
             .allowCredentials(false)
             .maxAge(3600);
   }
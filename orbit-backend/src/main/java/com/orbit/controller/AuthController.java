@@ -1,6 +1,13 @@
 package com.orbit.controller;
 
+import com.orbit.entity.UserAccount;
+import com.orbit.service.CalendarPushQueue;
+import com.orbit.service.GoogleCalendarService;
+import com.orbit.service.TenantService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.stereotype.Controller;
 
@@ -8,34 +15,100 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
 
 @Controller
+@Lazy // only the OAuth round trip needs it, so it is built on the first request
 @RequestMapping("/api/auth")
 public class AuthController {
 
+  /** Holds the OAuth state between the redirect to Google and the callback. */
+  static final String STATE_COOKIE = "orbit_oauth_state";
+  private static final Duration STATE_TTL = Duration.ofMinutes(10);
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final GoogleCalendarService googleCalendar;
+  private final CalendarPushQueue calendarPush;
+  private final TenantService tenants;
+
+  public AuthController(GoogleCalendarService googleCalendar, CalendarPushQueue calendarPush, TenantService tenants) {
+    this.googleCalendar = googleCalendar;
+    this.calendarPush = calendarPush;
+    this.tenants = tenants;
+  }
+
   @Value("${google.clientId:}")
   private String clientId;
 
   @Value("${google.redirectUri:}")
   private String redirectUri;
 
+  /**
+   * Sends the browser to Google's consent page. The random {@code state} is
+   * also kept in a cookie, so the callback only accepts a code from a round
+   * trip this browser started.
+   */
   @GetMapping("/google")
   public void startAuth(HttpServletResponse resp) throws IOException {
+    byte[] bytes = new byte[32];
+    RANDOM.nextBytes(bytes);
+    String state = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    resp.addHeader(HttpHeaders.SET_COOKIE, stateCookie(state, STATE_TTL).toString());
     String authUrl = "https://accounts.google.com/o/oauth2/v2/auth" +
         "?response_type=code" +
         "&client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8) +
-        "&scope=" + URLEncoder.encode("https://www.googleapis.com/auth/calendar.events", StandardCharsets.UTF_8) +
+        "&scope=" + URLEncoder.encode("openid email https://www.googleapis.com/auth/calendar.events", StandardCharsets.UTF_8) +
         "&redirect_uri=" + URLEncoder.encode(redirectUri, StandardCharsets.UTF_8) +
         "&access_type=offline" +
-        "&prompt=consent";
+        "&prompt=consent" +
+        "&state=" + state;
     resp.sendRedirect(authUrl);
   }
 
+  /**
+   * Connects the calendar and, with multi-tenancy on, signs the user in: the
+   * page gets the API token in its URL fragment, which never reaches a server.
+   * The token is only issued once the calendar is connected, so a failed
+   * connect leaves the previous token working.
+   */
   @GetMapping("/google/callback")
-  public String callback(@RequestParam("code") String code) {
-    // Exchange code for tokens: server-side call (implement in
-    // GoogleCalendarService)
-    // After exchange, redirect to a success page or close the tab.
-    return "redirect:/auth-success.html";
+  public String callback(@RequestParam("code") String code,
+                         @RequestParam(value = "state", required = false) String state,
+                         @CookieValue(value = STATE_COOKIE, required = false) String expectedState,
+                         HttpServletResponse resp) {
+    resp.addHeader(HttpHeaders.SET_COOKIE, stateCookie("", Duration.ZERO).toString());
+    if (state == null || expectedState == null || !MessageDigest.isEqual(
+        state.getBytes(StandardCharsets.UTF_8), expectedState.getBytes(StandardCharsets.UTF_8))) {
+      System.err.println("Google callback rejected: OAuth state does not match");
+      return "redirect:/auth-success.html?error=state";
+    }
+    String userId = UserAccount.LOCAL;
+    String fragment = "";
+    try {
+      GoogleCalendarService.Grant grant = googleCalendar.exchangeCode(code);
+      if (tenants.isEnabled())
+        userId = tenants.accountId(grant.subject());
+      googleCalendar.connect(userId, grant);
+      if (tenants.isEnabled())
+        fragment = "#token=" + tenants.signIn(grant.subject(), grant.email()).token();
+    } catch (RuntimeException e) {
+      System.err.println("Google token exchange failed: " + e.getMessage());
+      return "redirect:/auth-success.html?error=token_exchange";
+    }
+    calendarPush.enqueueAll(userId); // first connect: push what was captured so far
+    return "redirect:/auth-success.html" + fragment;
+  }
+
+  private ResponseCookie stateCookie(String value, Duration maxAge) {
+    return ResponseCookie.from(STATE_COOKIE, value)
+        .httpOnly(true)
+        .secure(redirectUri.startsWith("https:"))
+        .sameSite("Lax") // sent on Google's top-level redirect back to the callback
+        .path("/api/auth/google")
+        .maxAge(maxAge)
+        .build();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.orbit.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.orbit.service.CalendarPushQueue;
+
+@RestController
+@RequestMapping("/api/calendar/google")
+public class CalendarController {
+
+    private final CalendarPushQueue calendarPush;
+
+    public CalendarController(CalendarPushQueue calendarPush) {
+        this.calendarPush = calendarPush;
+    }
+
+    @GetMapping("/status")
+    public CalendarPushQueue.Status status(@AuthenticationPrincipal String userId) {
+        return calendarPush.status(userId);
+    }
+
+    /** Re-pushes every event, e.g. after events were removed in Google Calendar by hand. */
+    @PostMapping("/sync")
+    public ResponseEntity<?> syncAll(@AuthenticationPrincipal String userId) {
+        if (!calendarPush.status(userId).connected())
+            return ResponseEntity.status(409).body(Map.of("error", "Google Calendar is not connected"));
+        return ResponseEntity.accepted().body(Map.of("queued", calendarPush.enqueueAll(userId)));
+    }
+}
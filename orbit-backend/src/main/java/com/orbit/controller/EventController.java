@@ -1,10 +1,28 @@
 package com.orbit.controller;
 
+import com.orbit.dto.BulkSaveRequest;
+import com.orbit.dto.BulkSaveResponse;
+import com.orbit.dto.EventChanges;
+import com.orbit.dto.EventPage;
+import com.orbit.dto.EventSearchPage;
+import com.orbit.dto.EventSummary;
 import com.orbit.entity.Event;
 import com.orbit.repository.EventRepository;
+import com.orbit.service.EventSearchService;
+import com.orbit.service.EventService;
+import com.orbit.service.EventSimilarityIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -13,34 +31,124 @@ import java.util.Map;
 public class EventController {
 
     private final EventRepository repo;
+    private final EventService eventService;
+    private final EventSearchService searchService;
+    private final EventSimilarityIndex duplicates;
 
-    public EventController(EventRepository repo) {
+    @Value("${orbit.events.bulk.max-items:1000}")
+    private int maxBulkItems;
+
+    public EventController(EventRepository repo, EventService eventService, EventSearchService searchService,
+                           EventSimilarityIndex duplicates) {
         this.repo = repo;
+        this.eventService = eventService;
+        this.searchService = searchService;
+        this.duplicates = duplicates;
     }
 
     @GetMapping("/events")
-    public List<Event> listEvents() {
-        return repo.findAll();
+    public ResponseEntity<List<Event>> listEvents(@AuthenticationPrincipal String userId, WebRequest request) {
+        // Answer conditional polls from the table version before touching the rows
+        String etag = eventService.currentEtag(userId, "events");
+        if (request.checkNotModified(etag))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(repo.findByUserId(userId));
+    }
+
+    @GetMapping("/events/changes")
+    public EventChanges changes(@AuthenticationPrincipal String userId,
+                                @RequestParam(required = false) String since) {
+        return eventService.changesSince(userId, since);
+    }
+
+    @GetMapping("/events/page")
+    public ResponseEntity<EventPage> pageEvents(@AuthenticationPrincipal String userId,
+                                @RequestParam(required = false) Long before,
+                                @RequestParam(defaultValue = "50") int limit,
+                                @RequestParam(required = false) String tag,
+                                @RequestParam(required = false) String from,
+                                @RequestParam(required = false) String to,
+                                @RequestParam(required = false) Double minConfidence) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from == null ? null : LocalDate.parse(from);
+            toDate = to == null ? null : LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.max(1, Math.min(limit, 200));
+        // fetch one extra row to know whether another page follows
+        List<EventSummary> rows = repo.findPage(userId, before, tag, fromDate, toDate, minConfidence, Limit.of(size + 1));
+        EventPage page = new EventPage();
+        page.items = rows.size() > size ? rows.subList(0, size) : rows;
+        page.nextCursor = rows.size() > size ? page.items.get(size - 1).getId() : null;
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/events/search")
+    public ResponseEntity<EventSearchPage> search(@AuthenticationPrincipal String userId,
+                                                  @RequestParam String q,
+                                                  @RequestParam(defaultValue = "20") int limit,
+                                                  @RequestParam(defaultValue = "0") int offset) {
+        if (q.isBlank() || q.length() > 200 || offset < 0)
+            return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(searchService.search(userId, q, Math.max(1, Math.min(limit, 100)), offset));
+    }
+
+    /** Events starting today or within the next {@code days} days, soonest first. */
+    @GetMapping("/events/upcoming")
+    public List<EventSummary> upcoming(@AuthenticationPrincipal String userId,
+                                       @RequestParam(defaultValue = "7") int days) {
+        LocalDate today = LocalDate.now();
+        return repo.findStartingBetween(userId, today, today.plusDays(Math.max(1, Math.min(days, 366))));
+    }
+
+    /** Events starting in a calendar month given as {@code yyyy-MM}. */
+    @GetMapping("/events/month/{month}")
+    public ResponseEntity<List<EventSummary>> month(@AuthenticationPrincipal String userId,
+                                                    @PathVariable String month) {
+        YearMonth ym;
+        try {
+            ym = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(repo.findStartingBetween(userId, ym.atDay(1), ym.plusMonths(1).atDay(1)));
     }
 
     @PostMapping("/saveEvent")
-    public ResponseEntity<Event> saveEvent(@RequestBody Event ev) {
-        Event saved = repo.save(ev);
+    public ResponseEntity<Event> saveEvent(@AuthenticationPrincipal String userId, @RequestBody Event ev) {
+        Event saved = eventService.save(userId, ev);
+        // still saved: the header lets the client offer to merge or drop the copy
+        EventSimilarityIndex.Match match = duplicates.findDuplicate(
+                userId, saved.getTitle(), saved.getDate(), saved.getSourceSnippet(), saved.getId());
+        if (match != null)
+            return ResponseEntity.ok().header("X-Duplicate-Of", Long.toString(match.eventId())).body(saved);
         return ResponseEntity.ok(saved);
     }
 
+    @PostMapping("/events/bulk")
+    public ResponseEntity<BulkSaveResponse> saveBulk(@AuthenticationPrincipal String userId,
+                                                     @RequestBody BulkSaveRequest request) {
+        if (request.items() == null || request.items().isEmpty() || request.items().size() > maxBulkItems)
+            return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(eventService.saveAll(userId, request.items()));
+    }
+
     @DeleteMapping("/events/{id}")
-    public ResponseEntity<?> delete(@PathVariable Long id) {
-        if (!repo.existsById(id))
+    public ResponseEntity<?> delete(@AuthenticationPrincipal String userId, @PathVariable Long id) {
+        if (!eventService.delete(userId, id))
             return ResponseEntity.notFound().build();
-        repo.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/events/clear")
-    public ResponseEntity<?> clearAll() {
-        long count = repo.count();
-        repo.deleteAll();
+    public ResponseEntity<?> clearAll(@AuthenticationPrincipal String userId) {
+        long count = eventService.clearAll(userId);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "All events cleared",
@@ -1,24 +1,153 @@
 package com.orbit.controller;
 
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.orbit.dto.BatchExtractRequest;
+import com.orbit.dto.BatchExtractResponse;
 import com.orbit.dto.ExtractRequest;
 import com.orbit.dto.ExtractResponse;
+import com.orbit.dto.JobStatus;
+import com.orbit.service.ExtractionCache;
+import com.orbit.service.ExtractionJob;
+import com.orbit.service.ExtractionJobService;
 import com.orbit.service.ExtractionService;
+import com.orbit.service.TenantQuotas;
 
 @RestController
 @RequestMapping("/api")
 public class ExtractionController {
     private final ExtractionService extractionService;
-    public ExtractionController(ExtractionService extractionService) {
+    private final ExtractionCache extractionCache;
+    private final ExtractionJobService jobService;
+    private final TenantQuotas quotas;
+
+    @Value("${orbit.extract.batch.max-items:50}")
+    private int maxBatchItems;
+
+    @Value("${orbit.extract.jobs.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    public ExtractionController(ExtractionService extractionService, ExtractionCache extractionCache,
+            ExtractionJobService jobService, TenantQuotas quotas) {
         this.extractionService = extractionService;
+        this.extractionCache = extractionCache;
+        this.jobService = jobService;
+        this.quotas = quotas;
     }
 
+    // Returning futures releases the servlet thread while Gemini is working
     @PostMapping("/extract")
-    public ExtractResponse extract(@RequestBody ExtractRequest request) {
-        return extractionService.extractFromSnippet(request);
+    public CompletableFuture<ResponseEntity<ExtractResponse>> extract(@AuthenticationPrincipal String userId,
+            @RequestBody ExtractRequest request) {
+        // one page per chunk, the prompts the page is actually sent as
+        ExtractionService.Page page = extractionService.prepare(request);
+        return limited(userId, page.chunks().size(), () -> extractionService.extractAsync(userId, page, null));
+    }
+
+    @PostMapping("/extract/batch")
+    public CompletableFuture<ResponseEntity<BatchExtractResponse>> extractBatch(@AuthenticationPrincipal String userId,
+            @RequestBody BatchExtractRequest request) {
+        if (request.items() == null || request.items().isEmpty() || request.items().size() > maxBatchItems)
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        return limited(userId, request.items().size(), () -> extractionService.extractBatchAsync(userId, request.items())
+                .thenApply(results -> {
+                    BatchExtractResponse resp = new BatchExtractResponse();
+                    resp.results = results;
+                    return resp;
+                }));
+    }
+
+    @PostMapping("/extract/jobs")
+    public ResponseEntity<JobStatus> submitJob(@AuthenticationPrincipal String userId,
+            @RequestBody ExtractRequest request) {
+        // a job costs one page per chunk, like the equivalent batch
+        ExtractionService.Page page = extractionService.prepare(request);
+        TenantQuotas.Permit permit;
+        try {
+            permit = quotas.acquire(userId, page.chunks().size());
+        } catch (TenantQuotas.QuotaExceededException e) {
+            return tooManyRequests(e);
+        }
+        ExtractionJob job;
+        try {
+            job = jobService.submit(userId, page, permit::close);
+        } catch (RejectedExecutionException e) {
+            permit.close();
+            // queue full: tell the client to come back rather than piling up work
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/extract/jobs/" + job.id()))
+                .body(job.snapshot(0));
+    }
+
+    @GetMapping("/extract/jobs/{id}")
+    public ResponseEntity<JobStatus> jobStatus(@AuthenticationPrincipal String userId, @PathVariable String id,
+            @RequestParam(defaultValue = "0") int after) {
+        return jobService.find(userId, id)
+                .map(job -> ResponseEntity.ok(job.snapshot(after)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // "chunk" events as each part of the page finishes, then a final "done" with the full status
+    @GetMapping(value = "/extract/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> jobEvents(@AuthenticationPrincipal String userId, @PathVariable String id) {
+        ExtractionJob job = jobService.find(userId, id).orElse(null);
+        if (job == null)
+            return ResponseEntity.notFound().build();
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        jobService.subscribe(job, emitter);
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/extract/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return extractionCache.stats();
+    }
+
+    // runs the work under the user's extraction quota, held until the work completes
+    private <T> CompletableFuture<ResponseEntity<T>> limited(String userId, int pages,
+            Supplier<CompletableFuture<T>> work) {
+        TenantQuotas.Permit permit;
+        try {
+            permit = quotas.acquire(userId, pages);
+        } catch (TenantQuotas.QuotaExceededException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(e));
+        }
+        CompletableFuture<T> future;
+        try {
+            future = work.get();
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> permit.close()).thenApply(ResponseEntity::ok);
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests(TenantQuotas.QuotaExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.retryAfterSeconds()))
+                .build();
     }
 }
@@ -2,59 +2,127 @@ package com.orbit.controller;
 
 import com.orbit.entity.Event;
 import com.orbit.repository.EventRepository;
+import com.orbit.service.EventService;
+import com.orbit.service.IcsCalendarWriter;
+import com.orbit.service.IcsFeedCache;
+import com.orbit.service.TenantService;
+import jakarta.persistence.EntityManager;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.UUID;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api")
 public class IcsController {
 
   private final EventRepository repo;
-  private static final DateTimeFormatter DATEFMT = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private final EventService eventService;
+  private final IcsFeedCache feedCache;
+  private final TenantService tenants;
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTx;
 
-  public IcsController(EventRepository repo) { this.repo = repo; }
+  public IcsController(EventRepository repo, EventService eventService, IcsFeedCache feedCache,
+                       TenantService tenants, EntityManager entityManager, PlatformTransactionManager txManager) {
+    this.repo = repo;
+    this.eventService = eventService;
+    this.feedCache = feedCache;
+    this.tenants = tenants;
+    this.entityManager = entityManager;
+    this.readOnlyTx = new TransactionTemplate(txManager);
+    this.readOnlyTx.setReadOnly(true);
+  }
 
+  /** The user's whole calendar, or one tag's events; this is also the URL calendar clients subscribe to. */
   @GetMapping("/export/ics")
-  public ResponseEntity<String> exportIcs() {
-    List<Event> events = repo.findAll();
-    StringBuilder sb = new StringBuilder();
-    sb.append("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//Orbit//EN\r\n");
-    for (Event e : events) {
-      sb.append("BEGIN:VEVENT\r\n");
-      String uid = UUID.randomUUID().toString();
-      sb.append("UID:").append(uid).append("\r\n");
-      sb.append("SUMMARY:").append(escape(e.getTitle())).append("\r\n");
-      if (e.getDate() != null && !e.getDate().isBlank()) {
-        // assume YYYY-MM-DD
-        String d = e.getDate();
-        try {
-          LocalDate ld = LocalDate.parse(d);
-          sb.append("DTSTART;VALUE=DATE:").append(ld.format(DATEFMT)).append("\r\n");
-        } catch (Exception ex) {}
-      }
-      sb.append("DESCRIPTION:").append(escape(e.getSourceSnippet()==null?"":e.getSourceSnippet())).append("\r\n");
-      if (e.getUrl()!=null) sb.append("URL:").append(e.getUrl()).append("\r\n");
-      sb.append("END:VEVENT\r\n");
-    }
-    sb.append("END:VCALENDAR\r\n");
+  public ResponseEntity<StreamingResponseBody> exportIcs(@AuthenticationPrincipal String userId,
+                                                         @RequestParam(required = false) String tag,
+                                                         WebRequest request) {
+    IcsFeedCache.Feed feed = feedCache.feed(userId, tag);
+    if (feed == null)
+      return streamIcs(userId, tag, request);
 
-    return ResponseEntity.ok()
+    String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    boolean gzip = accept != null && accept.contains("gzip");
+    String etag = gzip ? feed.gzipEtag() : feed.etag();
+    if (request.checkNotModified(etag))
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT_ENCODING).build();
+    byte[] bytes = gzip ? feed.gzip() : feed.body();
+    ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+      .eTag(etag)
+      .varyBy(HttpHeaders.ACCEPT_ENCODING)
       .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orbit-events.ics\"")
-      .contentType(MediaType.parseMediaType("text/calendar"))
-      .body(sb.toString());
+      .cacheControl(CacheControl.noCache().cachePrivate())
+      .contentType(MediaType.parseMediaType("text/calendar; charset=UTF-8"))
+      .contentLength(bytes.length);
+    if (gzip)
+      ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    return ok.body(out -> out.write(bytes));
+  }
+
+  /**
+   * Feed URLs for calendar apps, as https and as webcal:// for one-click
+   * subscribe. With multi-tenancy they carry the user's feed key.
+   */
+  @GetMapping("/export/ics/subscribe")
+  public Map<String, String> subscribe(@AuthenticationPrincipal String userId,
+                                       @RequestParam(required = false) String tag) {
+    UriComponentsBuilder url = ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/export/ics");
+    if (tag != null)
+      url.queryParam("tag", tag);
+    String key = tenants.feedKey(userId);
+    if (key != null)
+      url.queryParam("key", key);
+    String http = url.encode().toUriString();
+    return Map.of("url", http, "webcal", http.replaceFirst("^https?", "webcal"));
   }
 
-  private static String escape(String s) {
-    if (s == null) return "";
-    return s.replace("\n", "\\n").replace("\r", "\\r").replace(";", "\\;").replace(",", "\\,");
+  // events too many to cache: render straight from a cursor as before
+  private ResponseEntity<StreamingResponseBody> streamIcs(String userId, String tag, WebRequest request) {
+    String etag = eventService.currentEtag(userId, "ics");
+    if (request.checkNotModified(etag))
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+
+    StreamingResponseBody body = out -> readOnlyTx.executeWithoutResult(status -> {
+      try (Stream<Event> events = repo.streamByUserIdOrderById(userId)) {
+        IcsCalendarWriter writer = new IcsCalendarWriter(out);
+        writer.begin();
+        for (Iterator<Event> it = events.iterator(); it.hasNext(); ) {
+          Event e = it.next();
+          if (tag == null || tag.equals(e.getTag()))
+            writer.writeEvent(e);
+          entityManager.detach(e); // keep the persistence context from growing with the table
+        }
+        writer.end();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    });
+
+    return ResponseEntity.ok()
+      .eTag(etag)
+      .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orbit-events.ics\"")
+      .cacheControl(CacheControl.noCache().cachePrivate()) // overrides Spring Security's no-store
+      .contentType(MediaType.parseMediaType("text/calendar; charset=UTF-8"))
+      .body(body);
   }
-}
\ No newline at end of file
+}
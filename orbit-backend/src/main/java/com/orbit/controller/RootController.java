@@ -14,11 +14,22 @@ public class RootController {
         Map<String, Object> response = new HashMap<>();
         response.put("status", "ok");
         response.put("message", "Orbit Backend API");
-        response.put("endpoints", Map.of(
-            "extract", "/api/extract (POST)",
-            "saveEvent", "/api/saveEvent (POST)",
-            "events", "/api/events (GET)",
-            "exportIcs", "/api/export/ics (GET)"
+        response.put("endpoints", Map.ofEntries(
+            Map.entry("extract", "/api/extract (POST)"),
+            Map.entry("extractBatch", "/api/extract/batch (POST)"),
+            Map.entry("extractJobs", "/api/extract/jobs (POST), /api/extract/jobs/{id} (GET), /api/extract/jobs/{id}/events (SSE)"),
+            Map.entry("saveEvent", "/api/saveEvent (POST)"),
+            Map.entry("saveEventsBulk", "/api/events/bulk (POST)"),
+            Map.entry("events", "/api/events (GET)"),
+            Map.entry("eventsPage", "/api/events/page (GET)"),
+            Map.entry("eventsSearch", "/api/events/search?q= (GET)"),
+            Map.entry("eventsUpcoming", "/api/events/upcoming?days= (GET)"),
+            Map.entry("eventsByMonth", "/api/events/month/{yyyy-MM} (GET)"),
+            Map.entry("eventChanges", "/api/events/changes?since= (GET)"),
+            Map.entry("exportIcs", "/api/export/ics?tag= (GET)"),
+            Map.entry("subscribeIcs", "/api/export/ics/subscribe?tag= (GET)"),
+            Map.entry("googleCalendar", "/api/auth/google (GET), /api/calendar/google/status (GET), /api/calendar/google/sync (POST)"),
+            Map.entry("metrics", "/actuator/prometheus (GET)")
         ));
         return response;
     }
@@ -0,0 +1,5 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+public record BatchExtractRequest(List<ExtractRequest> items) {}
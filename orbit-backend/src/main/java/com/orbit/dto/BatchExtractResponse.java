@@ -0,0 +1,7 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+public class BatchExtractResponse {
+    public List<ExtractResponse> results; // same order as BatchExtractRequest.items
+}
@@ -0,0 +1,7 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+import com.orbit.entity.Event;
+
+public record BulkSaveRequest(List<Event> items) {}
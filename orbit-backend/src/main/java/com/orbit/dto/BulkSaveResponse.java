@@ -0,0 +1,10 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+public class BulkSaveResponse {
+    public int created;
+    public int updated;    // matched an existing event by natural key
+    public int duplicates; // repeated within the request, folded into one row
+    public List<Long> ids; // same order as BulkSaveRequest.items
+}
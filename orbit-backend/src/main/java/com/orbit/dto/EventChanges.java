@@ -0,0 +1,11 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+import com.orbit.entity.Event;
+
+public class EventChanges {
+    public List<Event> upserts; // inserted or updated since the token
+    public List<Long> deleted;  // ids removed since the token
+    public String token;        // pass back as ?since= on the next poll
+}
@@ -0,0 +1,8 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+public class EventPage {
+    public List<EventSummary> items;
+    public Long nextCursor; // pass as ?before= to fetch the next page, null on the last page
+}
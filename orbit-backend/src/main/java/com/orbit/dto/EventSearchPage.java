@@ -0,0 +1,8 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+public class EventSearchPage {
+    public List<EventSummary> items;
+    public Integer nextOffset; // pass as ?offset= to fetch the next page, null on the last page
+}
@@ -0,0 +1,15 @@
+package com.orbit.dto;
+
+/**
+ * List-view projection of {@link com.orbit.entity.Event} that leaves out the
+ * (up to 2000 char) source snippet.
+ */
+public interface EventSummary {
+    Long getId();
+    String getTitle();
+    String getDate();
+    String getTime();
+    String getTag();
+    Double getConfidence();
+    String getUrl();
+}
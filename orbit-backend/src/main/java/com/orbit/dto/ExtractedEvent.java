@@ -10,4 +10,6 @@ public class ExtractedEvent {
     public double confidence;
     public String source_snippet;
     public String url;
+    public Long duplicate_of; // id of a stored event this one most likely repeats
+    public Double duplicate_score;
 }
@@ -0,0 +1,12 @@
+package com.orbit.dto;
+
+import java.util.List;
+
+public class JobStatus {
+    public String id;
+    public String status; // QUEUED, RUNNING, DONE
+    public int chunksDone;
+    public int chunksTotal;
+    public List<ExtractedEvent> detected; // events found so far, starting at the requested offset
+    public int next;                      // offset to pass as ?after= on the next poll
+}
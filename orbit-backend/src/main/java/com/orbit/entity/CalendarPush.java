@@ -0,0 +1,44 @@
+package com.orbit.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Outbound change waiting to be pushed to Google Calendar. One row per event:
+ * a newer change replaces the pending one, so only the latest state is sent.
+ */
+@Entity
+@Table(name = "calendar_push_queue", indexes = {
+  @Index(name = "idx_calendar_push_due", columnList = "nextAttemptAt")
+})
+public class CalendarPush {
+  public enum Op { UPSERT, DELETE }
+
+  @Id
+  private Long eventId;
+  @Column(length = 64)
+  private String userId; // whose Google account the change goes to
+  @Enumerated(EnumType.STRING)
+  @Column(length = 8)
+  private Op op;
+  private Instant enqueuedAt; // identifies this change; a push only completes the row it read
+  private int attempts;
+  private Instant nextAttemptAt; // null once retries are exhausted
+  @Column(length = 500)
+  private String lastError;
+
+  public Long getEventId(){ return eventId; }
+  public void setEventId(Long id){ this.eventId = id; }
+  public String getUserId(){ return userId; }
+  public void setUserId(String u){ this.userId = u; }
+  public Op getOp(){ return op; }
+  public void setOp(Op op){ this.op = op; }
+  public Instant getEnqueuedAt(){ return enqueuedAt; }
+  public void setEnqueuedAt(Instant e){ this.enqueuedAt = e; }
+  public int getAttempts(){ return attempts; }
+  public void setAttempts(int a){ this.attempts = a; }
+  public Instant getNextAttemptAt(){ return nextAttemptAt; }
+  public void setNextAttemptAt(Instant n){ this.nextAttemptAt = n; }
+  public String getLastError(){ return lastError; }
+  public void setLastError(String e){ this.lastError = e; }
+}
@@ -1,13 +1,34 @@
 package com.orbit.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 // import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+  // every query is scoped to one user, so user_id leads each index
+  @Index(name = "idx_events_user_date", columnList = "userId, date, tag"),
+  @Index(name = "uk_events_natural_key", columnList = "naturalKey", unique = true),
+  @Index(name = "idx_events_user_start", columnList = "userId, startDate, startTime"),
+  @Index(name = "idx_events_user_updated", columnList = "userId, updatedAt"),
+  @Index(name = "idx_events_user_id", columnList = "userId, id")
+})
 public class Event {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private static final DateTimeFormatter TIMEFMT = DateTimeFormatter.ofPattern("H:mm[:ss]");
+
+  // pooled sequence instead of IDENTITY so Hibernate can batch inserts
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+  @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
   private Long id;
+  @JsonIgnore
+  @Column(length = 64)
+  private String userId; // owner, see UserAccount; set by the server, never taken from the request
   private String title;
   private String date; // YYYY-MM-DD
   private String time; // HH:mm
@@ -16,18 +37,32 @@ public class Event {
   @Column(length = 2000)
   private String sourceSnippet;
   private String url;
+  private Instant updatedAt; // bumped on every write; drives ETags and /api/events/changes
+  @JsonIgnore
+  @Column(length = 64)
+  private String naturalKey; // hash of url + date + normalized title, see EventService.naturalKey
+  // typed copies of date/time for range scans and sorting; null when the string does not parse
+  @JsonIgnore
+  private LocalDate startDate;
+  @JsonIgnore
+  private LocalTime startTime; // local to the event, no zone is captured
 //   private LocalDateTime createdAt = LocalDateTime.now();
 
+  @PrePersist @PreUpdate
+  void touch() { this.updatedAt = Instant.now(); }
+
   // getters & setters omitted for brevity (use Lombok or generate)
   // ...
   public Long getId() { return id; }
   public void setId(Long id) { this.id=id; }
+  public String getUserId(){ return userId; }
+  public void setUserId(String u){ this.userId = u; }
   public String getTitle(){ return title; }
   public void setTitle(String t){ this.title = t; }
   public String getDate(){ return date; }
-  public void setDate(String d){ this.date = d; }
+  public void setDate(String d){ this.date = d; this.startDate = parseDate(d); }
   public String getTime(){ return time; }
-  public void setTime(String t){ this.time = t; }
+  public void setTime(String t){ this.time = t; this.startTime = parseTime(t); }
   public String getTag(){ return tag; }
   public void setTag(String tag){ this.tag = tag; }
   public Double getConfidence(){ return confidence; }
@@ -36,4 +71,28 @@ public class Event {
   public void setSourceSnippet(String s){ this.sourceSnippet = s; }
   public String getUrl(){ return url; }
   public void setUrl(String u){ this.url = u; }
-}
\ No newline at end of file
+  public Instant getUpdatedAt(){ return updatedAt; }
+  public void setUpdatedAt(Instant u){ this.updatedAt = u; }
+  public String getNaturalKey(){ return naturalKey; }
+  public void setNaturalKey(String k){ this.naturalKey = k; }
+  public LocalDate getStartDate(){ return startDate; }
+  public LocalTime getStartTime(){ return startTime; }
+
+  public static LocalDate parseDate(String d) {
+    if (d == null || d.isBlank()) return null;
+    try {
+      return LocalDate.parse(d.trim());
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  public static LocalTime parseTime(String t) {
+    if (t == null || t.isBlank()) return null;
+    try {
+      return LocalTime.parse(t.trim(), TIMEFMT);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.orbit.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/** Marks a deleted event so incremental sync clients can drop their copy. */
+@Entity
+@Table(name = "event_tombstones", indexes = {
+  @Index(name = "idx_event_tombstones_user_deleted_at", columnList = "userId, deletedAt")
+})
+public class EventTombstone {
+  @Id
+  private Long eventId;
+  @Column(length = 64)
+  private String userId;
+  private Instant deletedAt;
+
+  public EventTombstone() {}
+  public EventTombstone(Long eventId, String userId, Instant deletedAt) {
+    this.eventId = eventId;
+    this.userId = userId;
+    this.deletedAt = deletedAt;
+  }
+
+  public Long getEventId(){ return eventId; }
+  public void setEventId(Long id){ this.eventId = id; }
+  public String getUserId(){ return userId; }
+  public void setUserId(String u){ this.userId = u; }
+  public Instant getDeletedAt(){ return deletedAt; }
+  public void setDeletedAt(Instant d){ this.deletedAt = d; }
+}
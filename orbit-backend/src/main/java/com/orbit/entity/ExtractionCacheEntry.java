@@ -0,0 +1,21 @@
+package com.orbit.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "extraction_cache")
+public class ExtractionCacheEntry {
+  @Id
+  @Column(length = 64)
+  private String cacheKey; // hex SHA-256 of the normalized request + prompt version
+  @Column(length = 65535)
+  private String payload; // JSON-serialized list of EventExtraction
+  private Long createdAt; // epoch millis
+
+  public String getCacheKey(){ return cacheKey; }
+  public void setCacheKey(String k){ this.cacheKey = k; }
+  public String getPayload(){ return payload; }
+  public void setPayload(String p){ this.payload = p; }
+  public Long getCreatedAt(){ return createdAt; }
+  public void setCreatedAt(Long c){ this.createdAt = c; }
+}
@@ -0,0 +1,35 @@
+package com.orbit.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/** OAuth tokens for a user's connected Google account; the refresh token is long-lived. */
+@Entity
+@Table(name = "google_credentials")
+public class GoogleCredential {
+  @Id
+  @Column(length = 64)
+  private String account; // the owning user's id, see UserAccount
+  @Column(length = 2048)
+  private String refreshToken;
+  @Column(length = 4096)
+  private String accessToken;
+  private Instant accessTokenExpiresAt;
+  private Instant updatedAt;
+
+  public GoogleCredential() {}
+  public GoogleCredential(String account) {
+    this.account = account;
+  }
+
+  public String getAccount(){ return account; }
+  public void setAccount(String a){ this.account = a; }
+  public String getRefreshToken(){ return refreshToken; }
+  public void setRefreshToken(String t){ this.refreshToken = t; }
+  public String getAccessToken(){ return accessToken; }
+  public void setAccessToken(String t){ this.accessToken = t; }
+  public Instant getAccessTokenExpiresAt(){ return accessTokenExpiresAt; }
+  public void setAccessTokenExpiresAt(Instant e){ this.accessTokenExpiresAt = e; }
+  public Instant getUpdatedAt(){ return updatedAt; }
+  public void setUpdatedAt(Instant u){ this.updatedAt = u; }
+}
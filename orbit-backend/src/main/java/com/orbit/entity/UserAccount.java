@@ -0,0 +1,48 @@
+package com.orbit.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * An extension user, identified by their Google account id ("sub"). Every
+ * event, tombstone and push belongs to one user; with multi-tenancy off all
+ * of them belong to {@link #LOCAL}.
+ */
+@Entity
+@Table(name = "users", indexes = {
+  @Index(name = "uk_users_token_hash", columnList = "tokenHash", unique = true),
+  @Index(name = "uk_users_feed_key", columnList = "feedKey", unique = true)
+})
+public class UserAccount {
+  /** Owner of everything stored while multi-tenancy is off. */
+  public static final String LOCAL = "local";
+
+  @Id
+  @Column(length = 64)
+  private String id;
+  private String email;
+  @Column(length = 64)
+  private String tokenHash; // SHA-256 of the API token; the token itself is only shown once
+  @Column(length = 64)
+  private String feedKey; // secret in the ICS subscription URL, which calendar apps poll without headers
+  private Instant createdAt;
+  private Instant signedInAt;
+
+  public UserAccount() {}
+  public UserAccount(String id) {
+    this.id = id;
+  }
+
+  public String getId(){ return id; }
+  public void setId(String id){ this.id = id; }
+  public String getEmail(){ return email; }
+  public void setEmail(String e){ this.email = e; }
+  public String getTokenHash(){ return tokenHash; }
+  public void setTokenHash(String h){ this.tokenHash = h; }
+  public String getFeedKey(){ return feedKey; }
+  public void setFeedKey(String k){ this.feedKey = k; }
+  public Instant getCreatedAt(){ return createdAt; }
+  public void setCreatedAt(Instant c){ this.createdAt = c; }
+  public Instant getSignedInAt(){ return signedInAt; }
+  public void setSignedInAt(Instant s){ this.signedInAt = s; }
+}
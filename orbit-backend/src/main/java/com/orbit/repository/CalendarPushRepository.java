@@ -0,0 +1,35 @@
+package com.orbit.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.orbit.entity.CalendarPush;
+
+public interface CalendarPushRepository extends JpaRepository<CalendarPush, Long> {
+
+    @Query("select p from CalendarPush p where p.nextAttemptAt <= :now order by p.nextAttemptAt, p.eventId")
+    List<CalendarPush> findDue(@Param("now") Instant now, Limit limit);
+
+    // the enqueuedAt guard leaves a change that arrived during the push in place
+    @Modifying
+    @Query("delete from CalendarPush p where p.eventId = :eventId and p.enqueuedAt = :enqueuedAt")
+    int complete(@Param("eventId") Long eventId, @Param("enqueuedAt") Instant enqueuedAt);
+
+    @Modifying
+    @Query("update CalendarPush p set p.attempts = :attempts, p.nextAttemptAt = :next, p.lastError = :error " +
+           "where p.eventId = :eventId and p.enqueuedAt = :enqueuedAt")
+    int reschedule(@Param("eventId") Long eventId, @Param("enqueuedAt") Instant enqueuedAt,
+                   @Param("attempts") int attempts, @Param("next") Instant next, @Param("error") String error);
+
+    @Query("select count(p) from CalendarPush p where p.userId = :userId and p.nextAttemptAt is not null")
+    long countPending(@Param("userId") String userId);
+
+    @Query("select count(p) from CalendarPush p where p.userId = :userId and p.nextAttemptAt is null")
+    long countFailed(@Param("userId") String userId);
+}
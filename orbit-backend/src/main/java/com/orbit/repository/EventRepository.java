@@ -1,7 +1,125 @@
 package com.orbit.repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.orbit.dto.EventSummary;
 
 import com.orbit.entity.Event;
 
-public interface EventRepository extends JpaRepository<Event, Long>{}
+import jakarta.persistence.QueryHint;
+
+public interface EventRepository extends JpaRepository<Event, Long> {
+
+    // Cursor-backed; must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Event e order by e.id")
+    Stream<Event> streamAllOrderById();
+
+    // same hints and rules as streamAllOrderById, one user's events only
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Event e where e.userId = :userId order by e.id")
+    Stream<Event> streamByUserIdOrderById(@Param("userId") String userId);
+
+    List<Event> findByUserId(String userId);
+
+    @Query("select e.id from Event e where e.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") String userId);
+
+    boolean existsByIdAndUserId(Long id, String userId);
+
+    Optional<Event> findByIdAndUserId(Long id, String userId);
+
+    @Modifying
+    @Query("delete from Event e where e.userId = :userId")
+    int deleteByUserId(@Param("userId") String userId);
+
+    @Query("select e from Event e where e.userId = :userId and e.updatedAt >= :since order by e.updatedAt, e.id")
+    List<Event> findUpdatedSince(@Param("userId") String userId, @Param("since") Instant since);
+
+    Optional<Event> findByNaturalKey(String naturalKey);
+
+    List<Event> findByNaturalKeyIn(Collection<String> naturalKeys);
+
+    @Query("select e from Event e where e.naturalKey is null and e.id > :after order by e.id")
+    List<Event> findWithoutNaturalKey(@Param("after") long after, Limit limit);
+
+    // bypasses @PreUpdate on purpose: backfilling a key is not a change clients need to sync
+    @Modifying
+    @Query("update Event e set e.naturalKey = :key where e.id = :id")
+    int setNaturalKey(@Param("id") Long id, @Param("key") String key);
+
+    // only ISO-shaped dates can parse, so free-form ones are not read again on every start
+    @Query("select e from Event e where e.startDate is null and trim(e.date) like '____-__-__' and e.id > :after order by e.id")
+    List<Event> findWithoutStartDate(@Param("after") long after, Limit limit);
+
+    // bypasses @PreUpdate like setNaturalKey: the typed copy does not change what clients see
+    @Modifying
+    @Query("update Event e set e.startDate = :date, e.startTime = :time where e.id = :id")
+    int setStart(@Param("id") Long id, @Param("date") LocalDate date, @Param("time") LocalTime time);
+
+    /**
+     * A user's events starting in {@code [from, to)}, in start order. Served by
+     * a range scan on idx_events_user_start; events whose date did not parse
+     * never match.
+     */
+    @Query("select e.id as id, e.title as title, e.date as date, e.time as time, e.tag as tag, " +
+           "e.confidence as confidence, e.url as url from Event e " +
+           "where e.userId = :userId and e.startDate >= :from and e.startDate < :to " +
+           "order by e.startDate, e.startTime nulls first, e.id")
+    List<EventSummary> findStartingBetween(@Param("userId") String userId,
+                                           @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select e.id as id, e.title as title, e.date as date, e.time as time, e.tag as tag, " +
+           "e.confidence as confidence, e.url as url from Event e where e.id in :ids")
+    List<EventSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select count(e) as count, max(e.updatedAt) as lastUpdated from Event e where e.userId = :userId")
+    EventTableVersion findTableVersion(@Param("userId") String userId);
+
+    interface EventTableVersion {
+        long getCount();
+        Instant getLastUpdated();
+    }
+
+    /**
+     * Keyset page of a user's events, newest first. Pass the smallest id of the previous
+     * page as {@code before}; null filters are ignored. Dates are ISO strings,
+     * so the range comparison is lexical.
+     */
+    @Query("select e.id as id, e.title as title, e.date as date, e.time as time, e.tag as tag, " +
+           "e.confidence as confidence, e.url as url from Event e " +
+           "where e.userId = :userId " +
+           "and (:before is null or e.id < :before) " +
+           "and (:tag is null or e.tag = :tag) " +
+           "and (:from is null or e.startDate >= :from) " +
+           "and (:to is null or e.startDate <= :to) " +
+           "and (:minConfidence is null or e.confidence >= :minConfidence) " +
+           "order by e.id desc")
+    List<EventSummary> findPage(@Param("userId") String userId,
+                                @Param("before") Long before,
+                                @Param("tag") String tag,
+                                @Param("from") LocalDate from,
+                                @Param("to") LocalDate to,
+                                @Param("minConfidence") Double minConfidence,
+                                Limit limit);
+}
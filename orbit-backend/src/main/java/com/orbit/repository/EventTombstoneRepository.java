@@ -0,0 +1,25 @@
+package com.orbit.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.orbit.entity.EventTombstone;
+
+public interface EventTombstoneRepository extends JpaRepository<EventTombstone, Long> {
+
+    @Query("select t.eventId from EventTombstone t where t.userId = :userId and t.deletedAt >= :since")
+    List<Long> findEventIdsDeletedSince(@Param("userId") String userId, @Param("since") Instant since);
+
+    @Query("select max(t.deletedAt) from EventTombstone t where t.userId = :userId")
+    Instant findLastDeletedAt(@Param("userId") String userId);
+
+    @Modifying
+    @Query("insert into EventTombstone (eventId, userId, deletedAt) select e.id, e.userId, :now from Event e " +
+           "where e.userId = :userId")
+    int tombstoneAllEvents(@Param("userId") String userId, @Param("now") Instant now);
+}
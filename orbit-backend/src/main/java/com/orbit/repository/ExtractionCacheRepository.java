@@ -0,0 +1,7 @@
+package com.orbit.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.orbit.entity.ExtractionCacheEntry;
+
+public interface ExtractionCacheRepository extends JpaRepository<ExtractionCacheEntry, String> {}
@@ -0,0 +1,8 @@
+package com.orbit.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.orbit.entity.GoogleCredential;
+
+public interface GoogleCredentialRepository extends JpaRepository<GoogleCredential, String> {
+}
@@ -0,0 +1,14 @@
+package com.orbit.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.orbit.entity.UserAccount;
+
+public interface UserAccountRepository extends JpaRepository<UserAccount, String> {
+
+    Optional<UserAccount> findByTokenHash(String tokenHash);
+
+    Optional<UserAccount> findByFeedKey(String feedKey);
+}
@@ -0,0 +1,80 @@
+package com.orbit.service;
+
+import java.time.Clock;
+
+/**
+ * Client-side token bucket whose rate follows the upstream's quota (AIMD):
+ * every success nudges the rate up by roughly {@code increaseRps} per second
+ * of traffic, every 429 halves it, and a Retry-After pauses the bucket
+ * entirely until the upstream says it is ready again.
+ */
+public class AdaptiveRateLimiter {
+
+    private final double minRps;
+    private final double maxRps;
+    private final double increaseRps;
+    private final double burst;
+    private final Clock clock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public AdaptiveRateLimiter(double initialRps, double minRps, double maxRps, double increaseRps, double burst,
+            Clock clock) {
+        this.minRps = minRps;
+        this.maxRps = maxRps;
+        this.increaseRps = increaseRps;
+        this.burst = Math.max(1, burst);
+        this.clock = clock;
+        this.rate = Math.max(minRps, Math.min(maxRps, initialRps));
+        this.tokens = this.burst;
+        this.lastRefill = clock.millis();
+    }
+
+    /**
+     * Take a permit, reserving one ahead of time when the bucket is empty.
+     * Returns how long the caller has to wait before sending, or -1 when that
+     * would exceed {@code maxWaitMs} (nothing is reserved in that case).
+     */
+    public synchronized long reserve(long maxWaitMs) {
+        long now = clock.millis();
+        refill(now);
+        long wait = Math.max(0, pausedUntil - now);
+        if (tokens < 1) {
+            wait = Math.max(wait, (long) Math.ceil((1 - tokens) / rate * 1000));
+        }
+        if (wait > maxWaitMs) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRps, rate + increaseRps / rate);
+    }
+
+    /** The upstream answered 429; retryAfterMs is 0 when it gave no hint. */
+    public synchronized void onThrottled(long retryAfterMs) {
+        long now = clock.millis();
+        refill(now);
+        rate = Math.max(minRps, rate / 2);
+        tokens = Math.min(tokens, 0);
+        if (retryAfterMs > 0) {
+            pausedUntil = Math.max(pausedUntil, now + retryAfterMs);
+        }
+    }
+
+    public synchronized double currentRate() {
+        return rate;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * rate / 1000);
+            lastRefill = now;
+        }
+    }
+}
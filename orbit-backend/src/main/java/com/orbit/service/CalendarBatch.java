@@ -0,0 +1,82 @@
+package com.orbit.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The multipart/mixed envelope of the Google Calendar batch endpoint: many
+ * API calls in one HTTP request, each answered by its own embedded HTTP
+ * response, matched back up by Content-ID.
+ */
+final class CalendarBatch {
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+    private static final Pattern CONTENT_ID = Pattern.compile("(?im)^content-id:\\s*<?response-item(\\d+)>?\\s*$");
+    private static final Pattern STATUS_LINE = Pattern.compile("(?m)^HTTP/\\d(?:\\.\\d)?\\s+(\\d{3})");
+
+    private CalendarBatch() {
+    }
+
+    /** One call inside the batch; {@code json} is null for bodiless calls such as DELETE. */
+    record Call(String method, String path, String json) {
+    }
+
+    record Response(int status, String body) {
+    }
+
+    static String encode(String boundary, List<Call> calls) {
+        StringBuilder sb = new StringBuilder(calls.size() * 512);
+        for (int i = 0; i < calls.size(); i++) {
+            Call call = calls.get(i);
+            sb.append("--").append(boundary).append("\r\n")
+              .append("Content-Type: application/http\r\n")
+              .append("Content-ID: <item").append(i).append(">\r\n\r\n")
+              .append(call.method()).append(' ').append(call.path()).append(" HTTP/1.1\r\n");
+            if (call.json() != null) {
+                sb.append("Content-Type: application/json; charset=UTF-8\r\n\r\n").append(call.json()).append("\r\n");
+            } else {
+                sb.append("\r\n");
+            }
+        }
+        return sb.append("--").append(boundary).append("--\r\n").toString();
+    }
+
+    /**
+     * Responses in call order. A call with no matching part (a malformed or
+     * cut short reply) gets status 0, which callers treat as retryable.
+     */
+    static List<Response> decode(String contentType, String body, int calls) {
+        Matcher b = contentType == null ? null : BOUNDARY.matcher(contentType);
+        if (b == null || !b.find())
+            throw new IllegalArgumentException("Batch response without boundary: " + contentType);
+        Map<Integer, Response> byIndex = new HashMap<>();
+        int next = 0;
+        for (String part : body.split("--" + Pattern.quote(b.group(1)))) {
+            Matcher status = STATUS_LINE.matcher(part);
+            if (!status.find())
+                continue; // preamble or the closing "--"
+            Matcher id = CONTENT_ID.matcher(part.substring(0, status.start()));
+            int index = id.find() ? Integer.parseInt(id.group(1)) : next;
+            next = index + 1;
+            byIndex.put(index, new Response(Integer.parseInt(status.group(1)), embeddedBody(part, status.end())));
+        }
+        List<Response> responses = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++)
+            responses.add(byIndex.getOrDefault(i, new Response(0, "")));
+        return responses;
+    }
+
+    // the embedded response's headers end at its first blank line
+    private static String embeddedBody(String part, int from) {
+        int crlf = part.indexOf("\r\n\r\n", from);
+        int lf = part.indexOf("\n\n", from);
+        if (crlf < 0 && lf < 0)
+            return "";
+        int start = crlf >= 0 && (lf < 0 || crlf < lf) ? crlf + 4 : lf + 2;
+        return part.substring(start).trim();
+    }
+}
@@ -0,0 +1,283 @@
+package com.orbit.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import com.orbit.entity.CalendarPush;
+import com.orbit.entity.CalendarPush.Op;
+import com.orbit.entity.Event;
+import com.orbit.repository.CalendarPushRepository;
+import com.orbit.repository.EventRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Durable outbox that mirrors saved and deleted events to each user's Google
+ * Calendar. Changes are queued in the same transaction as the write, then a
+ * single worker pushes due rows in batches of
+ * {@code google.calendar.push.batch-size} calls per HTTP request, one request
+ * per user with changes in the batch. Inserts carry a fixed event id, so a repeated push
+ * answers 409 and is resent as an update instead of creating a duplicate.
+ * Failed calls back off exponentially with jitter and give up after
+ * {@code google.calendar.push.max-attempts}.
+ */
+@Service
+public class CalendarPushQueue {
+
+    private final CalendarPushRepository queue;
+    private final EventRepository events;
+    private final ObjectProvider<GoogleCalendarService> google; // created on the first push or status check
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ScheduledExecutorService worker;
+    private final AtomicBoolean kicked = new AtomicBoolean();
+
+    @Value("${google.calendar.push.enabled:false}")
+    private boolean enabled;
+
+    @Value("${google.calendar.push.batch-size:50}")
+    private int batchSize;
+
+    @Value("${google.calendar.push.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${google.calendar.push.backoff-ms:2000}")
+    private long backoffMs;
+
+    @Value("${google.calendar.push.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    public CalendarPushQueue(CalendarPushRepository queue, EventRepository events,
+            ObjectProvider<GoogleCalendarService> google,
+            JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            @Value("${google.calendar.push.interval-ms:15000}") long intervalMs) {
+        this.queue = queue;
+        this.events = events;
+        this.google = google;
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.worker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("calendar-push").daemon().factory());
+        // picks up retries that come due, and anything queued before a restart
+        this.worker.scheduleWithFixedDelay(this::drain, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public record Status(boolean connected, long pending, long failed) {
+    }
+
+    public Status status(String userId) {
+        return new Status(google().isConnected(userId), queue.countPending(userId), queue.countFailed(userId));
+    }
+
+    /** Queues the latest state of a user's events; must run inside the writing transaction. */
+    void enqueueUpserts(String userId, Collection<Long> eventIds) {
+        if (active(userId) && !eventIds.isEmpty())
+            write(userId, eventIds, Op.UPSERT);
+    }
+
+    /** Queues deletes; call before the rows are removed. */
+    void enqueueDeletes(String userId, Collection<Long> eventIds) {
+        if (active(userId) && !eventIds.isEmpty())
+            write(userId, eventIds, Op.DELETE);
+    }
+
+    /** Queues every event of the user, e.g. for the first push after connecting. */
+    public int enqueueAll(String userId) {
+        if (!active(userId))
+            return 0;
+        return tx.execute(status -> {
+            Timestamp now = Timestamp.from(Instant.now());
+            jdbc.update("delete from calendar_push_queue where event_id in (select id from events where user_id = ?)",
+                    userId);
+            int queued = jdbc.update("insert into calendar_push_queue "
+                    + "(event_id, user_id, op, enqueued_at, attempts, next_attempt_at) "
+                    + "select id, user_id, ?, ?, 0, ? from events where user_id = ?", Op.UPSERT.name(), now, now, userId);
+            AfterCommit.run(this::kick);
+            return queued;
+        });
+    }
+
+    private GoogleCalendarService google() {
+        return google.getObject();
+    }
+
+    private boolean active(String userId) {
+        return enabled && google().isConnected(userId);
+    }
+
+    // delete + insert rather than an upsert, which H2 and PostgreSQL spell differently
+    private void write(String userId, Collection<Long> eventIds, Op op) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> ids = new ArrayList<>(eventIds.size());
+        List<Object[]> rows = new ArrayList<>(eventIds.size());
+        for (Long id : eventIds) {
+            ids.add(new Object[] { id });
+            rows.add(new Object[] { id, userId, op.name(), now, now });
+        }
+        jdbc.batchUpdate("delete from calendar_push_queue where event_id = ?", ids);
+        jdbc.batchUpdate("insert into calendar_push_queue (event_id, user_id, op, enqueued_at, attempts, next_attempt_at) "
+                + "values (?, ?, ?, ?, 0, ?)", rows);
+        AfterCommit.run(this::kick);
+    }
+
+    private void kick() {
+        if (kicked.compareAndSet(false, true))
+            worker.execute(this::drain);
+    }
+
+    /** Pushes due changes until none are left or a whole batch fails. */
+    synchronized void drain() {
+        kicked.set(false);
+        try {
+            while (enabled && pushBatch()) {
+                // next batch
+            }
+        } catch (Exception e) {
+            System.err.println("Calendar push failed: " + e.getMessage());
+        }
+    }
+
+    private record Item(CalendarPush row, String json) {
+    }
+
+    // rows read from the queue, and the calls to make for them
+    private record Round(int due, List<Item> items) {
+    }
+
+    // one round of batch requests; true when it made progress and more may be due
+    private boolean pushBatch() {
+        Instant now = Instant.now();
+        Round round = tx.execute(status -> {
+            List<CalendarPush> due = queue.findDue(now, Limit.of(batchSize));
+            Map<Long, Event> byId = new HashMap<>();
+            for (Event e : events.findAllById(due.stream().filter(p -> p.getOp() == Op.UPSERT).map(CalendarPush::getEventId).toList()))
+                byId.put(e.getId(), e);
+            List<Item> batch = new ArrayList<>(due.size());
+            for (CalendarPush p : due) {
+                if (p.getOp() == Op.DELETE) {
+                    batch.add(new Item(p, null));
+                    continue;
+                }
+                Event e = byId.get(p.getEventId());
+                String json = e == null ? null : google().toGoogleEvent(e);
+                if (json == null)
+                    queue.complete(p.getEventId(), p.getEnqueuedAt()); // gone, or no date a calendar can show
+                else
+                    batch.add(new Item(p, json));
+            }
+            return new Round(due.size(), batch);
+        });
+        // a full read means more may be due, even if every row was settled without a call
+        boolean more = round.due() == batchSize;
+        List<Item> items = round.items();
+        if (items.isEmpty())
+            return more;
+
+        Map<String, List<Item>> byUser = new LinkedHashMap<>();
+        for (Item item : items)
+            byUser.computeIfAbsent(item.row().getUserId(), u -> new ArrayList<>()).add(item);
+        boolean failed = false;
+        for (Map.Entry<String, List<Item>> user : byUser.entrySet()) {
+            List<Item> calls = user.getValue();
+            List<Integer> statuses;
+            try {
+                statuses = send(user.getKey(), calls);
+            } catch (HttpStatusCodeException e) {
+                retryAll(calls, now, "batch " + e.getStatusCode().value());
+                failed = true;
+                continue;
+            } catch (RuntimeException e) {
+                retryAll(calls, now, "batch " + e.getMessage());
+                failed = true;
+                continue;
+            }
+            tx.executeWithoutResult(status -> {
+                for (int i = 0; i < calls.size(); i++)
+                    settle(calls.get(i).row(), statuses.get(i), now);
+            });
+        }
+        return !failed && more;
+    }
+
+    private List<Integer> send(String userId, List<Item> items) {
+        List<CalendarBatch.Call> calls = new ArrayList<>(items.size());
+        for (Item item : items) {
+            CalendarPush p = item.row();
+            calls.add(p.getOp() == Op.DELETE
+                    ? new CalendarBatch.Call("DELETE", google().eventPath(p.getEventId()), null)
+                    : new CalendarBatch.Call("POST", google().eventsPath(), item.json()));
+        }
+        List<Integer> statuses = new ArrayList<>(items.size());
+        google().batch(userId, calls).forEach(r -> statuses.add(r.status()));
+
+        // the event already exists in Google (pushed before, or deleted there): update it in place
+        List<Integer> conflicts = new ArrayList<>();
+        List<CalendarBatch.Call> updates = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (statuses.get(i) == 409 && items.get(i).row().getOp() == Op.UPSERT) {
+                conflicts.add(i);
+                updates.add(new CalendarBatch.Call("PUT", google().eventPath(items.get(i).row().getEventId()), items.get(i).json()));
+            }
+        }
+        if (!updates.isEmpty()) {
+            List<CalendarBatch.Response> updated = google().batch(userId, updates);
+            for (int i = 0; i < conflicts.size(); i++)
+                statuses.set(conflicts.get(i), updated.get(i).status());
+        }
+        return statuses;
+    }
+
+    private void settle(CalendarPush p, int status, Instant now) {
+        boolean done = status / 100 == 2 || (p.getOp() == Op.DELETE && (status == 404 || status == 410));
+        if (done) {
+            queue.complete(p.getEventId(), p.getEnqueuedAt());
+            return;
+        }
+        // 0: no answer for this call; 403 is how Google reports rate limits
+        boolean retryable = status == 0 || status == 403 || status == 408 || status == 429 || status >= 500;
+        reschedule(p, now, "HTTP " + status, retryable);
+    }
+
+    private void retryAll(List<Item> items, Instant now, String error) {
+        tx.executeWithoutResult(status -> {
+            for (Item item : items)
+                reschedule(item.row(), now, error, true);
+        });
+    }
+
+    private void reschedule(CalendarPush p, Instant now, String error, boolean retryable) {
+        int attempts = p.getAttempts() + 1;
+        Instant next = null;
+        if (retryable && attempts < maxAttempts) {
+            long cap = Math.min(maxBackoffMs, backoffMs << Math.min(attempts - 1, 30));
+            next = now.plusMillis(cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1));
+        }
+        String message = error.length() > 500 ? error.substring(0, 500) : error;
+        queue.reschedule(p.getEventId(), p.getEnqueuedAt(), attempts, next, message);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,134 @@
+package com.orbit.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits long page text into prompt-sized chunks for extraction. Breaks fall
+ * on paragraph and heading boundaries, and each chunk repeats the tail of the
+ * previous one so an event straddling a boundary is still seen whole by one
+ * of them. Duplicates this produces are folded back by {@link EventMerger}.
+ */
+@Component
+public class DocumentChunker {
+
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n\\s*\\n");
+    // markdown headings, numbered sections ("2.1 Exams"), short ALL CAPS lines, "Week 3:" style labels
+    private static final Pattern HEADING = Pattern.compile(
+            "^(#{1,6}\\s.*|\\d+(\\.\\d+)*[.)]?\\s+\\S.{0,60}|[\\p{Lu}\\d\\s\\p{Punct}]{3,60}|.{1,60}:)$");
+
+    private final int maxChars;
+    private final int overlapChars;
+
+    public DocumentChunker(@Value("${orbit.extract.chunk.max-chars:3000}") int maxChars,
+            @Value("${orbit.extract.chunk.overlap-chars:300}") int overlapChars) {
+        this.maxChars = maxChars;
+        this.overlapChars = Math.min(overlapChars, maxChars / 2);
+    }
+
+    /** Always returns at least one chunk; text that fits is returned as is. */
+    public List<String> split(String text) {
+        if (text == null || text.length() <= maxChars) {
+            return List.of(text == null ? "" : text);
+        }
+
+        List<String> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = 0;
+        for (String block : blocks(text)) {
+            if (length > 0 && length + 2 + block.length() > maxChars) {
+                chunks.add(String.join("\n\n", current));
+                current = overlap(current);
+                length = joinedLength(current);
+            }
+            current.add(block);
+            length += (length > 0 ? 2 : 0) + block.length();
+        }
+        if (!current.isEmpty()) {
+            chunks.add(String.join("\n\n", current));
+        }
+        return chunks;
+    }
+
+    /** Paragraphs, with headings split off the text above them and oversized paragraphs cut down. */
+    private List<String> blocks(String text) {
+        List<String> blocks = new ArrayList<>();
+        for (String paragraph : BLANK_LINES.split(text)) {
+            StringBuilder block = new StringBuilder();
+            for (String line : paragraph.split("\\n")) {
+                String l = line.strip();
+                if (l.isEmpty()) {
+                    continue;
+                }
+                if (block.length() > 0 && HEADING.matcher(l).matches()) {
+                    addBlock(blocks, block.toString());
+                    block.setLength(0);
+                }
+                if (block.length() > 0) {
+                    block.append('\n');
+                }
+                block.append(l);
+            }
+            addBlock(blocks, block.toString());
+        }
+        return blocks;
+    }
+
+    private void addBlock(List<String> blocks, String block) {
+        // leave room for the overlap carried in front of it
+        int limit = maxChars - overlapChars - 2;
+        String rest = block;
+        while (rest.length() > limit) {
+            int cut = breakBefore(rest, limit);
+            blocks.add(rest.substring(0, cut).strip());
+            rest = rest.substring(cut).strip();
+        }
+        if (!rest.isEmpty()) {
+            blocks.add(rest);
+        }
+    }
+
+    /** Trailing blocks of the finished chunk, up to overlapChars, to start the next one with. */
+    private List<String> overlap(List<String> finished) {
+        List<String> tail = new ArrayList<>();
+        int length = 0;
+        for (int i = finished.size() - 1; i >= 0 && length < overlapChars; i--) {
+            String block = finished.get(i);
+            if (length + block.length() > overlapChars) {
+                int from = block.length() - (overlapChars - length);
+                int space = block.indexOf(' ', from);
+                if (space > 0 && space < block.length() - 1) {
+                    tail.add(0, block.substring(space + 1));
+                }
+                break;
+            }
+            tail.add(0, block);
+            length += block.length() + 2;
+        }
+        return tail;
+    }
+
+    private static int joinedLength(List<String> blocks) {
+        int length = 0;
+        for (String b : blocks) {
+            length += (length > 0 ? 2 : 0) + b.length();
+        }
+        return length;
+    }
+
+    // prefer a sentence end, then any whitespace, inside the limit
+    private static int breakBefore(String s, int limit) {
+        for (int i = limit; i > limit / 2; i--) {
+            char c = s.charAt(i - 1);
+            if ((c == '.' || c == '!' || c == '?' || c == '\n') && Character.isWhitespace(s.charAt(i))) {
+                return i;
+            }
+        }
+        int space = s.lastIndexOf(' ', limit);
+        return space > 0 ? space : limit;
+    }
+}
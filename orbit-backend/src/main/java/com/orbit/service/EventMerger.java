@@ -0,0 +1,98 @@
+package com.orbit.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.orbit.dto.ExtractedEvent;
+
+/**
+ * Folds together events found more than once, e.g. by overlapping chunks of
+ * the same page. Two events are the same when they share a date and their
+ * titles match after normalization, one title's words appear as a run in the
+ * other, or (at the same time of day) they share most of their words. Undated
+ * events only merge with themselves. The more confident one is kept and gains
+ * a time if only the other had one. Not thread-safe.
+ */
+public class EventMerger {
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<ExtractedEvent> events = new ArrayList<>();
+
+    public static List<ExtractedEvent> merge(List<ExtractedEvent> events) {
+        EventMerger merger = new EventMerger();
+        merger.add(events);
+        return merger.events();
+    }
+
+    /** Adds events and returns the ones that were not duplicates of earlier ones. */
+    public List<ExtractedEvent> add(List<ExtractedEvent> incoming) {
+        List<ExtractedEvent> added = new ArrayList<>();
+        for (ExtractedEvent ev : incoming) {
+            ExtractedEvent same = find(ev);
+            if (same == null) {
+                events.add(ev);
+                added.add(ev);
+            } else if (ev.confidence > same.confidence) {
+                if (ev.time == null) {
+                    ev.time = same.time;
+                }
+                events.set(events.indexOf(same), ev);
+            } else if (same.time == null) {
+                same.time = ev.time;
+            }
+        }
+        return added;
+    }
+
+    public List<ExtractedEvent> events() {
+        return events;
+    }
+
+    private ExtractedEvent find(ExtractedEvent ev) {
+        if (ev.date == null) {
+            // a streamed event comes back with its chunk's answer as the same object
+            return events.stream().filter(other -> other == ev).findFirst().orElse(null);
+        }
+        String title = normalize(ev.title);
+        for (ExtractedEvent other : events) {
+            if (!ev.date.equals(other.date)) {
+                continue;
+            }
+            String otherTitle = normalize(other.title);
+            if (title.equals(otherTitle)
+                    || (!title.isEmpty() && !otherTitle.isEmpty()
+                            && (containsWords(title, otherTitle) || containsWords(otherTitle, title)))) {
+                return other;
+            }
+            if (ev.time != null && ev.time.equals(other.time) && similar(title, otherTitle)) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    // "quiz 10" does not contain "quiz 1", nor "collaboration" "lab"
+    private static boolean containsWords(String title, String words) {
+        return (" " + title + " ").contains(" " + words + " ");
+    }
+
+    private static boolean similar(String a, String b) {
+        Set<String> wordsA = new HashSet<>(List.of(a.split(" ")));
+        Set<String> wordsB = new HashSet<>(List.of(b.split(" ")));
+        Set<String> common = new HashSet<>(wordsA);
+        common.retainAll(wordsB);
+        return common.size() * 2 >= Math.max(wordsA.size(), wordsB.size());
+    }
+
+    private static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        return NON_ALNUM.matcher(title.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+}
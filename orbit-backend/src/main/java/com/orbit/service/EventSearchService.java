@@ -0,0 +1,239 @@
+package com.orbit.service;
+
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.orbit.dto.EventSearchPage;
+import com.orbit.dto.EventSummary;
+import com.orbit.entity.Event;
+import com.orbit.repository.EventRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Ranked full-text search over event titles and source snippets. On
+ * PostgreSQL it queries the generated {@code search} tsvector column (GIN
+ * indexed, see {@link EventTableUpgrade}); on other databases it keeps an
+ * in-process inverted index that {@link EventService} updates after each
+ * committed write. Both rank title matches above snippet matches, require
+ * every query term to match and only return the searching user's events.
+ */
+@Service
+@DependsOn("eventTableUpgrade") // the index is built from rows that already have owners
+public class EventSearchService {
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int TITLE_WEIGHT = 4;
+    private static final int MAX_TERMS = 16;
+
+    private final EventRepository repo;
+    private final JdbcTemplate jdbc;
+    private final DataSource dataSource;
+    private final TransactionTemplate tx;
+
+    private boolean postgres;
+
+    // term -> (event id -> weighted term frequency), plus each event's terms so it can be removed
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, String[]> docTerms = new HashMap<>();
+    private final Map<Long, String> docOwners = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public EventSearchService(EventRepository repo, JdbcTemplate jdbc, DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.jdbc = jdbc;
+        this.dataSource = dataSource;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            postgres = "PostgreSQL".equals(
+                    JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        } catch (Exception e) {
+            System.err.println("Could not detect database, using in-process search: " + e.getMessage());
+        }
+        if (postgres)
+            return;
+        tx.executeWithoutResult(status -> {
+            try (Stream<Event> events = repo.streamAllOrderById()) {
+                events.forEach(e -> put(e.getId(), e.getUserId(), e.getTitle(), e.getSourceSnippet()));
+            }
+        });
+    }
+
+    /**
+     * One page of matches, best first; ties go to the newer event. Offset
+     * paging is fine here: deep pages of a ranked result are rarely read.
+     */
+    public EventSearchPage search(String userId, String query, int limit, int offset) {
+        List<Long> ids = postgres
+                ? searchNative(userId, query, limit + 1, offset)
+                : searchLocal(userId, query, limit + 1, offset);
+        List<Long> page = ids.size() > limit ? ids.subList(0, limit) : ids;
+
+        Map<Long, EventSummary> byId = new HashMap<>();
+        for (EventSummary s : repo.findSummariesByIdIn(page))
+            byId.put(s.getId(), s);
+        EventSearchPage result = new EventSearchPage();
+        result.items = new ArrayList<>(page.size());
+        for (Long id : page) {
+            EventSummary s = byId.get(id);
+            if (s != null) // deleted since it was ranked
+                result.items.add(s);
+        }
+        result.nextOffset = ids.size() > limit ? offset + limit : null;
+        return result;
+    }
+
+    private List<Long> searchNative(String userId, String query, int limit, int offset) {
+        return jdbc.queryForList(
+                "select e.id from events e, websearch_to_tsquery('simple', ?) q "
+                        + "where e.user_id = ? and e.search @@ q "
+                        + "order by ts_rank(e.search, q) desc, e.id desc limit ? offset ?",
+                Long.class, query, userId, limit, offset);
+    }
+
+    private List<Long> searchLocal(String userId, String query, int limit, int offset) {
+        List<String> terms = terms(query).keySet().stream().limit(MAX_TERMS).toList();
+        if (terms.isEmpty())
+            return List.of();
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null)
+                    return List.of();
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Map::size)); // intersect from the rarest term
+            int docs = docTerms.size();
+            scores = new HashMap<>();
+            for (Map.Entry<Long, Integer> hit : lists.get(0).entrySet()) {
+                if (!userId.equals(docOwners.get(hit.getKey())))
+                    continue;
+                double score = 0;
+                for (Map<Long, Integer> list : lists) {
+                    Integer tf = list.get(hit.getKey());
+                    if (tf == null) {
+                        score = -1;
+                        break;
+                    }
+                    score += Math.log1p(tf) * Math.log1p((double) docs / list.size());
+                }
+                if (score >= 0)
+                    scores.put(hit.getKey(), score);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /** Called after an event is saved; takes effect once the transaction commits. */
+    void indexed(Event e) {
+        if (postgres)
+            return;
+        Long id = e.getId();
+        String owner = e.getUserId();
+        String title = e.getTitle();
+        String snippet = e.getSourceSnippet();
+        AfterCommit.run(() -> put(id, owner, title, snippet));
+    }
+
+    void removed(Collection<Long> ids) {
+        if (postgres || ids.isEmpty())
+            return;
+        List<Long> copy = List.copyOf(ids);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                copy.forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void put(Long id, String owner, String title, String snippet) {
+        Map<String, Integer> terms = terms(title, TITLE_WEIGHT);
+        terms(snippet, 1).forEach((t, tf) -> terms.merge(t, tf, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            String[] own = new String[terms.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> t : terms.entrySet()) {
+                postings.computeIfAbsent(t.getKey(), k -> new HashMap<>()).put(id, t.getValue());
+                own[i++] = t.getKey();
+            }
+            docTerms.put(id, own);
+            docOwners.put(id, owner);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            String[] own = docTerms.remove(id);
+            docOwners.remove(id);
+            if (own == null)
+                return;
+            for (String term : own) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list != null && list.remove(id) != null && list.isEmpty())
+                    postings.remove(term);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> terms(String text) {
+        return terms(text, 1);
+    }
+
+    private static Map<String, Integer> terms(String text, int weight) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        if (text == null)
+            return terms;
+        for (String t : NON_ALNUM.split(text.toLowerCase(Locale.ROOT))) {
+            if (!t.isEmpty())
+                terms.merge(t, weight, Integer::sum);
+        }
+        return terms;
+    }
+}
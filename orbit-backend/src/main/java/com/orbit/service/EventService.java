@@ -0,0 +1,261 @@
+package com.orbit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.orbit.dto.BulkSaveResponse;
+import com.orbit.dto.EventChanges;
+import com.orbit.entity.Event;
+import com.orbit.entity.EventTombstone;
+import com.orbit.entity.UserAccount;
+import com.orbit.repository.EventRepository;
+import com.orbit.repository.EventRepository.EventTableVersion;
+import com.orbit.repository.EventTombstoneRepository;
+
+/**
+ * Write path for events plus the bookkeeping incremental sync relies on.
+ * Every method works on one user's events only:
+ * deletes leave tombstones behind, and the table version backs the ETags
+ * served by the list endpoint. Committed writes also update the search and
+ * near-duplicate indexes and the cached ICS feeds, and are queued for Google
+ * Calendar when connected.
+ */
+@Service
+public class EventService {
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final EventRepository repo;
+    private final EventTombstoneRepository tombstones;
+    private final EventSearchService search;
+    private final EventSimilarityIndex duplicates;
+    private final IcsFeedCache icsFeeds;
+    private final CalendarPushQueue calendarPush;
+
+    /** How long a write may take from stamping updatedAt to committing. */
+    @Value("${orbit.changes.safety-lag-ms:5000}")
+    private long safetyLagMs;
+
+    public EventService(EventRepository repo, EventTombstoneRepository tombstones, EventSearchService search,
+            EventSimilarityIndex duplicates, IcsFeedCache icsFeeds, CalendarPushQueue calendarPush) {
+        this.repo = repo;
+        this.tombstones = tombstones;
+        this.search = search;
+        this.duplicates = duplicates;
+        this.icsFeeds = icsFeeds;
+        this.calendarPush = calendarPush;
+    }
+
+    /**
+     * Saves one event for a user, merging it into their stored event with the
+     * same natural key so re-capturing a page updates the row instead of
+     * duplicating it.
+     */
+    @Transactional
+    public Event save(String userId, Event ev) {
+        ev.setUserId(userId);
+        if (ev.getId() != null && !repo.existsByIdAndUserId(ev.getId(), userId))
+            ev.setId(null); // not theirs to edit: store it as a new event
+        String key = naturalKey(ev);
+        Event existing = repo.findByNaturalKey(key).orElse(null);
+        Event saved;
+        if (existing == null) {
+            ev.setNaturalKey(key);
+            saved = repo.save(ev);
+        } else if (ev.getId() == null || ev.getId().equals(existing.getId())) {
+            copyFields(ev, existing);
+            saved = existing;
+        } else {
+            // an explicit edit that now matches another captured event: keep both rows
+            ev.setNaturalKey(null);
+            saved = repo.save(ev);
+        }
+        search.indexed(saved);
+        duplicates.indexed(saved);
+        icsFeeds.invalidate(userId, saved.getId());
+        calendarPush.enqueueUpserts(userId, List.of(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Upserts many events in one transaction. Rows are matched by natural key
+     * with a single lookup, new rows get pooled sequence ids and go out as JDBC
+     * batches at commit. Within a request the last event with a given key wins.
+     */
+    @Transactional
+    public BulkSaveResponse saveAll(String userId, List<Event> events) {
+        List<String> keys = new ArrayList<>(events.size());
+        Map<String, Event> byKey = new LinkedHashMap<>();
+        for (Event ev : events) {
+            ev.setUserId(userId);
+            String key = naturalKey(ev);
+            keys.add(key);
+            byKey.put(key, ev);
+        }
+
+        Map<String, Event> stored = new HashMap<>();
+        for (Event e : repo.findByNaturalKeyIn(byKey.keySet())) {
+            stored.put(e.getNaturalKey(), e);
+        }
+
+        List<Event> inserts = new ArrayList<>();
+        int updated = 0;
+        for (Map.Entry<String, Event> entry : byKey.entrySet()) {
+            Event ev = entry.getValue();
+            Event existing = stored.get(entry.getKey());
+            if (existing != null) {
+                copyFields(ev, existing); // managed, flushed by dirty checking
+                updated++;
+            } else {
+                ev.setId(null); // identity is the natural key here
+                ev.setNaturalKey(entry.getKey());
+                inserts.add(ev);
+                stored.put(entry.getKey(), ev);
+            }
+        }
+        repo.saveAll(inserts);
+        List<Long> saved = new ArrayList<>(stored.size());
+        for (Event e : stored.values()) {
+            search.indexed(e);
+            duplicates.indexed(e);
+            icsFeeds.invalidate(userId, e.getId());
+            saved.add(e.getId());
+        }
+        calendarPush.enqueueUpserts(userId, saved);
+
+        BulkSaveResponse resp = new BulkSaveResponse();
+        resp.created = inserts.size();
+        resp.updated = updated;
+        resp.duplicates = events.size() - byKey.size();
+        resp.ids = keys.stream().map(k -> stored.get(k).getId()).toList();
+        return resp;
+    }
+
+    @Transactional
+    public boolean delete(String userId, Long id) {
+        if (!repo.existsByIdAndUserId(id, userId))
+            return false;
+        repo.deleteById(id);
+        tombstones.save(new EventTombstone(id, userId, Instant.now()));
+        search.removed(List.of(id));
+        duplicates.removed(List.of(id));
+        icsFeeds.invalidate(userId, id);
+        calendarPush.enqueueDeletes(userId, List.of(id));
+        return true;
+    }
+
+    /** Deletes all of one user's events. */
+    @Transactional
+    public long clearAll(String userId) {
+        List<Long> ids = repo.findIdsByUserId(userId);
+        tombstones.tombstoneAllEvents(userId, Instant.now());
+        calendarPush.enqueueDeletes(userId, ids);
+        repo.deleteByUserId(userId);
+        search.removed(ids);
+        duplicates.removed(ids);
+        icsFeeds.invalidate(userId, ids);
+        return ids.size();
+    }
+
+    /**
+     * Everything that changed at or after the token. updatedAt is stamped at
+     * flush, not at commit, so a slow transaction can commit a row older than
+     * one already returned. The next token therefore never passes
+     * {@code now - orbit.changes.safety-lag-ms}: the following poll repeats
+     * the writes of that window, and clients apply upserts and deletes by id,
+     * which makes the overlap harmless.
+     */
+    @Transactional(readOnly = true)
+    public EventChanges changesSince(String userId, String token) {
+        Instant since = parseToken(token);
+        EventChanges changes = new EventChanges();
+        changes.upserts = since == null ? repo.findByUserId(userId) : repo.findUpdatedSince(userId, since);
+        changes.deleted = since == null ? List.of() : tombstones.findEventIdsDeletedSince(userId, since);
+
+        Instant next = since;
+        for (Event e : changes.upserts) {
+            if (e.getUpdatedAt() != null && (next == null || e.getUpdatedAt().isAfter(next)))
+                next = e.getUpdatedAt();
+        }
+        Instant lastDeleted = tombstones.findLastDeletedAt(userId);
+        if (lastDeleted != null && (next == null || lastDeleted.isAfter(next)))
+            next = lastDeleted;
+        Instant settled = Instant.now().minusMillis(safetyLagMs);
+        if (next != null && next.isAfter(settled))
+            next = since != null && since.isAfter(settled) ? since : settled;
+        changes.token = next == null ? "0" : Long.toString(next.toEpochMilli());
+        return changes;
+    }
+
+    /**
+     * Strong ETag for the current state of a user's events. Any insert,
+     * update or delete moves the row count, the newest updatedAt or the newest
+     * tombstone, so equal tags mean byte-identical list and ICS bodies.
+     */
+    @Transactional(readOnly = true)
+    public String currentEtag(String userId, String prefix) {
+        EventTableVersion version = repo.findTableVersion(userId);
+        Instant lastDeleted = tombstones.findLastDeletedAt(userId);
+        return "\"" + prefix + "-" + version.getCount()
+                + "-" + (version.getLastUpdated() == null ? 0 : version.getLastUpdated().toEpochMilli())
+                + "-" + (lastDeleted == null ? 0 : lastDeleted.toEpochMilli()) + "\"";
+    }
+
+    /**
+     * Identity of a captured event: owner, source URL (without fragment), date
+     * and title with case, punctuation and whitespace differences ignored.
+     * Keys of the local user leave the owner out, so they match the keys
+     * stored before events had owners.
+     */
+    public static String naturalKey(Event ev) {
+        String url = ev.getUrl() == null ? "" : ev.getUrl().trim();
+        int hash = url.indexOf('#');
+        if (hash >= 0)
+            url = url.substring(0, hash);
+        String date = ev.getDate() == null ? "" : ev.getDate().trim();
+        String title = ev.getTitle() == null ? ""
+                : NON_ALNUM.matcher(ev.getTitle().toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        String owner = ev.getUserId() == null || UserAccount.LOCAL.equals(ev.getUserId()) ? "" : ev.getUserId() + '\n';
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((owner + url + '\n' + date + '\n' + title).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void copyFields(Event from, Event to) {
+        to.setTitle(from.getTitle());
+        to.setDate(from.getDate());
+        to.setTime(from.getTime());
+        to.setTag(from.getTag());
+        to.setConfidence(from.getConfidence());
+        to.setSourceSnippet(from.getSourceSnippet());
+        to.setUrl(from.getUrl());
+    }
+
+    private static Instant parseToken(String token) {
+        if (token == null || token.isBlank())
+            return null;
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(token));
+        } catch (NumberFormatException e) {
+            return null; // unknown token: resync from scratch
+        }
+    }
+}
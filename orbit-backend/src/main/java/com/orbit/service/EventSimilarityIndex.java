@@ -0,0 +1,303 @@
+package com.orbit.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.orbit.entity.Event;
+import com.orbit.repository.EventRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Near-duplicate lookup for stored events, so the same event captured from
+ * the course site, an email and a forum post can be recognized. Each event is
+ * reduced to a MinHash signature over character trigrams of its title and
+ * word pairs from the start of its snippet; signatures are split into bands
+ * and hashed into LSH buckets together with the owner and event day, so a
+ * lookup only compares against the same user's same-day events that agree on
+ * at least one band. Days are compared as dates, so "Mar 18" and "2026-03-18"
+ * are the same day; text the local rules cannot date is compared as written. Kept in memory and updated by {@link EventService}
+ * after each committed write.
+ */
+@Service
+@DependsOn("eventTableUpgrade") // the index is built from rows that already have owners
+public class EventSimilarityIndex {
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int HASHES = 32;
+    private static final int ROWS = 2; // 16 bands of 2: pairs around 0.5 similar still share a bucket
+    private static final int BANDS = HASHES / ROWS;
+    private static final int SNIPPET_WORDS = 24;
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] OFFSETS = new long[HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x0cb17L);
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    private final EventRepository repo;
+    private final LocalEventExtractor dates;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final double threshold;
+
+    // event id -> signature; band key -> ids in that bucket (small, copied on write)
+    private final Map<Long, int[]> signatures = new HashMap<>();
+    private final Map<Long, String> scopes = new HashMap<>(); // owner + day
+    private final Map<Long, long[]> buckets = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public EventSimilarityIndex(EventRepository repo, LocalEventExtractor dates,
+            PlatformTransactionManager transactionManager,
+            @Value("${orbit.dedupe.enabled:true}") boolean enabled,
+            @Value("${orbit.dedupe.threshold:0.6}") double threshold) {
+        this.repo = repo;
+        this.dates = dates;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setReadOnly(true);
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    /** A stored event and its estimated similarity (0..1) to the one looked up. */
+    public record Match(long eventId, double similarity) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled)
+            return;
+        tx.executeWithoutResult(status -> {
+            try (Stream<Event> events = repo.streamAllOrderById()) {
+                events.forEach(e -> put(e.getId(), e.getUserId(), e.getTitle(), day(e), e.getSourceSnippet()));
+            }
+        });
+    }
+
+    /** The user's most similar stored event on the same date, or null when none reaches the threshold. */
+    public Match findDuplicate(String userId, String title, String date, String snippet) {
+        return findDuplicate(userId, title, date, snippet, null);
+    }
+
+    /** As above, ignoring the event with id {@code except} (typically the one just saved). */
+    public Match findDuplicate(String userId, String title, String date, String snippet, Long except) {
+        if (!enabled)
+            return null;
+        int[] sig = signature(title, snippet);
+        if (sig == null)
+            return null;
+        String day = scope(userId, date);
+        long bestId = 0;
+        int bestSame = -1;
+        lock.readLock().lock();
+        try {
+            Set<Long> seen = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                long[] ids = buckets.get(bandKey(day, sig, band));
+                if (ids == null)
+                    continue;
+                for (long id : ids) {
+                    // bucket keys are hashes; a colliding key must not reach another user's or day's events
+                    if ((except != null && id == except) || !seen.add(id) || !day.equals(scopes.get(id)))
+                        continue;
+                    int same = agreement(sig, signatures.get(id));
+                    if (same > bestSame || (same == bestSame && id < bestId)) {
+                        bestSame = same;
+                        bestId = id;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        double similarity = (double) bestSame / HASHES;
+        return bestSame >= 0 && similarity >= threshold ? new Match(bestId, similarity) : null;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return signatures.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Called after an event is saved; takes effect once the transaction commits. */
+    void indexed(Event e) {
+        if (!enabled)
+            return;
+        Long id = e.getId();
+        String owner = e.getUserId();
+        String title = e.getTitle();
+        String date = day(e);
+        String snippet = e.getSourceSnippet();
+        AfterCommit.run(() -> put(id, owner, title, date, snippet));
+    }
+
+    void removed(Collection<Long> ids) {
+        if (!enabled || ids.isEmpty())
+            return;
+        List<Long> copy = List.copyOf(ids);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                copy.forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    void put(Long id, String owner, String title, String date, String snippet) {
+        int[] sig = signature(title, snippet);
+        String day = scope(owner, date);
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            if (sig == null)
+                return;
+            signatures.put(id, sig);
+            scopes.put(id, day);
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(day, sig, band);
+                long[] ids = buckets.get(key);
+                if (ids == null) {
+                    ids = new long[] { id };
+                } else {
+                    ids = Arrays.copyOf(ids, ids.length + 1);
+                    ids[ids.length - 1] = id;
+                }
+                buckets.put(key, ids);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            int[] sig = signatures.remove(id);
+            String day = scopes.remove(id);
+            if (sig == null)
+                return;
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(day, sig, band);
+                long[] ids = buckets.get(key);
+                if (ids == null)
+                    continue;
+                long[] rest = Arrays.stream(ids).filter(other -> other != id).toArray();
+                if (rest.length == 0)
+                    buckets.remove(key);
+                else
+                    buckets.put(key, rest);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** MinHash signature, or null when there is no text to compare. */
+    static int[] signature(String title, String snippet) {
+        int[] sig = new int[HASHES];
+        Arrays.fill(sig, Integer.MAX_VALUE);
+        boolean any = false;
+
+        String t = normalize(title);
+        if (!t.isEmpty()) {
+            String padded = " " + t + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                mix(sig, padded.substring(i, i + 3).hashCode());
+                any = true;
+            }
+        }
+        String s = normalize(snippet);
+        if (!s.isEmpty()) {
+            String[] words = s.split(" ", SNIPPET_WORDS + 1);
+            int n = Math.min(words.length, SNIPPET_WORDS);
+            if (n == 1)
+                mix(sig, words[0].hashCode() * 31 + 7);
+            for (int i = 0; i + 1 < n; i++)
+                mix(sig, (words[i] + ' ' + words[i + 1]).hashCode() * 31 + 7); // kept apart from title trigrams
+            any = true;
+        }
+        return any ? sig : null;
+    }
+
+    private static void mix(int[] sig, int shingle) {
+        long x = shingle;
+        for (int i = 0; i < HASHES; i++) {
+            int h = (int) ((MULTIPLIERS[i] * x + OFFSETS[i]) >>> 32);
+            if (h < sig[i])
+                sig[i] = h;
+        }
+    }
+
+    private static int agreement(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i])
+                same++;
+        }
+        return same;
+    }
+
+    private static long bandKey(String day, int[] sig, int band) {
+        long h = day.hashCode() * 0x9E3779B97F4A7C15L + band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++)
+            h = (h ^ sig[i]) * 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 31);
+    }
+
+    private static String normalize(String text) {
+        if (text == null)
+            return "";
+        return NON_ALNUM.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private String scope(String owner, String date) {
+        return owner + '\n' + day(date);
+    }
+
+    // the typed column is set whenever the stored date is ISO
+    private static String day(Event e) {
+        return e.getStartDate() != null ? e.getStartDate().toString() : e.getDate();
+    }
+
+    /** The ISO day a date string names, or the trimmed string when it names no single day. */
+    private String day(String date) {
+        if (date == null)
+            return "";
+        LocalDate parsed = Event.parseDate(date);
+        if (parsed == null) {
+            LocalEventExtractor.Result result = dates.analyze(date);
+            if (!result.dates().isEmpty()
+                    && result.dates().stream().allMatch(d -> d.date().equals(result.bestDate().date())))
+                parsed = result.bestDate().date();
+        }
+        return parsed != null ? parsed.toString() : date.trim();
+    }
+}
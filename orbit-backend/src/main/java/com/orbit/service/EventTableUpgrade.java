@@ -0,0 +1,163 @@
+package com.orbit.service;
+
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.orbit.entity.Event;
+import com.orbit.entity.UserAccount;
+import com.orbit.repository.EventRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * One-off upgrades for events tables created before ids came from the pooled
+ * {@code events_seq} and rows carried an owner, natural key, typed start date
+ * and search vector. Runs at startup, before the web server accepts requests,
+ * and is a no-op once the table is current.
+ */
+@Component
+public class EventTableUpgrade {
+
+    private static final int BACKFILL_PAGE = 500;
+
+    private final EventRepository repo;
+    private final JdbcTemplate jdbc;
+    private final DataSource dataSource;
+    private final TransactionTemplate tx;
+
+    public EventTableUpgrade(EventRepository repo, JdbcTemplate jdbc, DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.jdbc = jdbc;
+        this.dataSource = dataSource;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void upgrade() {
+        alignSequence();
+        addSearchColumn();
+        assignOwners();
+        backfillNaturalKeys();
+        backfillStartDates();
+    }
+
+    /**
+     * ddl-auto=update creates events_seq starting at 1 even when the table
+     * already holds IDENTITY-generated ids, so move it past them. Hibernate's
+     * pooled optimizer hands out the 50 ids below each value it reads.
+     */
+    private void alignSequence() {
+        if (!isPostgres())
+            return;
+        try {
+            jdbc.execute("alter sequence events_seq increment by 50");
+            jdbc.queryForObject("select setval('events_seq', greatest("
+                    + "(select coalesce(max(id), 0) from events) + 50, "
+                    + "(select last_value from events_seq)))", Long.class);
+        } catch (Exception e) {
+            System.err.println("Could not align events_seq: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generated tsvector behind {@link EventSearchService}: titles weigh A,
+     * snippets B. Hibernate does not map the column, so ddl-auto leaves it be.
+     */
+    private void addSearchColumn() {
+        if (!isPostgres())
+            return;
+        try {
+            jdbc.execute("alter table events add column if not exists search tsvector generated always as ("
+                    + "setweight(to_tsvector('simple', coalesce(title, '')), 'A') || "
+                    + "setweight(to_tsvector('simple', coalesce(source_snippet, '')), 'B')) stored");
+            jdbc.execute("create index if not exists idx_events_search on events using gin (search)");
+        } catch (Exception e) {
+            System.err.println("Could not add events.search: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rows from before multi-tenancy belong to the local user, which is also
+     * who owns everything while tenancy is off.
+     */
+    private void assignOwners() {
+        tx.executeWithoutResult(status -> {
+            jdbc.update("update events set user_id = ? where user_id is null", UserAccount.LOCAL);
+            jdbc.update("update event_tombstones set user_id = ? where user_id is null", UserAccount.LOCAL);
+            jdbc.update("update calendar_push_queue set user_id = ? where user_id is null", UserAccount.LOCAL);
+            jdbc.update("update google_credentials set account = ? where account = 'default'", UserAccount.LOCAL);
+        });
+    }
+
+    private boolean isPostgres() {
+        try {
+            return "PostgreSQL".equals(
+                    JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** Rows whose key is already taken are true duplicates and keep a null key. */
+    private void backfillNaturalKeys() {
+        long after = 0;
+        while (true) {
+            final long cursor = after;
+            Long last = tx.execute(status -> {
+                List<Event> page = repo.findWithoutNaturalKey(cursor, Limit.of(BACKFILL_PAGE));
+                if (page.isEmpty())
+                    return null;
+                Set<String> taken = new HashSet<>();
+                List<String> keys = page.stream().map(EventService::naturalKey).toList();
+                for (Event e : repo.findByNaturalKeyIn(keys))
+                    taken.add(e.getNaturalKey());
+                for (int i = 0; i < page.size(); i++) {
+                    if (taken.add(keys.get(i)))
+                        repo.setNaturalKey(page.get(i).getId(), keys.get(i));
+                }
+                return page.get(page.size() - 1).getId();
+            });
+            if (last == null)
+                return;
+            after = last;
+        }
+    }
+
+    /**
+     * Only rows whose date looks like yyyy-MM-dd are read; free-form dates
+     * never parse and keep a null start without being revisited.
+     */
+    private void backfillStartDates() {
+        long after = 0;
+        while (true) {
+            final long cursor = after;
+            Long last = tx.execute(status -> {
+                List<Event> page = repo.findWithoutStartDate(cursor, Limit.of(BACKFILL_PAGE));
+                if (page.isEmpty())
+                    return null;
+                for (Event e : page) {
+                    LocalDate date = Event.parseDate(e.getDate());
+                    if (date != null)
+                        repo.setStart(e.getId(), date, Event.parseTime(e.getTime()));
+                }
+                return page.get(page.size() - 1).getId();
+            });
+            if (last == null)
+                return;
+            after = last;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.orbit.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.orbit.dto.ExtractRequest;
+import com.orbit.service.GeminiService.EventExtraction;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Micro-batching stage in front of Gemini. Requests arriving within a short
+ * window are packed into one multi-item prompt and the parsed results are
+ * handed back to each caller's future. Batches are dispatched on the Gemini
+ * executor, so no request thread waits on the upstream call.
+ */
+@Service
+public class ExtractionBatcher {
+
+    private final GeminiService geminiService;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher;
+
+    @Value("${orbit.extract.coalesce.window-ms:20}")
+    private long windowMs;
+
+    @Value("${orbit.extract.coalesce.max-batch:8}")
+    private int maxBatch;
+
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public ExtractionBatcher(GeminiService geminiService, @Qualifier("geminiExecutor") ExecutorService dispatcher) {
+        this.geminiService = geminiService;
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("orbit-batch-timer").daemon().factory());
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Queue a single request. It is dispatched once the batch fills up or the
+     * coalescing window closes, whichever comes first.
+     */
+    public CompletableFuture<List<EventExtraction>> submit(ExtractRequest req) {
+        if (windowMs <= 0) {
+            return CompletableFuture.supplyAsync(
+                    () -> geminiService.extractEvents(req.snippet(), req.title(), req.url()), dispatcher);
+        }
+
+        Pending p = new Pending(req, new CompletableFuture<>());
+        List<Pending> full = null;
+        synchronized (this) {
+            pending.add(p);
+            if (pending.size() >= maxBatch) {
+                full = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return p.future;
+    }
+
+    /**
+     * Send one request on its own when Gemini streaming is on, passing each
+     * event to onEvent as it is generated. Streaming trades the shared prompt
+     * for an earlier first result, so without it this is a plain {@link #submit}.
+     */
+    public CompletableFuture<List<EventExtraction>> submit(ExtractRequest req, Consumer<EventExtraction> onEvent) {
+        if (!geminiService.isStreamEnabled()) {
+            return submit(req);
+        }
+        return CompletableFuture.supplyAsync(
+                () -> geminiService.extractEvents(req.snippet(), req.title(), req.url(), onEvent), dispatcher);
+    }
+
+    /**
+     * Queue many requests at once, e.g. from the batch endpoint. Nothing else
+     * is coming from this caller, so everything pending is flushed right away.
+     */
+    public List<CompletableFuture<List<EventExtraction>>> submitAll(List<ExtractRequest> reqs) {
+        List<CompletableFuture<List<EventExtraction>>> futures = new ArrayList<>(reqs.size());
+        List<Pending> toDispatch;
+        synchronized (this) {
+            for (ExtractRequest req : reqs) {
+                Pending p = new Pending(req, new CompletableFuture<>());
+                pending.add(p);
+                futures.add(p.future);
+            }
+            toDispatch = drain();
+        }
+        for (int i = 0; i < toDispatch.size(); i += maxBatch) {
+            dispatch(toDispatch.subList(i, Math.min(toDispatch.size(), i + maxBatch)));
+        }
+        return futures;
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            scheduledFlush = null;
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    // callers must hold the monitor
+    private List<Pending> drain() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        dispatcher.execute(() -> {
+            try {
+                List<ExtractRequest> items = new ArrayList<>(batch.size());
+                for (Pending p : batch) {
+                    items.add(p.request);
+                }
+                List<List<EventExtraction>> results = geminiService.extractEventsBatch(items);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).future.complete(results.get(i));
+                }
+            } catch (Exception e) {
+                for (Pending p : batch) {
+                    p.future.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private record Pending(ExtractRequest request, CompletableFuture<List<EventExtraction>> future) {}
+}
@@ -0,0 +1,186 @@
+package com.orbit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orbit.entity.ExtractionCacheEntry;
+import com.orbit.repository.ExtractionCacheRepository;
+import com.orbit.service.GeminiService.EventExtraction;
+
+/**
+ * Content-addressed cache for Gemini extractions. Entries are keyed on a hash
+ * of the normalized (snippet, title, url, prompt version) tuple, kept in a
+ * bounded LRU memory tier and optionally mirrored to the JPA datasource.
+ */
+@Service
+public class ExtractionCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final TypeReference<List<EventExtraction>> EXTRACTION_LIST = new TypeReference<>() {};
+
+    private final ExtractionCacheRepository repo;
+    private final ObjectMapper objectMapper;
+
+    @Value("${orbit.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${orbit.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${orbit.cache.persistent.enabled:false}")
+    private boolean persistentEnabled;
+
+    @Value("${orbit.cache.persistent.ttl-seconds:604800}")
+    private long persistentTtlSeconds;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // access-ordered so the eldest entry is always the least recently used one
+    private final Map<String, CachedExtraction> memory = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedExtraction> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public ExtractionCache(ExtractionCacheRepository repo) {
+        this.repo = repo;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Build the cache key for a request. Whitespace is collapsed and the URL
+     * fragment dropped so cosmetic differences still hit the same entry.
+     */
+    public static String keyFor(String snippet, String title, String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, GeminiService.PROMPT_VERSION);
+            update(digest, normalize(snippet));
+            update(digest, normalize(title));
+            update(digest, normalizeUrl(url));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<List<EventExtraction>> get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            CachedExtraction cached = memory.get(key);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    hits.incrementAndGet();
+                    return Optional.of(cached.extractions);
+                }
+                memory.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+
+        if (persistentEnabled) {
+            List<EventExtraction> stored = loadPersistent(key, now);
+            if (stored != null) {
+                hits.incrementAndGet();
+                putMemory(key, stored, now);
+                return Optional.of(stored);
+            }
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String key, List<EventExtraction> extractions) {
+        long now = System.currentTimeMillis();
+        putMemory(key, extractions, now);
+        if (persistentEnabled) {
+            try {
+                ExtractionCacheEntry entry = new ExtractionCacheEntry();
+                entry.setCacheKey(key);
+                entry.setPayload(objectMapper.writeValueAsString(extractions));
+                entry.setCreatedAt(now);
+                repo.save(entry);
+            } catch (Exception e) {
+                System.err.println("Extraction cache write error: " + e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (memory) {
+            size = memory.size();
+        }
+        return Map.of(
+                "hits", hits.get(),
+                "misses", misses.get(),
+                "evictions", evictions.get(),
+                "size", size,
+                "persistent", persistentEnabled);
+    }
+
+    private void putMemory(String key, List<EventExtraction> extractions, long now) {
+        synchronized (memory) {
+            memory.put(key, new CachedExtraction(extractions, now + ttlSeconds * 1000));
+        }
+    }
+
+    private List<EventExtraction> loadPersistent(String key, long now) {
+        try {
+            ExtractionCacheEntry entry = repo.findById(key).orElse(null);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.getCreatedAt() == null || entry.getCreatedAt() + persistentTtlSeconds * 1000 <= now) {
+                repo.deleteById(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return objectMapper.readValue(entry.getPayload(), EXTRACTION_LIST);
+        } catch (Exception e) {
+            System.err.println("Extraction cache read error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        digest.update(part.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0); // field separator so ("ab","c") != ("a","bc")
+    }
+
+    private static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(s.strip()).replaceAll(" ");
+    }
+
+    private static String normalizeUrl(String url) {
+        String u = normalize(url);
+        int hash = u.indexOf('#');
+        return hash >= 0 ? u.substring(0, hash) : u;
+    }
+
+    private record CachedExtraction(List<EventExtraction> extractions, long expiresAt) {}
+}
@@ -0,0 +1,192 @@
+package com.orbit.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.orbit.dto.ExtractedEvent;
+import com.orbit.dto.JobStatus;
+
+/**
+ * State of one asynchronous extraction: events and chunk results in the
+ * order they were published, plus the SSE subscribers that get each one as
+ * it lands. State is guarded by the job's monitor. Sends to subscribers run
+ * on the {@code sends} executor, one task at a time per subscriber, so the
+ * threads publishing results never wait on a client.
+ */
+public class ExtractionJob {
+
+    public enum Status { QUEUED, RUNNING, DONE }
+
+    private static final String DONE = "done";
+
+    private final String id;
+    private final String owner;
+    private final Executor sends;
+    private final List<Published> history = new ArrayList<>();
+    private final EventMerger merger = new EventMerger();
+    private final List<ExtractedEvent> detected = new ArrayList<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private Status status = Status.QUEUED;
+    private int chunksTotal;
+    private int chunksDone;
+    private long finishedAt;
+
+    ExtractionJob(String id, String owner, Executor sends) {
+        this.id = id;
+        this.owner = owner;
+        this.sends = sends;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    String owner() {
+        return owner;
+    }
+
+    synchronized void start(int chunksTotal) {
+        this.status = Status.RUNNING;
+        this.chunksTotal = chunksTotal;
+    }
+
+    /** Events streamed from a chunk that is still being extracted. */
+    void eventsFound(int index, List<ExtractedEvent> events) {
+        synchronized (this) {
+            List<ExtractedEvent> added = merger.add(events);
+            if (added.isEmpty()) {
+                return;
+            }
+            detected.addAll(added);
+            history.add(new Published("events", Map.of("index", index, "detected", added)));
+        }
+        deliver();
+    }
+
+    void chunkDone(int index, List<ExtractedEvent> events) {
+        synchronized (this) {
+            // overlapping chunks see boundary events twice, and streamed ones arrive again here;
+            // only publish the first sighting
+            List<ExtractedEvent> added = merger.add(events);
+            detected.addAll(added);
+            chunksDone++;
+            history.add(new Published("chunk", Map.of("index", index, "detected", added)));
+        }
+        deliver();
+    }
+
+    void finish() {
+        synchronized (this) {
+            status = Status.DONE;
+            finishedAt = System.currentTimeMillis();
+            history.add(new Published(DONE, snapshot(detected.size())));
+        }
+        deliver();
+    }
+
+    /** Replays what was published so far, then streams the rest; completes once the job is done. */
+    void subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (this) {
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        schedule(subscriber);
+    }
+
+    public synchronized JobStatus snapshot(int after) {
+        JobStatus s = new JobStatus();
+        s.id = id;
+        s.status = status.name();
+        s.chunksDone = chunksDone;
+        s.chunksTotal = chunksTotal;
+        int from = Math.max(0, Math.min(after, detected.size()));
+        s.detected = List.copyOf(detected.subList(from, detected.size()));
+        s.next = detected.size();
+        return s;
+    }
+
+    synchronized boolean expired(long now, long ttlMillis) {
+        return status == Status.DONE && now - finishedAt > ttlMillis;
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private void deliver() {
+        List<Subscriber> to;
+        synchronized (this) {
+            to = List.copyOf(subscribers);
+        }
+        to.forEach(this::schedule);
+    }
+
+    /** Starts a drain for the subscriber unless one is already running, which then picks up the new entries. */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sends.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                subscriber.draining.set(false);
+                unsubscribe(subscriber); // shutting down
+            }
+        }
+    }
+
+    /**
+     * Sends a subscriber everything it has not seen yet, in order. Sending
+     * blocks on the client, so a slow client holds up only its own drain,
+     * never chunk callbacks, other subscribers or status polls.
+     */
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Published next;
+            synchronized (this) {
+                next = subscriber.sent < history.size() ? history.get(subscriber.sent) : null;
+            }
+            if (next == null) {
+                subscriber.draining.set(false);
+                // an entry published after the check above found the drain still running; take it over
+                synchronized (this) {
+                    if (subscriber.sent == history.size() || !subscriber.draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            try {
+                subscriber.emitter.send(SseEmitter.event().name(next.name()).data(next.data()));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(subscriber); // client went away
+                return;
+            }
+            subscriber.sent++;
+            if (DONE.equals(next.name())) {
+                unsubscribe(subscriber);
+                subscriber.emitter.complete();
+                return;
+            }
+        }
+    }
+
+    private record Published(String name, Object data) {}
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicBoolean draining = new AtomicBoolean();
+        int sent; // history entries already sent, only touched by the running drain
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.orbit.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous extraction for large pages. A submitted page comes
+ * {@link ExtractionService#prepare prepared}: cleaned up and split into
+ * overlapping chunks that go through the normal extraction path (cache,
+ * coalescing, resilience) concurrently, and each chunk's new events are
+ * published as soon as they arrive. A small fixed pool bounds how many pages are worked on at once,
+ * and a bounded queue in front of it pushes back on callers when full.
+ */
+@Service
+public class ExtractionJobService {
+
+    private final ExtractionService extractionService;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService sweeper;
+    private final ExecutorService sends = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("orbit-job-sse-", 0).factory()); // one blocking SSE send per task
+    private final Map<String, ExtractionJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${orbit.extract.jobs.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    public ExtractionJobService(ExtractionService extractionService,
+            @Value("${orbit.extract.jobs.workers:4}") int workerCount,
+            @Value("${orbit.extract.jobs.queue-capacity:100}") int queueCapacity) {
+        this.extractionService = extractionService;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("orbit-job-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("orbit-job-sweeper").daemon().factory());
+        this.sweeper.scheduleWithFixedDelay(this::sweep, 30, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue a page for extraction and return its job right away. onFinish
+     * runs once the job is done, whether or not its chunks succeeded.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public ExtractionJob submit(String userId, ExtractionService.Page page, Runnable onFinish) {
+        ExtractionJob job = new ExtractionJob(UUID.randomUUID().toString(), userId, sends);
+        jobs.put(job.id(), job);
+        try {
+            workers.execute(() -> {
+                try {
+                    run(job, page);
+                } finally {
+                    onFinish.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw e;
+        }
+        return job;
+    }
+
+    /** The user's job with this id; other users' jobs are not found. */
+    public Optional<ExtractionJob> find(String userId, String id) {
+        return Optional.ofNullable(jobs.get(id)).filter(job -> job.owner().equals(userId));
+    }
+
+    public void subscribe(ExtractionJob job, SseEmitter emitter) {
+        job.subscribe(emitter);
+    }
+
+    private void run(ExtractionJob job, ExtractionService.Page page) {
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        try {
+            job.start(page.chunks().size());
+            for (int i = 0; i < page.chunks().size(); i++) {
+                int index = i;
+                pending.add(extractionService
+                        .extractAsync(job.owner(), page.chunk(i), ev -> job.eventsFound(index, List.of(ev)))
+                        .whenComplete((resp, error) -> {
+                            if (error != null) {
+                                System.err.println("Extraction job " + job.id() + " chunk " + index + " failed: "
+                                        + error.getMessage());
+                            }
+                            job.chunkDone(index, resp != null ? resp.detected : List.of());
+                        }));
+            }
+        } catch (RuntimeException e) {
+            // e.g. the batcher refusing work; the job still has to finish, or it is never swept
+            System.err.println("Extraction job " + job.id() + " failed: " + e.getMessage());
+        } finally {
+            // hold the worker until the page is done, so the pool bounds pages in flight
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]))
+                    .exceptionally(e -> null)
+                    .join();
+            job.finish();
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.expired(now, ttlSeconds * 1000));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        workers.shutdownNow();
+        sends.shutdownNow();
+    }
+}
@@ -0,0 +1,137 @@
+package com.orbit.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters for the extraction pipeline, exposed through /actuator/prometheus:
+ * upstream call and parse latency, end-to-end extraction latency by path,
+ * fallbacks by cause, and the confidence of what we hand back. All timers
+ * publish histogram buckets so percentiles can be aggregated across instances.
+ */
+@Component
+public class ExtractionMetrics {
+
+    // fallback causes
+    public static final String NO_KEY = "no_key";
+    public static final String HTTP_ERROR = "http_error";
+    public static final String TIMEOUT = "timeout";
+    public static final String CONCURRENCY_LIMIT = "concurrency_limit";
+    public static final String THROTTLED = "throttled";
+    public static final String RATE_LIMITED = "rate_limited";
+    public static final String CIRCUIT_OPEN = "circuit_open";
+    public static final String PARSE_ERROR = "parse_error";
+
+    private static final double[] CONFIDENCE_BUCKETS = {0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+
+    private final MeterRegistry registry;
+
+    public ExtractionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** One upstream HTTP call; outcome is "success" or a fallback cause. */
+    public void recordCall(String kind, String outcome, long nanos) {
+        Timer.builder("orbit.gemini.call")
+                .description("Gemini generateContent round trip")
+                .tag("kind", kind)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordParse(String kind, long nanos) {
+        Timer.builder("orbit.gemini.parse")
+                .description("Time spent turning a Gemini response into extractions")
+                .tag("kind", kind)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** End-to-end extraction latency; path is local, cache or gemini. */
+    public void recordExtraction(String path, long nanos) {
+        Timer.builder("orbit.extract.latency")
+                .description("End-to-end extraction latency, including cache and coalescing")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordHedge(String kind) {
+        Counter.builder("orbit.gemini.hedge")
+                .description("Hedged second attempts sent to Gemini")
+                .tag("kind", kind)
+                .register(registry)
+                .increment();
+    }
+
+    /** Breaker state (0 closed, 1 open, 0.5 half-open) and the adaptive request rate. */
+    public void watchUpstream(UpstreamGuard guard) {
+        Gauge.builder("orbit.gemini.breaker.state", guard, g -> switch (g.breakerState()) {
+                    case CLOSED -> 0.0;
+                    case HALF_OPEN -> 0.5;
+                    case OPEN -> 1.0;
+                })
+                .description("Gemini circuit breaker state")
+                .register(registry);
+        Gauge.builder("orbit.gemini.ratelimit.rate", guard, UpstreamGuard::currentRate)
+                .description("Current client-side Gemini request rate limit")
+                .baseUnit("requests/s")
+                .register(registry);
+    }
+
+    /** A field of a Gemini answer that failed validation and was corrected. */
+    public void recordInvalidField(String field) {
+        Counter.builder("orbit.gemini.invalid")
+                .description("Event fields in Gemini answers that failed validation")
+                .tag("field", field)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordFallback(String cause) {
+        Counter.builder("orbit.extract.fallback")
+                .description("Extractions answered by the local rules instead of Gemini")
+                .tag("cause", cause)
+                .register(registry)
+                .increment();
+    }
+
+    /** Estimated input tokens of one prompt (a page or one chunk of it) as received and as sent after compaction. */
+    public void recordPromptTokens(int raw, int sent) {
+        DistributionSummary.builder("orbit.extract.prompt.tokens")
+                .description("Estimated page tokens per extraction prompt")
+                .tag("stage", "raw")
+                .register(registry)
+                .record(raw);
+        DistributionSummary.builder("orbit.extract.prompt.tokens")
+                .description("Estimated page tokens per extraction prompt")
+                .tag("stage", "compacted")
+                .register(registry)
+                .record(sent);
+        DistributionSummary.builder("orbit.extract.prompt.tokens.saved")
+                .description("Estimated tokens removed from a prompt by compaction")
+                .register(registry)
+                .record(raw - sent);
+    }
+
+    /** source is gemini, fallback or local (local-first hits). */
+    public void recordConfidence(String source, double confidence) {
+        DistributionSummary.builder("orbit.extract.confidence")
+                .description("Confidence of produced extractions")
+                .tag("source", source)
+                .serviceLevelObjectives(CONFIDENCE_BUCKETS)
+                .register(registry)
+                .record(confidence);
+    }
+}
@@ -1,34 +1,349 @@
 package com.orbit.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.orbit.dto.ExtractRequest;
 import com.orbit.dto.ExtractResponse;
 import com.orbit.dto.ExtractedEvent;
+import com.orbit.entity.Event;
+import com.orbit.repository.EventRepository;
 import com.orbit.service.GeminiService.EventExtraction;
 
 @Service
 public class ExtractionService {
 
-    private final GeminiService geminiService;
+    private final ExtractionCache cache;
+    private final ExtractionBatcher batcher;
+    private final LocalEventExtractor localExtractor;
+    private final ExtractionMetrics metrics;
+    private final DocumentChunker chunker;
+    private final PromptCompactor compactor;
+    private final EventSimilarityIndex duplicates;
+    private final EventRepository events;
 
-    public ExtractionService(GeminiService geminiService) {
-        this.geminiService = geminiService;
+    @Value("${orbit.extract.local-first.enabled:false}")
+    private boolean localFirst;
+
+    @Value("${orbit.extract.local-first.min-score:0.85}")
+    private double localFirstMinScore;
+
+    @Value("${orbit.dedupe.skip-llm.enabled:false}")
+    private boolean skipDuplicates;
+
+    @Value("${orbit.dedupe.skip-llm.min-score:0.8}")
+    private double skipDuplicatesMinScore;
+
+    public ExtractionService(ExtractionCache cache, ExtractionBatcher batcher, LocalEventExtractor localExtractor,
+            ExtractionMetrics metrics, DocumentChunker chunker, PromptCompactor compactor,
+            EventSimilarityIndex duplicates, EventRepository events) {
+        this.cache = cache;
+        this.batcher = batcher;
+        this.localExtractor = localExtractor;
+        this.metrics = metrics;
+        this.chunker = chunker;
+        this.compactor = compactor;
+        this.duplicates = duplicates;
+        this.events = events;
+    }
+
+    /**
+     * A page cleaned up and split into the chunks that are sent as separate
+     * prompts; each chunk is cut to the prompt token budget only when it is
+     * sent. {@code rawTokens} is the page's size as received.
+     */
+    public record Page(String url, String title, List<String> chunks, int rawTokens) {
+
+        /** Chunk {@code index} as a page of its own, with its share of the raw tokens. */
+        public Page chunk(int index) {
+            String text = chunks.get(index);
+            int total = chunks.stream().mapToInt(String::length).sum();
+            int share = total == 0 ? rawTokens : (int) Math.round((double) rawTokens * text.length() / total);
+            return new Page(url, title, List.of(text), share);
+        }
+    }
+
+    public ExtractResponse extractFromSnippet(String userId, ExtractRequest req) {
+        return extractAsync(userId, req).join();
+    }
+
+    /** Non-blocking variant of {@link #extractFromSnippet}, with nothing streamed. */
+    public CompletableFuture<ExtractResponse> extractAsync(String userId, ExtractRequest req) {
+        return extractAsync(userId, prepare(req), null);
+    }
+
+    /**
+     * Markup and boilerplate removed and the text split into chunks, but not
+     * yet cut to the token budget, so events past the budget on long pages
+     * still reach Gemini in a later chunk. Callers charge quota by the number
+     * of chunks and pass the page on to {@link #extractAsync(String, Page, Consumer)}.
+     */
+    public Page prepare(ExtractRequest req) {
+        String raw = req.snippet() != null ? req.snippet() : "";
+        return new Page(
+                req.url() != null ? req.url() : "",
+                req.title() != null ? req.title() : "",
+                chunker.split(compactor.clean(raw)),
+                compactor.tokens(raw));
+    }
+
+    /**
+     * Cache hits complete immediately, misses complete on the Gemini executor
+     * once the (possibly coalesced) upstream call returns. A page of several
+     * chunks has them extracted in parallel and merged back into one
+     * deduplicated list.
+     * Events are checked against the user's stored events for duplicates.
+     * <p>
+     * For callers that show results as they come in, onEvent receives each
+     * kept event of a Gemini answer before the whole answer is in, when
+     * streaming is on. Chunked pages and answers from stored events, local
+     * rules or the cache are not streamed; every event is in the response
+     * either way. A null onEvent leaves the request free to share a batched
+     * prompt with others.
+     */
+    public CompletableFuture<ExtractResponse> extractAsync(String userId, Page page,
+            Consumer<ExtractedEvent> onEvent) {
+        if (page.chunks().size() > 1) {
+            return extractChunked(userId, page);
+        }
+
+        ExtractRequest normalized = prompt(page);
+        long start = System.nanoTime();
+        List<EventExtraction> stored = duplicateHit(userId, normalized);
+        if (stored != null) {
+            metrics.recordExtraction("duplicate", System.nanoTime() - start);
+            return CompletableFuture.completedFuture(toResponse(userId, stored));
+        }
+        List<EventExtraction> local = localHit(normalized);
+        if (local != null) {
+            metrics.recordExtraction("local", System.nanoTime() - start);
+            return CompletableFuture.completedFuture(toResponse(userId, local));
+        }
+        String key = cacheKey(normalized);
+        List<EventExtraction> cached = cache.get(key).orElse(null);
+        if (cached != null) {
+            metrics.recordExtraction("cache", System.nanoTime() - start);
+            return CompletableFuture.completedFuture(toResponse(userId, cached));
+        }
+        if (onEvent == null) {
+            // Concurrent single requests are coalesced into one Gemini prompt
+            return batcher.submit(normalized).thenApply(extractions -> {
+                remember(key, extractions);
+                metrics.recordExtraction("gemini", System.nanoTime() - start);
+                return toResponse(userId, extractions);
+            });
+        }
+        // streamed events are converted and flagged once, then reused for the response
+        Map<EventExtraction, ExtractedEvent> streamed = Collections.synchronizedMap(new IdentityHashMap<>());
+        return batcher.submit(normalized, extraction -> {
+            ExtractedEvent ev = toEvent(userId, extraction);
+            streamed.put(extraction, ev);
+            if (ev != null) {
+                onEvent.accept(ev);
+            }
+        }).thenApply(extractions -> {
+            remember(key, extractions);
+            metrics.recordExtraction("gemini", System.nanoTime() - start);
+            return toResponse(userId, extractions, streamed);
+        });
+    }
+
+    private CompletableFuture<ExtractResponse> extractChunked(String userId, Page page) {
+        List<ExtractRequest> parts = new ArrayList<>(page.chunks().size());
+        for (int i = 0; i < page.chunks().size(); i++) {
+            parts.add(prompt(page.chunk(i)));
+        }
+        // the chunks share one batch pass: cached ones are reused, the rest fan out over the batcher
+        return extractBatch(userId, parts).thenApply(responses -> {
+            List<ExtractedEvent> all = new ArrayList<>();
+            for (ExtractResponse resp : responses) {
+                all.addAll(resp.detected);
+            }
+            ExtractResponse merged = new ExtractResponse();
+            merged.detected = EventMerger.merge(all);
+            return merged;
+        });
+    }
+
+    public CompletableFuture<List<ExtractResponse>> extractBatchAsync(String userId, List<ExtractRequest> reqs) {
+        return extractBatch(userId, reqs.stream().map(this::prepareBatchItem).toList());
     }
 
-    public ExtractResponse extractFromSnippet(ExtractRequest req) {
+    private CompletableFuture<List<ExtractResponse>> extractBatch(String userId, List<ExtractRequest> reqs) {
+        List<CompletableFuture<ExtractResponse>> results = new ArrayList<>(reqs.size());
+        List<ExtractRequest> misses = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < reqs.size(); i++) {
+            ExtractRequest normalized = reqs.get(i);
+            List<EventExtraction> ready = duplicateHit(userId, normalized);
+            if (ready == null) {
+                ready = localHit(normalized);
+            }
+            if (ready == null) {
+                ready = cache.get(cacheKey(normalized)).orElse(null);
+            }
+            if (ready != null) {
+                results.add(CompletableFuture.completedFuture(toResponse(userId, ready)));
+            } else {
+                results.add(null);
+                misses.add(normalized);
+                missIndexes.add(i);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            List<CompletableFuture<List<EventExtraction>>> futures = batcher.submitAll(misses);
+            for (int i = 0; i < futures.size(); i++) {
+                String key = cacheKey(misses.get(i));
+                results.set(missIndexes.get(i), futures.get(i).thenApply(extractions -> {
+                    remember(key, extractions);
+                    return toResponse(userId, extractions);
+                }));
+            }
+        }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * An explicit date and time found by the local rules is good enough to
+     * skip Gemini entirely, when local-first mode is on. Pages without a time
+     * or with more than one date go to Gemini, since one local extraction
+     * would drop all but one of their events.
+     */
+    private List<EventExtraction> localHit(ExtractRequest req) {
+        if (!localFirst) {
+            return null;
+        }
+        LocalEventExtractor.Result result = localExtractor.analyze(req.snippet());
+        if (!result.singleEvent() || result.score() < localFirstMinScore) {
+            return null;
+        }
+        EventExtraction extraction = localExtractor.toExtraction(result, req.snippet(), req.title());
+        extraction.url = req.url();
+        metrics.recordConfidence("local", extraction.confidence);
+        return List.of(extraction);
+    }
+
+    /**
+     * A page that the local rules read as a single event and that closely
+     * matches an already stored event is answered with that event, without
+     * asking Gemini, when duplicate skipping is on. Re-captures of the same
+     * announcement from another page are the common case. The stored title
+     * is compared with the page title and the stored snippet with the passage
+     * around the date, so this mostly fires for pages titled after their
+     * event, like a forum thread or an email subject.
+     */
+    private List<EventExtraction> duplicateHit(String userId, ExtractRequest req) {
+        if (!skipDuplicates || req.snippet().isEmpty()) {
+            return null;
+        }
+        LocalEventExtractor.Result result = localExtractor.analyze(req.snippet());
+        if (!result.singleEvent()) {
+            return null; // answering with one stored event would drop the page's others
+        }
+        EventSimilarityIndex.Match match = duplicates.findDuplicate(userId, req.title(),
+                result.bestDate().date().toString(), passage(req.snippet(), result.bestDate().position()));
+        if (match == null || match.similarity() < skipDuplicatesMinScore) {
+            return null;
+        }
+        Event stored = events.findByIdAndUserId(match.eventId(), userId).orElse(null);
+        if (stored == null) {
+            return null; // deleted since it was indexed, or never the user's
+        }
+        EventExtraction extraction = new EventExtraction();
+        extraction.title = stored.getTitle();
+        extraction.date = stored.getDate();
+        extraction.time = stored.getTime();
+        extraction.tag = stored.getTag();
+        extraction.confidence = stored.getConfidence() != null ? stored.getConfidence() : match.similarity();
+        extraction.sourceSnippet = stored.getSourceSnippet();
+        extraction.url = req.url();
+        return List.of(extraction);
+    }
+
+    // stored snippets quote the event, which is rarely where the page starts
+    private static String passage(String text, int position) {
+        int start = text.lastIndexOf("\n\n", position);
+        int end = text.indexOf("\n\n", position);
+        return text.substring(start < 0 ? 0 : start + 2, end < 0 ? text.length() : end);
+    }
+
+    private void flagDuplicate(String userId, ExtractedEvent ev) {
+        EventSimilarityIndex.Match match = duplicates.findDuplicate(userId, ev.title, ev.date, ev.source_snippet);
+        if (match != null) {
+            ev.duplicate_of = match.eventId();
+            ev.duplicate_score = match.similarity();
+        }
+    }
+
+    private void remember(String key, List<EventExtraction> extractions) {
+        // Fallbacks are cheap and usually transient (quota, timeouts), so don't pin them
+        if (extractions.stream().noneMatch(e -> e.fallback)) {
+            cache.put(key, extractions);
+        }
+    }
+
+    /** Missing fields filled in and the page text compacted, recording the tokens that saves. */
+    private ExtractRequest prepareBatchItem(ExtractRequest req) {
+        PromptCompactor.Compacted page = compactor.compact(req.snippet());
+        metrics.recordPromptTokens(page.rawTokens(), page.tokens());
+        return new ExtractRequest(
+                req.url() != null ? req.url() : "",
+                req.title() != null ? req.title() : "",
+                page.text());
+    }
+
+    /** A one-chunk page cut to the token budget, recording its tokens as one prompt. */
+    private ExtractRequest prompt(Page page) {
+        PromptCompactor.Compacted text = compactor.budget(page.chunks().get(0), page.rawTokens());
+        metrics.recordPromptTokens(text.rawTokens(), text.tokens());
+        return new ExtractRequest(page.url(), page.title(), text.text());
+    }
+
+    private static String cacheKey(ExtractRequest req) {
+        return ExtractionCache.keyFor(req.snippet(), req.title(), req.url());
+    }
+
+    private ExtractResponse toResponse(String userId, List<EventExtraction> extractions) {
+        return toResponse(userId, extractions, Map.of());
+    }
+
+    private ExtractResponse toResponse(String userId, List<EventExtraction> extractions,
+            Map<EventExtraction, ExtractedEvent> converted) {
         ExtractResponse resp = new ExtractResponse();
         resp.detected = new ArrayList<>();
+        for (EventExtraction extraction : extractions) {
+            ExtractedEvent ev = converted.containsKey(extraction)
+                    ? converted.get(extraction)
+                    : toEvent(userId, extraction);
+            if (ev != null) {
+                resp.detected.add(ev);
+            }
+        }
+        return resp;
+    }
 
-        // Use Gemini AI to extract event information
-        EventExtraction extraction = geminiService.extractEventInfo(
-                req.snippet() != null ? req.snippet() : "",
-                req.title() != null ? req.title() : "",
-                req.url() != null ? req.url() : "");
+    /** The event to show for an extraction, flagged when it duplicates a stored one; null when it is not kept. */
+    private ExtractedEvent toEvent(String userId, EventExtraction extraction) {
+        ExtractedEvent ev = toEvent(extraction);
+        if (!keep(ev)) {
+            return null;
+        }
+        flagDuplicate(userId, ev);
+        return ev;
+    }
 
-        // Convert to ExtractedEvent
+    private static ExtractedEvent toEvent(EventExtraction extraction) {
         ExtractedEvent ev = new ExtractedEvent();
         ev.title = extraction.title;
         ev.date = extraction.date;
@@ -39,12 +354,11 @@ public class ExtractionService {
                 ? extraction.sourceSnippet.substring(0, 240)
                 : extraction.sourceSnippet;
         ev.url = extraction.url;
+        return ev;
+    }
 
-        // Only add if we have some confidence or a date
-        if (ev.confidence > 0.3 || ev.date != null) {
-            resp.detected.add(ev);
-        }
-
-        return resp;
+    // Only keep events with some confidence or a date
+    private static boolean keep(ExtractedEvent ev) {
+        return ev.confidence > 0.3 || ev.date != null;
     }
 }
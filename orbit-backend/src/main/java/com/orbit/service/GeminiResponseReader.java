@@ -0,0 +1,258 @@
+package com.orbit.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Token-level reader for Gemini responses. The envelope is walked straight
+ * off the response stream to {@code candidates[0].content.parts[].text},
+ * without building a tree or holding the body as a string. A
+ * streamGenerateContent body (a JSON array of partial responses) is read the
+ * same way, one element at a time as it arrives.
+ */
+class GeminiResponseReader {
+
+    private final JsonFactory factory;
+
+    GeminiResponseReader(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /** Receives text in place; the array is only valid for the duration of the call. */
+    interface TextSink {
+        void accept(char[] text, int offset, int length) throws IOException;
+    }
+
+    /** Passes every candidate text fragment in the body to the sink, in order. */
+    void readText(InputStream body, TextSink text) throws IOException {
+        try (JsonParser p = factory.createParser(body)) {
+            JsonToken t = p.nextToken();
+            if (t == JsonToken.START_ARRAY) {
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    readResponse(p, text);
+                }
+            } else if (t == JsonToken.START_OBJECT) {
+                readResponse(p, text);
+            }
+        }
+    }
+
+    // positioned on the START_OBJECT of a GenerateContentResponse; leaves the parser on its END_OBJECT
+    private static void readResponse(JsonParser p, TextSink text) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("candidates".equals(name) && value == JsonToken.START_ARRAY) {
+                if (p.nextToken() == JsonToken.START_OBJECT) {
+                    readCandidate(p, text);
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        p.skipChildren(); // other candidates
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    private static void readCandidate(JsonParser p, TextSink text) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("content".equals(name) && value == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken fieldValue = p.nextToken();
+                    if ("parts".equals(field) && fieldValue == JsonToken.START_ARRAY) {
+                        while (p.nextToken() == JsonToken.START_OBJECT) {
+                            readPart(p, text);
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    private static void readPart(JsonParser p, TextSink text) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("text".equals(name) && value == JsonToken.VALUE_STRING) {
+                text.accept(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Parser over a complete answer, positioned just before its first JSON
+     * token so leading prose or a markdown fence is skipped; null if the text
+     * holds no JSON.
+     */
+    JsonParser answerParser(char[] text, int offset, int length) throws IOException {
+        int from = jsonStart(text, offset, length);
+        return from < 0 ? null : factory.createParser(text, from, offset + length - from);
+    }
+
+    /** Parser over an answer generated in JSON mode, which is the JSON value and nothing else. */
+    JsonParser strictAnswerParser(char[] text, int offset, int length) throws IOException {
+        return factory.createParser(text, offset, length);
+    }
+
+    Answer answer() throws IOException {
+        return new Answer(factory.createNonBlockingByteArrayParser());
+    }
+
+    private static int jsonStart(char[] text, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (text[i] == '[' || text[i] == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Incremental parser for a streamed answer, fed text as the model
+     * produces it. Prose or a markdown fence before the JSON is skipped, as is
+     * anything after it. Each element of a top-level array is handed back as
+     * soon as it closes; a top-level object is handed back whole.
+     */
+    static class Answer {
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private boolean started;
+        private boolean done;
+        private boolean rootArray;
+        private int depth;
+        private TokenBuffer current;
+        // reused for every fragment: the parser has consumed all of it once drain() returns
+        private byte[] input = new byte[256];
+        private char pendingHighSurrogate;
+
+        private Answer(JsonParser parser) {
+            this.parser = parser;
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        boolean isArray() {
+            return rootArray;
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        /** Values completed by this fragment, empty if none. */
+        List<TokenBuffer> feed(char[] text, int offset, int length) throws IOException {
+            if (done || length == 0) {
+                return List.of();
+            }
+            int from = offset;
+            if (!started) {
+                from = jsonStart(text, offset, length);
+                if (from < 0) {
+                    return List.of();
+                }
+                started = true;
+            }
+            int n = encode(text, from, offset + length);
+            if (n == 0) {
+                return List.of();
+            }
+            feeder.feedInput(input, 0, n);
+            return drain();
+        }
+
+        // UTF-8 without an intermediate String; a surrogate pair split across fragments is joined up
+        private int encode(char[] text, int from, int to) {
+            int need = (to - from) * 3 + 4;
+            if (input.length < need) {
+                input = new byte[Math.max(need, input.length * 2)];
+            }
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                char c = text[i];
+                if (pendingHighSurrogate != 0) {
+                    int cp = Character.isLowSurrogate(c) ? Character.toCodePoint(pendingHighSurrogate, c) : '?';
+                    pendingHighSurrogate = 0;
+                    if (cp != '?') {
+                        input[n++] = (byte) (0xF0 | (cp >> 18));
+                        input[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                        input[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                        input[n++] = (byte) (0x80 | (cp & 0x3F));
+                        continue;
+                    }
+                    input[n++] = '?';
+                }
+                if (c < 0x80) {
+                    input[n++] = (byte) c;
+                } else if (c < 0x800) {
+                    input[n++] = (byte) (0xC0 | (c >> 6));
+                    input[n++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c)) {
+                    pendingHighSurrogate = c;
+                } else {
+                    input[n++] = (byte) (0xE0 | (c >> 12));
+                    input[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    input[n++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return n;
+        }
+
+        private List<TokenBuffer> drain() throws IOException {
+            List<TokenBuffer> completed = new ArrayList<>();
+            JsonToken t;
+            while (!done && (t = parser.nextToken()) != JsonToken.NOT_AVAILABLE && t != null) {
+                if (depth == 0) {
+                    if (t == JsonToken.START_ARRAY) {
+                        rootArray = true;
+                    } else if (t == JsonToken.START_OBJECT) {
+                        current = new TokenBuffer(parser);
+                        current.copyCurrentEvent(parser);
+                    } else {
+                        done = true; // a bare scalar is not an answer
+                        break;
+                    }
+                    depth = 1;
+                    continue;
+                }
+                if (rootArray && depth == 1) {
+                    if (t == JsonToken.END_ARRAY) {
+                        depth = 0;
+                        done = true;
+                    } else if (t.isStructStart()) {
+                        current = new TokenBuffer(parser);
+                        current.copyCurrentEvent(parser);
+                        depth++;
+                    }
+                    continue; // scalars between elements are ignored
+                }
+                current.copyCurrentEvent(parser);
+                if (t.isStructStart()) {
+                    depth++;
+                } else if (t.isStructEnd() && --depth == (rootArray ? 1 : 0)) {
+                    completed.add(current);
+                    current = null;
+                    done = !rootArray;
+                }
+            }
+            return completed;
+        }
+    }
+}
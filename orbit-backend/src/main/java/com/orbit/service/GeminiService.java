@@ -1,20 +1,97 @@
 package com.orbit.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.orbit.dto.ExtractRequest;
+import com.orbit.service.UpstreamGuard.Admission;
 
 @Service
 public class GeminiService {
 
+    /** Bump whenever buildPrompt changes so cached extractions are not reused. */
+    public static final String PROMPT_VERSION = "v3";
+
+    private static final String EVENT_FIELDS =
+            "Each event object has these fields: title (a clear, concise event title), " +
+                    "date (YYYY-MM-DD format if found, or null), time (HH:MM format if found, or null), " +
+                    "tag (one of: Educational, Personal, Event, Work), " +
+                    "description (a brief description of the event, max 200 characters), " +
+                    "confidence (0.0 to 1.0 based on how certain you are this is an event). ";
+
+    private static final List<String> TAGS = List.of("Educational", "Personal", "Event", "Work");
+
+    // JSON mode contract: only the fields we keep, in the order we bind them; no description
+    private static final Map<String, Object> EVENT_SCHEMA = Map.of(
+            "type", "OBJECT",
+            "properties", Map.of(
+                    "title", Map.of("type", "STRING", "description", "Clear, concise event title"),
+                    "date", Map.of("type", "STRING", "nullable", true, "description", "YYYY-MM-DD, null if unknown"),
+                    "time", Map.of("type", "STRING", "nullable", true, "description", "24-hour HH:MM, null if unknown"),
+                    "tag", Map.of("type", "STRING", "enum", TAGS),
+                    "confidence", Map.of("type", "NUMBER", "description", "0.0 to 1.0, how certain this is an event")),
+            "required", List.of("title", "date", "time", "tag", "confidence"),
+            "propertyOrdering", List.of("title", "date", "time", "tag", "confidence"));
+    private static final Map<String, Object> EVENTS_SCHEMA = Map.of("type", "ARRAY", "items", EVENT_SCHEMA);
+    private static final Map<String, Object> BATCH_SCHEMA = Map.of(
+            "type", "ARRAY",
+            "items", Map.of(
+                    "type", "OBJECT",
+                    "properties", Map.of("index", Map.of("type", "INTEGER"), "events", EVENTS_SCHEMA),
+                    "required", List.of("index", "events"),
+                    "propertyOrdering", List.of("index", "events")));
+
+    private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final Pattern CLOCK_TIME = Pattern.compile("([01]?\\d|2[0-3]):([0-5]\\d)");
+
+    // google.rpc.RetryInfo in 429 bodies, e.g. "retryDelay": "27s"
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+(?:\\.\\d+)?)s\"");
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
+    private final GeminiResponseReader responseReader;
+    private final LocalEventExtractor localExtractor;
+    private final ExtractionMetrics metrics;
+    private final UpstreamGuard guard;
+    private final ExecutorService executor;
 
     @Value("${gemini.api.key:}")
     private String apiKey;
@@ -22,44 +99,171 @@ public class GeminiService {
     @Value("${gemini.api.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash:generateContent}")
     private String apiUrl;
 
-    public GeminiService() {
-        this.restTemplate = new RestTemplate();
+    // how long a call may wait for a rate permit and in-flight slot before falling back
+    @Value("${gemini.http.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    // single extractions use streamGenerateContent and parse events as they are generated
+    @Value("${gemini.stream.enabled:false}")
+    private boolean streamEnabled;
+
+    // JSON mode: the answer is constrained to the response schema and generated at temperature 0
+    @Value("${gemini.structured-output.enabled:true}")
+    private boolean structuredOutput;
+
+    // send a second identical request if the first has not answered by then; 0 disables hedging
+    @Value("${gemini.hedge.delay-ms:0}")
+    private long hedgeDelayMs;
+
+    public GeminiService(RestTemplate geminiRestTemplate, LocalEventExtractor localExtractor, ExtractionMetrics metrics,
+            UpstreamGuard geminiUpstreamGuard, @Qualifier("geminiExecutor") ExecutorService executor) {
+        this.restTemplate = geminiRestTemplate;
         this.objectMapper = new ObjectMapper();
+        this.eventReader = objectMapper.readerFor(EventExtraction.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.responseReader = new GeminiResponseReader(objectMapper.getFactory());
+        this.localExtractor = localExtractor;
+        this.metrics = metrics;
+        this.guard = geminiUpstreamGuard;
+        this.executor = executor;
+        metrics.watchUpstream(geminiUpstreamGuard);
     }
 
     /**
-     * Extract event information from text using Gemini AI
+     * Extract every event mentioned in the text using Gemini AI. Falls back to
+     * a single basic extraction when Gemini is unavailable.
      */
-    public EventExtraction extractEventInfo(String snippet, String title, String url) {
+    public List<EventExtraction> extractEvents(String snippet, String title, String url) {
+        return extractEvents(snippet, title, url, extraction -> {});
+    }
+
+    /**
+     * Like {@link #extractEvents(String, String, String)}, handing each event
+     * to onEvent as soon as it is parsed. With streaming enabled that is while
+     * the model is still generating the rest of the answer. Fallbacks are only
+     * returned, never passed to onEvent.
+     */
+    public List<EventExtraction> extractEvents(String snippet, String title, String url,
+            Consumer<EventExtraction> onEvent) {
         if (apiKey == null || apiKey.isEmpty()) {
             // Fallback to basic extraction if API key not configured
-            return extractBasicInfo(snippet, title);
+            return List.of(extractBasicInfo(snippet, title, ExtractionMetrics.NO_KEY));
         }
 
         try {
             String prompt = buildPrompt(snippet, title, url);
-            String response = callGeminiAPI(prompt);
-            return parseGeminiResponse(response, snippet, title, url);
+            List<EventExtraction> extractions;
+            if (streamEnabled) {
+                extractions = callGeminiAPI(prompt, 2048, "stream", true, structuredOutput ? EVENTS_SCHEMA : null,
+                        response -> parseGeminiResponse(response.getBody(), snippet, title, url, "stream", onEvent));
+            } else {
+                extractions = callGeminiAPI(prompt, 2048, "single", false, structuredOutput ? EVENTS_SCHEMA : null,
+                        response -> parseGeminiResponse(response.getBody(), snippet, title, url, "single", e -> {}));
+                if (extractions != null) {
+                    extractions.forEach(onEvent);
+                }
+            }
+            if (extractions == null) {
+                return List.of(extractBasicInfo(snippet, title, ExtractionMetrics.PARSE_ERROR));
+            }
+            extractions.forEach(e -> metrics.recordConfidence("gemini", e.confidence));
+            return extractions;
         } catch (Exception e) {
             System.err.println("Gemini API error: " + e.getMessage());
             // Fallback to basic extraction
-            return extractBasicInfo(snippet, title);
+            return List.of(extractBasicInfo(snippet, title, fallbackCause(e)));
+        }
+    }
+
+    public boolean isStreamEnabled() {
+        return streamEnabled;
+    }
+
+    /**
+     * Extract several snippets with a single Gemini call. Results are returned
+     * in input order; items the model skipped fall back to basic extraction.
+     */
+    public List<List<EventExtraction>> extractEventsBatch(List<ExtractRequest> items) {
+        if (items.size() == 1) {
+            ExtractRequest only = items.get(0);
+            return List.of(extractEvents(only.snippet(), only.title(), only.url()));
+        }
+
+        List<List<EventExtraction>> results = null;
+        // items the model left out of an otherwise good response count as parse errors
+        String cause = ExtractionMetrics.NO_KEY;
+        if (apiKey != null && !apiKey.isEmpty()) {
+            try {
+                String prompt = buildBatchPrompt(items);
+                results = callGeminiAPI(prompt, Math.min(8192, 1024 * items.size()), "batch", false,
+                        structuredOutput ? BATCH_SCHEMA : null, response -> parseGeminiBatchResponse(response.getBody(), items));
+                cause = ExtractionMetrics.PARSE_ERROR;
+            } catch (Exception e) {
+                System.err.println("Gemini API batch error: " + e.getMessage());
+                cause = fallbackCause(e);
+            }
         }
+
+        List<List<EventExtraction>> extractions = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            List<EventExtraction> parsed = results != null ? results.get(i) : null;
+            if (parsed != null) {
+                parsed.forEach(e -> metrics.recordConfidence("gemini", e.confidence));
+                extractions.add(parsed);
+            } else {
+                ExtractRequest item = items.get(i);
+                extractions.add(List.of(extractBasicInfo(item.snippet(), item.title(), cause)));
+            }
+        }
+        return extractions;
     }
 
     private String buildPrompt(String snippet, String title, String url) {
+        if (structuredOutput) {
+            // the schema carries the field rules, so the prompt only says what to look for
+            return String.format(
+                    "Extract every event mentioned in the following text (deadlines, exams, meetings, sessions...), " +
+                            "one array element per distinct event.\n\nTitle: %s\nURL: %s\nContent: %s",
+                    title, url != null ? url : "N/A", snippet);
+        }
         return String.format(
-                "Extract event information from the following text. Return a JSON object with these fields: " +
-                        "title (a clear, concise event title), date (YYYY-MM-DD format if found, or null), " +
-                        "time (HH:MM format if found, or null), tag (one of: Educational, Personal, Event, Work), " +
-                        "description (a brief description of the event, max 200 characters), " +
-                        "confidence (0.0 to 1.0 based on how certain you are this is an event). " +
+                "Extract every event mentioned in the following text (deadlines, exams, meetings, sessions...). " +
+                        "Return a JSON array with one object per distinct event, or an empty array if there is none. " +
+                        EVENT_FIELDS +
                         "Text to analyze:\n\nTitle: %s\nURL: %s\nContent: %s\n\n" +
-                        "Return ONLY valid JSON, no markdown, no code blocks, just the JSON object.",
+                        "Return ONLY a valid JSON array, no markdown, no code blocks.",
                 title, url != null ? url : "N/A", snippet);
     }
 
-    private String callGeminiAPI(String prompt) {
+    private String buildBatchPrompt(List<ExtractRequest> items) {
+        StringBuilder sb = new StringBuilder(structuredOutput
+                ? "Extract every event mentioned in each of the following numbered items, one array element " +
+                        "per item with the item number as index and one event per distinct event in that item.\n"
+                : "Extract every event mentioned in each of the following numbered items. Return a JSON array " +
+                        "with exactly one object per item, with fields index (the item number) and events " +
+                        "(an array with one object per distinct event in that item, possibly empty). " +
+                        EVENT_FIELDS +
+                        "Items to analyze:\n");
+        for (int i = 0; i < items.size(); i++) {
+            ExtractRequest item = items.get(i);
+            sb.append("\n[").append(i).append("]\n")
+                    .append("Title: ").append(item.title()).append('\n')
+                    .append("URL: ").append(item.url() != null && !item.url().isEmpty() ? item.url() : "N/A").append('\n')
+                    .append("Content: ").append(item.snippet()).append('\n');
+        }
+        if (!structuredOutput) {
+            sb.append("\nReturn ONLY a valid JSON array, no markdown, no code blocks.");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * One admitted call. The extractor parses the body while it is read, so
+     * a streamed answer is consumed as the model produces it. With a schema
+     * the call runs in JSON mode with deterministic sampling.
+     */
+    private <T> T callGeminiAPI(String prompt, int maxOutputTokens, String kind, boolean stream,
+            Map<String, Object> responseSchema, ResponseExtractor<T> extractor) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
@@ -72,109 +276,442 @@ public class GeminiService {
 
         // Add generation config for better results
         Map<String, Object> generationConfig = new HashMap<>();
-        generationConfig.put("temperature", 0.7);
-        generationConfig.put("topK", 40);
-        generationConfig.put("topP", 0.95);
-        generationConfig.put("maxOutputTokens", 1024);
+        if (responseSchema != null) {
+            generationConfig.put("temperature", 0.0);
+            generationConfig.put("responseMimeType", "application/json");
+            generationConfig.put("responseSchema", responseSchema);
+        } else {
+            generationConfig.put("temperature", 0.7);
+            generationConfig.put("topK", 40);
+            generationConfig.put("topP", 0.95);
+        }
+        generationConfig.put("maxOutputTokens", maxOutputTokens);
         requestBody.put("generationConfig", generationConfig);
 
-        String url = apiUrl + "?key=" + apiKey;
+        String endpoint = stream ? apiUrl.replace(":generateContent", ":streamGenerateContent") : apiUrl;
+        String url = endpoint + "?key=" + apiKey;
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.POST, entity, String.class);
+        admit(acquireTimeoutMs);
+        // streamed events are handed out as they arrive, a hedge would hand them out twice
+        if (stream || hedgeDelayMs <= 0) {
+            return exchange(url, entity, kind, extractor);
+        }
+        return exchangeHedged(url, entity, kind, extractor);
+    }
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                return response.getBody();
-            } else {
-                throw new RuntimeException("Gemini API returned status: " + response.getStatusCode() +
-                        ", body: " + response.getBody());
+    private void admit(long maxWaitMs) {
+        Admission admission;
+        try {
+            admission = guard.admit(maxWaitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeminiCallException(ExtractionMetrics.CONCURRENCY_LIMIT,
+                    "Interrupted waiting for Gemini API slot", e);
+        }
+        switch (admission) {
+            case CIRCUIT_OPEN -> throw new GeminiCallException(ExtractionMetrics.CIRCUIT_OPEN,
+                    "Gemini API circuit open", null);
+            case RATE_LIMITED -> throw new GeminiCallException(ExtractionMetrics.RATE_LIMITED,
+                    "Gemini API client-side rate limit reached", null);
+            case CONCURRENCY_LIMIT -> throw new GeminiCallException(ExtractionMetrics.CONCURRENCY_LIMIT,
+                    "Gemini API concurrency limit reached", null);
+            case ADMITTED -> {
             }
+        }
+    }
+
+    /**
+     * Tail-latency hedge: if the first attempt is still running after the
+     * hedge delay, a second one goes out (only if the guard admits it without
+     * waiting) and whichever succeeds first wins.
+     */
+    private <T> T exchangeHedged(String url, HttpEntity<Map<String, Object>> entity, String kind,
+            ResponseExtractor<T> extractor) {
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(
+                () -> exchange(url, entity, kind, extractor), executor);
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // slow, hedge below
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeminiCallException(ExtractionMetrics.HTTP_ERROR, "Interrupted waiting for Gemini API", e);
+        }
+
+        try {
+            admit(0);
+        } catch (GeminiCallException e) {
+            return join(primary); // no budget for a hedge, keep waiting
+        }
+        metrics.recordHedge(kind);
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync(() -> exchange(url, entity, kind, extractor), executor);
+
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        for (CompletableFuture<T> attempt : List.of(primary, hedge)) {
+            attempt.whenComplete((body, error) -> {
+                if (error == null) {
+                    first.complete(body);
+                } else if (pending.decrementAndGet() == 0) {
+                    first.completeExceptionally(error);
+                }
+            });
+        }
+        return join(first);
+    }
+
+    // one admitted HTTP attempt; always reports its outcome to the guard
+    private <T> T exchange(String url, HttpEntity<Map<String, Object>> entity, String kind,
+            ResponseExtractor<T> extractor) {
+        long start = System.nanoTime();
+        String outcome = ExtractionMetrics.HTTP_ERROR;
+        try {
+            T result = restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(entity), response -> {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    throw new GeminiCallException(ExtractionMetrics.HTTP_ERROR,
+                            "Gemini API returned status: " + response.getStatusCode(), null);
+                }
+                return extractor.extractData(response);
+            });
+            outcome = "success";
+            guard.onSuccess();
+            return result;
         } catch (org.springframework.web.client.HttpClientErrorException e) {
             System.err.println("Gemini API HTTP error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString());
-            throw new RuntimeException("Gemini API error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(),
-                    e);
+            if (e.getStatusCode().value() == 429) {
+                outcome = ExtractionMetrics.THROTTLED;
+                guard.onThrottled(retryAfterMillis(e));
+            } else {
+                guard.onFailure();
+            }
+            throw new GeminiCallException(outcome,
+                    "Gemini API error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
         } catch (org.springframework.web.client.RestClientException e) {
             System.err.println("Gemini API request error: " + e.getMessage());
-            throw new RuntimeException("Gemini API request failed: " + e.getMessage(), e);
+            if (e.getMostSpecificCause() instanceof SocketTimeoutException) {
+                outcome = ExtractionMetrics.TIMEOUT;
+            }
+            guard.onFailure();
+            throw new GeminiCallException(outcome, "Gemini API request failed: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            guard.onFailure(); // unexpected status or client bug, still counts against the upstream
+            throw e;
+        } finally {
+            metrics.recordCall(kind, outcome, System.nanoTime() - start);
         }
     }
 
-    private EventExtraction parseGeminiResponse(String response, String snippet, String title, String url) {
+    /** Retry-After as seconds or an HTTP date, else the RetryInfo delay in the body; 0 if neither. */
+    private static long retryAfterMillis(org.springframework.web.client.HttpClientErrorException e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        String retryAfter = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (retryAfter != null) {
+            try {
+                return Long.parseLong(retryAfter.trim()) * 1000;
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    return Math.max(0, Duration.between(Instant.now(), at.toInstant()).toMillis());
+                } catch (Exception ignored) {
+                    // fall through to the body
+                }
+            }
+        }
+        Matcher m = RETRY_DELAY.matcher(e.getResponseBodyAsString());
+        if (m.find()) {
+            return (long) (Double.parseDouble(m.group(1)) * 1000);
+        }
+        return 0;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable t) {
+        return t instanceof RuntimeException r ? r : new GeminiCallException(ExtractionMetrics.HTTP_ERROR, t.getMessage(), t);
+    }
+
+    /**
+     * Binds events straight off the response stream without holding the body
+     * or the answer as a string. A streamed answer goes through the
+     * incremental parser instead, so each event is handed to onEvent as soon
+     * as its closing brace arrives. Returns null when no event JSON could be
+     * read; a truncated answer still yields the events that were complete.
+     * Package-private so the JMH benchmarks can drive it directly.
+     */
+    List<EventExtraction> parseGeminiResponse(InputStream body, String snippet, String title, String url,
+            String kind, Consumer<EventExtraction> onEvent) throws IOException {
+        long start = System.nanoTime();
+        List<EventExtraction> extractions = new ArrayList<>();
+        boolean[] complete = new boolean[1];
         try {
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode candidates = root.path("candidates");
-            if (candidates.isArray() && candidates.size() > 0) {
-                JsonNode content = candidates.get(0).path("content");
-                JsonNode parts = content.path("parts");
-                if (parts.isArray() && parts.size() > 0) {
-                    String text = parts.get(0).path("text").asText();
-                    // Try to extract JSON from the response
-                    String jsonText = extractJsonFromText(text);
-                    if (jsonText != null) {
-                        JsonNode eventData = objectMapper.readTree(jsonText);
-                        EventExtraction extraction = new EventExtraction();
-                        extraction.title = eventData.path("title").asText(title);
-                        extraction.date = eventData.path("date").asText(null);
-                        extraction.time = eventData.path("time").asText(null);
-                        extraction.tag = eventData.path("tag").asText("Event");
-                        extraction.description = eventData.path("description").asText("");
-                        extraction.confidence = eventData.path("confidence").asDouble(0.8);
-                        extraction.sourceSnippet = snippet;
-                        extraction.url = url;
-                        return extraction;
+            if ("stream".equals(kind)) {
+                GeminiResponseReader.Answer answer = responseReader.answer();
+                responseReader.readText(body, (text, offset, length) -> {
+                    for (TokenBuffer value : answer.feed(text, offset, length)) {
+                        addEvents(value.asParser(), answer.isArray(), snippet, title, url, extractions, onEvent);
+                    }
+                    complete[0] = answer.isDone();
+                });
+            } else {
+                responseReader.readText(body, (text, offset, length) -> {
+                    if (complete[0]) {
+                        return;
                     }
+                    try (JsonParser answer = structuredOutput
+                            ? responseReader.strictAnswerParser(text, offset, length)
+                            : responseReader.answerParser(text, offset, length)) {
+                        if (answer != null) {
+                            complete[0] = readAnswer(answer, snippet, title, url, extractions, onEvent);
+                        }
+                    }
+                });
+            }
+        } catch (JsonProcessingException e) {
+            System.err.println("Error parsing Gemini response: " + e.getOriginalMessage());
+        } finally {
+            metrics.recordParse(kind, System.nanoTime() - start);
+        }
+        return extractions.isEmpty() && !complete[0] ? null : extractions;
+    }
+
+    /**
+     * A top-level array is bound element by element, a lone object may be an
+     * {"events": [...]} wrapper; in JSON mode only the array is accepted.
+     * Returns whether an answer was read.
+     */
+    private boolean readAnswer(JsonParser answer, String snippet, String title, String url,
+            List<EventExtraction> out, Consumer<EventExtraction> onEvent) throws IOException {
+        JsonToken root = answer.nextToken();
+        if (root == JsonToken.START_ARRAY) {
+            JsonToken t;
+            while ((t = answer.nextToken()) != JsonToken.END_ARRAY && t != null) {
+                if (t == JsonToken.START_OBJECT) {
+                    addEvents(answer, true, snippet, title, url, out, onEvent);
+                } else {
+                    answer.skipChildren();
                 }
             }
-        } catch (Exception e) {
-            System.err.println("Error parsing Gemini response: " + e.getMessage());
+            return true;
+        } else if (root == JsonToken.START_OBJECT && !structuredOutput) {
+            addEvents(answer, false, snippet, title, url, out, onEvent);
+            return true;
+        }
+        return false;
+    }
+
+    private void addEvents(JsonParser value, boolean oneEvent, String snippet, String title, String url,
+            List<EventExtraction> out, Consumer<EventExtraction> onEvent) throws IOException {
+        List<EventExtraction> found = oneEvent
+                ? List.of(bind(value, snippet, title, url))
+                : toExtractions(objectMapper.readTree(value), snippet, title, url);
+        for (EventExtraction extraction : found) {
+            out.add(extraction);
+            onEvent.accept(extraction);
+        }
+    }
+
+    private List<List<EventExtraction>> parseGeminiBatchResponse(InputStream body, List<ExtractRequest> items)
+            throws IOException {
+        long started = System.nanoTime();
+        List<List<EventExtraction>> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        try {
+            responseReader.readText(body, (text, offset, length) -> {
+                if (structuredOutput) {
+                    try (JsonParser answer = responseReader.strictAnswerParser(text, offset, length)) {
+                        readBatchItems(answer, items, results);
+                    }
+                    return;
+                }
+                try (JsonParser answer = responseReader.answerParser(text, offset, length)) {
+                    if (answer == null || answer.nextToken() != JsonToken.START_ARRAY) {
+                        return;
+                    }
+                    int position = 0;
+                    JsonToken t;
+                    while ((t = answer.nextToken()) != JsonToken.END_ARRAY && t != null) {
+                        JsonNode itemData = objectMapper.readTree(answer);
+                        // Trust the echoed index over array position, the model may drop items
+                        int index = itemData.path("index").asInt(position++);
+                        if (index >= 0 && index < results.size() && results.get(index) == null) {
+                            ExtractRequest item = items.get(index);
+                            JsonNode events = itemData.has("events") ? itemData.get("events") : itemData;
+                            results.set(index, toExtractions(events, item.snippet(), item.title(), item.url()));
+                        }
+                    }
+                }
+            });
+        } catch (JsonProcessingException e) {
+            System.err.println("Error parsing Gemini batch response: " + e.getOriginalMessage());
+        } finally {
+            metrics.recordParse("batch", System.nanoTime() - started);
+        }
+        return results;
+    }
+
+    /**
+     * JSON mode batch answer, {@code [{"index": n, "events": [...]}, ...]},
+     * bound in a single pass without building a tree per item.
+     */
+    private void readBatchItems(JsonParser answer, List<ExtractRequest> items, List<List<EventExtraction>> results)
+            throws IOException {
+        if (answer.nextToken() != JsonToken.START_ARRAY) {
+            return;
+        }
+        int position = 0;
+        JsonToken item;
+        while ((item = answer.nextToken()) != JsonToken.END_ARRAY && item != null) {
+            if (item != JsonToken.START_OBJECT) {
+                answer.skipChildren();
+                continue;
+            }
+            int index = position++;
+            List<EventExtraction> events = null;
+            while (answer.nextToken() == JsonToken.FIELD_NAME) {
+                String name = answer.currentName();
+                JsonToken value = answer.nextToken();
+                if ("index".equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+                    index = answer.getIntValue();
+                } else if ("events".equals(name) && value == JsonToken.START_ARRAY) {
+                    events = new ArrayList<>();
+                    JsonToken t;
+                    while ((t = answer.nextToken()) != JsonToken.END_ARRAY && t != null) {
+                        if (t == JsonToken.START_OBJECT) {
+                            events.add(bind(answer));
+                        } else {
+                            answer.skipChildren();
+                        }
+                    }
+                } else {
+                    answer.skipChildren();
+                }
+            }
+            if (events != null && index >= 0 && index < results.size() && results.get(index) == null) {
+                ExtractRequest request = items.get(index);
+                events.forEach(e -> attach(e, request.snippet(), request.title(), request.url()));
+                results.set(index, events);
+            }
         }
-        // Fallback
-        return extractBasicInfo(snippet, title);
     }
 
-    private String extractJsonFromText(String text) {
-        // Try to find JSON object in the text
-        int start = text.indexOf("{");
-        int end = text.lastIndexOf("}");
-        if (start >= 0 && end > start) {
-            return text.substring(start, end + 1);
+    // accepts an array of events, an {"events": [...]} wrapper or a single event object
+    private List<EventExtraction> toExtractions(JsonNode node, String snippet, String title, String url)
+            throws IOException {
+        JsonNode events = node.isObject() && node.has("events") ? node.get("events") : node;
+        if (!events.isArray()) {
+            return List.of(bind(objectMapper.treeAsTokens(events), snippet, title, url));
+        }
+        List<EventExtraction> extractions = new ArrayList<>(events.size());
+        for (JsonNode eventData : events) {
+            if (eventData.isObject()) {
+                extractions.add(bind(objectMapper.treeAsTokens(eventData), snippet, title, url));
+            }
         }
-        return null;
+        return extractions;
+    }
+
+    private EventExtraction bind(JsonParser eventData, String snippet, String title, String url) throws IOException {
+        return attach(bind(eventData), snippet, title, url);
     }
 
-    private EventExtraction extractBasicInfo(String snippet, String title) {
+    private EventExtraction bind(JsonParser eventData) throws IOException {
         EventExtraction extraction = new EventExtraction();
-        extraction.title = title != null && !title.isEmpty() ? title : "Untitled Event";
-        extraction.date = extractDate(snippet);
-        extraction.time = extractTime(snippet);
         extraction.tag = "Event";
-        extraction.description = snippet.length() > 200 ? snippet.substring(0, 200) + "..." : snippet;
-        extraction.confidence = extraction.date != null ? 0.7 : 0.5;
+        extraction.description = "";
+        extraction.confidence = 0.8;
+        eventReader.withValueToUpdate(extraction).readValue(eventData);
+        validate(extraction);
+        return extraction;
+    }
+
+    private static EventExtraction attach(EventExtraction extraction, String snippet, String title, String url) {
+        if (extraction.title == null || extraction.title.isBlank()) {
+            extraction.title = title;
+        }
+        // these come from the request, never from the model
         extraction.sourceSnippet = snippet;
-        extraction.url = null;
+        extraction.url = url;
+        extraction.fallback = false;
         return extraction;
     }
 
-    private String extractDate(String text) {
-        // Try to find YYYY-MM-DD pattern
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
-        java.util.regex.Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            return matcher.group();
+    /**
+     * The schema fixes the shape of an answer but not what is in the
+     * strings. Dates that are not real YYYY-MM-DD dates and times that are
+     * not HH:MM become null, unknown tags become Event, and confidence is
+     * kept within 0..1; each correction is counted.
+     */
+    private void validate(EventExtraction e) {
+        String date = e.date != null ? e.date.strip() : "";
+        if (!date.isEmpty() && !isDate(date)) {
+            metrics.recordInvalidField("date");
+            date = "";
+        }
+        e.date = date.isEmpty() ? null : date;
+
+        String time = e.time != null ? e.time.strip() : "";
+        Matcher clock = CLOCK_TIME.matcher(time);
+        if (clock.matches()) {
+            time = String.format("%02d:%s", Integer.parseInt(clock.group(1)), clock.group(2));
+        } else if (!time.isEmpty()) {
+            metrics.recordInvalidField("time");
+            time = "";
+        }
+        e.time = time.isEmpty() ? null : time;
+
+        String tag = e.tag == null ? "Event"
+                : TAGS.stream().filter(t -> t.equalsIgnoreCase(e.tag.strip())).findFirst().orElse(null);
+        if (tag == null) {
+            metrics.recordInvalidField("tag");
+            tag = "Event";
+        }
+        e.tag = tag;
+
+        if (!(e.confidence >= 0 && e.confidence <= 1)) {
+            metrics.recordInvalidField("confidence");
+            e.confidence = Double.isNaN(e.confidence) ? 0.5 : Math.max(0, Math.min(1, e.confidence));
         }
-        return null;
     }
 
-    private String extractTime(String text) {
-        // Try to find HH:MM pattern
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\b\\d{1,2}:\\d{2}\\s*(?:AM|PM|am|pm)?\\b");
-        java.util.regex.Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            return matcher.group().trim();
+    private static boolean isDate(String date) {
+        if (!ISO_DATE.matcher(date).matches()) {
+            return false;
+        }
+        try {
+            LocalDate.parse(date);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private EventExtraction extractBasicInfo(String snippet, String title, String cause) {
+        EventExtraction extraction = localExtractor.toExtraction(localExtractor.analyze(snippet), snippet, title);
+        metrics.recordFallback(cause);
+        metrics.recordConfidence("fallback", extraction.confidence);
+        return extraction;
+    }
+
+    private static String fallbackCause(Exception e) {
+        return e instanceof GeminiCallException call ? call.reason : ExtractionMetrics.HTTP_ERROR;
+    }
+
+    /** Upstream failure, tagged with the fallback cause it is counted under. */
+    private static class GeminiCallException extends RuntimeException {
+        final String reason;
+
+        GeminiCallException(String reason, String message, Throwable cause) {
+            super(message, cause);
+            this.reason = reason;
         }
-        return null;
     }
 
     public static class EventExtraction {
@@ -186,5 +723,6 @@ public class GeminiService {
         public double confidence;
         public String sourceSnippet;
         public String url;
+        public boolean fallback; // true when produced by extractBasicInfo rather than Gemini
     }
 }
\ No newline at end of file
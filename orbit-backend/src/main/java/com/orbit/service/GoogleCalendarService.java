@@ -1,11 +1,280 @@
 package com.orbit.service;
 
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.orbit.entity.Event;
+import com.orbit.entity.GoogleCredential;
+import com.orbit.repository.GoogleCredentialRepository;
 
+/**
+ * Google OAuth and Calendar REST client. The authorization code from the
+ * consent redirect is exchanged once for a refresh token, which is stored per
+ * user; access tokens are cached in memory (and the database) and refreshed
+ * shortly before they expire. The same exchange identifies the Google account
+ * for sign-in. Event writes go through the batch endpoint, so one HTTP
+ * request carries many calls. Created on first use, since most requests
+ * never talk to Google.
+ */
 @Service
+@Lazy
 public class GoogleCalendarService {
-    // Implement token exchange and create event using Google Calendar REST API
-    // Use WebClient or RestTemplate for HTTP calls.
 
-    
+    private static final Duration REFRESH_MARGIN = Duration.ofSeconds(60);
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final GoogleCredentialRepository credentials;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate http;
+
+    @Value("${google.clientId:}")
+    private String clientId;
+
+    @Value("${google.clientSecret:}")
+    private String clientSecret;
+
+    @Value("${google.redirectUri:}")
+    private String redirectUri;
+
+    @Value("${google.oauth.token-url:https://oauth2.googleapis.com/token}")
+    private String tokenUrl;
+
+    @Value("${google.calendar.batch-url:https://www.googleapis.com/batch/calendar/v3}")
+    private String batchUrl;
+
+    @Value("${google.calendar.id:primary}")
+    private String calendarId;
+
+    // zone for timed events; captured times are local with no zone of their own
+    @Value("${google.calendar.time-zone:UTC}")
+    private String timeZone;
+
+    // by user id
+    private final Map<String, AccessToken> cached = new ConcurrentHashMap<>();
+    private final Map<String, String> rejected = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> connected = new ConcurrentHashMap<>();
+
+    private record AccessToken(String value, Instant expiresAt) {
+    }
+
+    /**
+     * Result of an authorization code exchange. The Google account id and
+     * email come from the ID token, which is taken as is: it arrived over TLS
+     * straight from Google's token endpoint (OpenID Connect Core 3.1.3.7).
+     */
+    public record Grant(String subject, String email, JsonNode token) {
+    }
+
+    public GoogleCalendarService(GoogleCredentialRepository credentials, ObjectMapper objectMapper,
+            RestTemplateBuilder restTemplateBuilder,
+            @Value("${google.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+            @Value("${google.http.read-timeout-ms:30000}") long readTimeoutMs) {
+        this.credentials = credentials;
+        this.objectMapper = objectMapper;
+        // the JDK client does not retry on its own, so every retry is the push queue's, with its backoff
+        this.http = restTemplateBuilder
+                .requestFactory(JdkClientHttpRequestFactory.class)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .build();
+    }
+
+    public boolean isConnected(String userId) {
+        return connected.computeIfAbsent(userId,
+                id -> credentials.findById(id).map(g -> g.getRefreshToken() != null).orElse(false));
+    }
+
+    /** Exchanges the code from the OAuth redirect; store the tokens with {@link #connect}. */
+    public Grant exchangeCode(String code) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "authorization_code");
+        form.add("code", code);
+        form.add("redirect_uri", redirectUri);
+        JsonNode token = requestToken(form);
+        JsonNode id = idToken(token);
+        return new Grant(id.path("sub").asText(null), id.path("email").asText(null), token);
+    }
+
+    /** Stores the grant's tokens as the user's connected calendar. */
+    @Transactional
+    public void connect(String userId, Grant grant) {
+        GoogleCredential g = credentials.findById(userId).orElseGet(() -> new GoogleCredential(userId));
+        // Google only returns a refresh token on first consent; keep the old one otherwise
+        if (grant.token().hasNonNull("refresh_token"))
+            g.setRefreshToken(grant.token().get("refresh_token").asText());
+        if (g.getRefreshToken() == null)
+            throw new IllegalStateException("Google did not return a refresh token");
+        store(g, grant.token());
+        connected.put(userId, true);
+    }
+
+    /** A valid access token for the user, refreshed when it is about to expire. */
+    String accessToken(String userId) {
+        AccessToken t = cached.get(userId);
+        if (t != null && Instant.now().isBefore(t.expiresAt().minus(REFRESH_MARGIN)))
+            return t.value();
+        return refresh(userId);
+    }
+
+    /** Drops the cached access token after Google rejected it, e.g. when it was revoked early. */
+    void invalidateAccessToken(String userId, String rejected) {
+        this.rejected.put(userId, rejected);
+        cached.computeIfPresent(userId, (id, t) -> t.value().equals(rejected) ? null : t);
+    }
+
+    private synchronized String refresh(String userId) {
+        AccessToken t = cached.get(userId);
+        if (t != null && Instant.now().isBefore(t.expiresAt().minus(REFRESH_MARGIN)))
+            return t.value();
+        GoogleCredential g = credentials.findById(userId)
+                .orElseThrow(() -> new IllegalStateException("Google Calendar is not connected"));
+        if (g.getAccessToken() != null && !g.getAccessToken().equals(rejected.get(userId))
+                && g.getAccessTokenExpiresAt() != null
+                && Instant.now().isBefore(g.getAccessTokenExpiresAt().minus(REFRESH_MARGIN))) {
+            // still good after a restart
+            cached.put(userId, new AccessToken(g.getAccessToken(), g.getAccessTokenExpiresAt()));
+            return g.getAccessToken();
+        }
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "refresh_token");
+        form.add("refresh_token", g.getRefreshToken());
+        store(g, requestToken(form));
+        return cached.get(userId).value();
+    }
+
+    // claims of the ID token Google returns when the openid scope was granted; empty without one
+    private JsonNode idToken(JsonNode token) {
+        String[] parts = token.path("id_token").asText("").split("\\.");
+        if (parts.length < 2)
+            return objectMapper.createObjectNode();
+        try {
+            return objectMapper.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable ID token", e);
+        }
+    }
+
+    private JsonNode requestToken(MultiValueMap<String, String> form) {
+        form.add("client_id", clientId);
+        form.add("client_secret", clientSecret);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        try {
+            JsonNode token = objectMapper.readTree(http.postForObject(tokenUrl, new HttpEntity<>(form, headers), String.class));
+            if (!token.hasNonNull("access_token"))
+                throw new IllegalStateException("Token response without access_token");
+            return token;
+        } catch (HttpStatusCodeException e) {
+            throw new IllegalStateException("Token request failed: " + e.getStatusCode().value()
+                    + " " + e.getResponseBodyAsString(), e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable token response", e);
+        }
+    }
+
+    private void store(GoogleCredential g, JsonNode token) {
+        Instant expiresAt = Instant.now().plusSeconds(token.path("expires_in").asLong(3600));
+        g.setAccessToken(token.get("access_token").asText());
+        g.setAccessTokenExpiresAt(expiresAt);
+        g.setUpdatedAt(Instant.now());
+        credentials.save(g);
+        cached.put(g.getAccount(), new AccessToken(g.getAccessToken(), expiresAt));
+    }
+
+    /**
+     * Sends the calls as one batch request on the user's calendar and returns
+     * their responses in order. A rejected access token is refreshed and the
+     * batch sent once more.
+     *
+     * @throws HttpStatusCodeException when the batch request as a whole fails
+     */
+    List<CalendarBatch.Response> batch(String userId, List<CalendarBatch.Call> calls) {
+        String boundary = "orbit_" + UUID.randomUUID().toString().replace("-", "");
+        String body = CalendarBatch.encode(boundary, calls);
+        String token = accessToken(userId);
+        try {
+            return send(boundary, body, token, calls.size());
+        } catch (HttpStatusCodeException e) {
+            if (e.getStatusCode() != HttpStatus.UNAUTHORIZED)
+                throw e;
+            invalidateAccessToken(userId, token);
+            return send(boundary, body, accessToken(userId), calls.size());
+        }
+    }
+
+    private List<CalendarBatch.Response> send(String boundary, String body, String token, int calls) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.setContentType(MediaType.parseMediaType("multipart/mixed; boundary=" + boundary));
+        ResponseEntity<String> resp = http.exchange(batchUrl, HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+        MediaType type = resp.getHeaders().getContentType();
+        return CalendarBatch.decode(type == null ? null : type.toString(), resp.getBody() == null ? "" : resp.getBody(), calls);
+    }
+
+    // Google event ids are base32hex ([a-v0-9], 5-1024 chars): a fixed id per event makes inserts idempotent
+    static String googleEventId(Long eventId) {
+        return "orbit" + eventId;
+    }
+
+    String eventsPath() {
+        return "/calendar/v3/calendars/" + calendarId + "/events";
+    }
+
+    String eventPath(Long eventId) {
+        return eventsPath() + "/" + googleEventId(eventId);
+    }
+
+    /** Calendar resource for an event, or null when it has no usable start date. */
+    String toGoogleEvent(Event e) {
+        if (e.getStartDate() == null)
+            return null;
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("id", googleEventId(e.getId()));
+        body.put("status", "confirmed");
+        body.put("summary", e.getTitle() == null ? "" : e.getTitle());
+        if (e.getSourceSnippet() != null)
+            body.put("description", e.getSourceSnippet());
+        if (e.getStartTime() != null) {
+            String start = e.getStartDate().atTime(e.getStartTime()).format(LOCAL_DATE_TIME);
+            String end = e.getStartDate().atTime(e.getStartTime()).plusHours(1).format(LOCAL_DATE_TIME);
+            body.putObject("start").put("dateTime", start).put("timeZone", timeZone);
+            body.putObject("end").put("dateTime", end).put("timeZone", timeZone);
+        } else {
+            LocalDate day = e.getStartDate();
+            body.putObject("start").put("date", day.toString());
+            body.putObject("end").put("date", day.plusDays(1).toString()); // end date is exclusive
+        }
+        if (e.getUrl() != null && e.getUrl().startsWith("http"))
+            body.putObject("source").put("title", "Orbit").put("url", e.getUrl());
+        return body.toString();
+    }
 }
@@ -0,0 +1,116 @@
+package com.orbit.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import com.orbit.entity.Event;
+
+/**
+ * Writes an iCalendar (RFC 5545) document one VEVENT at a time, so callers
+ * can stream events straight to the response without buffering the calendar.
+ * Content lines are folded at 75 octets without splitting UTF-8 sequences.
+ */
+public class IcsCalendarWriter {
+
+  private static final DateTimeFormatter DATEFMT = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter LOCALFMT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+  private static final DateTimeFormatter STAMPFMT =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+  private static final int MAX_LINE_OCTETS = 75;
+
+  private final Writer out;
+
+  public IcsCalendarWriter(OutputStream out) {
+    this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+  }
+
+  public void begin() throws IOException {
+    line("BEGIN:VCALENDAR");
+    line("VERSION:2.0");
+    line("PRODID:-//Orbit//EN");
+  }
+
+  public void writeEvent(Event e) throws IOException {
+    // DTSTAMP follows the row, not the export time, so unchanged data renders identically
+    Instant stamp = e.getUpdatedAt() != null ? e.getUpdatedAt() : Instant.EPOCH;
+    line("BEGIN:VEVENT");
+    line("UID:" + uid(e.getId()));
+    line("DTSTAMP:" + STAMPFMT.format(stamp));
+    line("SUMMARY:" + escape(e.getTitle()));
+    if (e.getStartDate() != null) {
+      // floating local time: captured events carry no zone
+      if (e.getStartTime() != null)
+        line("DTSTART:" + e.getStartDate().atTime(e.getStartTime()).format(LOCALFMT));
+      else
+        line("DTSTART;VALUE=DATE:" + e.getStartDate().format(DATEFMT));
+    }
+    line("DESCRIPTION:" + escape(e.getSourceSnippet()));
+    if (e.getUrl() != null) line("URL:" + e.getUrl());
+    line("END:VEVENT");
+  }
+
+  public void end() throws IOException {
+    line("END:VCALENDAR");
+    out.flush();
+  }
+
+  /** Pushes buffered lines to the stream, e.g. to cut the output into per-event fragments. */
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  /** Stable across exports so calendar clients update events instead of duplicating them. */
+  public static String uid(Long id) {
+    return "orbit-event-" + id + "@orbit";
+  }
+
+  static String escape(String s) {
+    if (s == null) return "";
+    StringBuilder sb = new StringBuilder(s.length() + 16);
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '\\' -> sb.append("\\\\");
+        case ';' -> sb.append("\\;");
+        case ',' -> sb.append("\\,");
+        case '\n' -> sb.append("\\n");
+        case '\r' -> {
+          sb.append("\\n");
+          if (i + 1 < s.length() && s.charAt(i + 1) == '\n') i++;
+        }
+        default -> sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  private void line(String content) throws IOException {
+    int octets = 0;
+    for (int i = 0; i < content.length(); ) {
+      int cp = content.codePointAt(i);
+      int len = utf8Length(cp);
+      if (octets + len > MAX_LINE_OCTETS) {
+        out.write("\r\n ");
+        octets = 1; // the leading space counts towards the next line
+      }
+      out.write(content, i, Character.charCount(cp));
+      octets += len;
+      i += Character.charCount(cp);
+    }
+    out.write("\r\n");
+  }
+
+  private static int utf8Length(int cp) {
+    if (cp < 0x80) return 1;
+    if (cp < 0x800) return 2;
+    if (cp < 0x10000) return 3;
+    return 4;
+  }
+}
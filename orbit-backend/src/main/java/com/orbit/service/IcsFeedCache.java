@@ -0,0 +1,330 @@
+package com.orbit.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.orbit.entity.Event;
+import com.orbit.repository.EventRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Rendered ICS feeds for calendar subscriptions. Every event's VEVENT is
+ * rendered once and kept as bytes; feeds (a user's events, or one tag) are
+ * assembled from those fragments, gzipped and hashed into a strong ETag, then
+ * served from memory until an event changes. {@link EventService} marks
+ * changed events after commit and only those rows are re-read, so a poll
+ * that finds nothing new costs no query and no rendering.
+ * <p>
+ * Fragments, feeds and their generation are kept per user, so a write only
+ * invalidates its owner's feeds. Together they are held up to
+ * {@code orbit.ics.cache.max-bytes}: users whose feeds were not read for the
+ * longest are dropped first, and a user whose events alone do not fit gets
+ * null from {@link #feed}, so callers stream from the database as before.
+ * Each user's fragments are reloaded after {@code orbit.ics.cache.ttl-seconds}
+ * to pick up writes that did not go through EventService.
+ */
+@Service
+public class IcsFeedCache {
+
+    private static final byte[] HEADER;
+    private static final byte[] FOOTER;
+
+    static {
+        try {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            IcsCalendarWriter writer = new IcsCalendarWriter(buf);
+            writer.begin();
+            writer.flush();
+            HEADER = buf.toByteArray();
+            buf.reset();
+            writer.end();
+            FOOTER = buf.toByteArray();
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final EventRepository repo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private final Map<String, UserFeeds> users = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong(); // fragments of all users
+
+    public IcsFeedCache(EventRepository repo, EntityManager entityManager, PlatformTransactionManager txManager,
+            @Value("${orbit.ics.cache.max-bytes:33554432}") long maxBytes,
+            @Value("${orbit.ics.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.repo = repo;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /** An assembled calendar; the gzip variant carries its own ETag as HTTP requires. */
+    public record Feed(long generation, byte[] body, byte[] gzip, String etag, String gzipEtag) {
+    }
+
+    private record Fragment(String tag, byte[] bytes) {
+    }
+
+    /** One user's share of the cache. */
+    private static final class UserFeeds {
+        final String userId;
+        final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+        final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+        final AtomicLong generation = new AtomicLong();
+        volatile long loadedAt;
+        volatile long lastRead = System.nanoTime();
+
+        // guarded by this
+        final Map<Long, Fragment> fragments = new TreeMap<>();
+        long bytes;
+        boolean complete; // fragments mirror the user's rows
+        boolean evicted; // dropped from the cache; a new instance takes over
+        boolean overBudget;
+        long overBudgetUntil;
+
+        UserFeeds(String userId) {
+            this.userId = userId;
+        }
+
+        Feed current(String tag, long now, long ttlNanos) {
+            Feed cached = feeds.get(key(tag));
+            return cached != null && cached.generation() == generation.get() && now - loadedAt < ttlNanos
+                    ? cached
+                    : null;
+        }
+    }
+
+    /**
+     * The calendar with every event of the user, or only those with
+     * {@code tag}; null when the events do not fit in the cache.
+     */
+    public Feed feed(String userId, String tag) {
+        UserFeeds user = users.computeIfAbsent(userId, UserFeeds::new);
+        long now = System.nanoTime();
+        user.lastRead = now;
+        Feed cached = user.current(tag, now, ttlNanos);
+        if (cached != null)
+            return cached;
+        Feed feed = rebuild(user, tag);
+        if (cachedBytes.get() > maxBytes)
+            evictIdle(user);
+        return feed;
+    }
+
+    /** Called after a user's event is saved or deleted; takes effect once the transaction commits. */
+    void invalidate(String userId, Long id) {
+        invalidate(userId, List.of(id));
+    }
+
+    void invalidate(String userId, Collection<Long> ids) {
+        if (ids.isEmpty())
+            return;
+        List<Long> copy = List.copyOf(ids);
+        AfterCommit.run(() -> {
+            UserFeeds user = users.get(userId);
+            if (user == null)
+                return; // nothing cached, the first read loads everything
+            user.dirty.addAll(copy);
+            user.generation.incrementAndGet();
+            user.feeds.clear();
+        });
+    }
+
+    private Feed rebuild(UserFeeds user, String tag) {
+        synchronized (user) {
+            long now = System.nanoTime();
+            Feed cached = user.current(tag, now, ttlNanos);
+            if (cached != null)
+                return cached;
+            if (user.evicted || (user.overBudget && now - user.overBudgetUntil < 0))
+                return null;
+
+            long before = user.bytes;
+            boolean fits;
+            long gen;
+            if (!user.complete || now - user.loadedAt >= ttlNanos) {
+                gen = user.generation.incrementAndGet(); // drops feeds of other tags built before the reload
+                user.feeds.clear();
+                fits = loadAll(user);
+                user.loadedAt = now;
+            } else {
+                gen = user.generation.get();
+                fits = loadDirty(user);
+            }
+            if (!fits) {
+                user.fragments.clear();
+                user.bytes = 0;
+                user.complete = false;
+                user.overBudget = true;
+                user.overBudgetUntil = now + ttlNanos;
+            }
+            cachedBytes.addAndGet(user.bytes - before);
+            if (!fits)
+                return null;
+            user.overBudget = false;
+            Feed feed = assemble(gen, user, tag);
+            user.feeds.put(key(tag), feed);
+            return feed;
+        }
+    }
+
+    /** Drops the users read least recently until the cache is back within its budget. */
+    private synchronized void evictIdle(UserFeeds keep) {
+        List<UserFeeds> idle = new ArrayList<>(users.values());
+        idle.sort(Comparator.comparingLong(u -> u.lastRead));
+        for (UserFeeds user : idle) {
+            if (cachedBytes.get() <= maxBytes)
+                return;
+            if (user == keep)
+                continue;
+            users.remove(user.userId, user);
+            synchronized (user) {
+                cachedBytes.addAndGet(-user.bytes);
+                user.fragments.clear();
+                user.bytes = 0;
+                user.complete = false;
+                user.evicted = true;
+                user.feeds.clear();
+            }
+        }
+    }
+
+    private boolean loadAll(UserFeeds user) {
+        user.dirty.clear(); // anything changing from here on is re-added and read again next time
+        user.fragments.clear();
+        user.bytes = 0;
+        Boolean fits = readOnlyTx.execute(status -> {
+            Renderer renderer = new Renderer();
+            try (Stream<Event> events = repo.streamByUserIdOrderById(user.userId)) {
+                for (Iterator<Event> it = events.iterator(); it.hasNext(); ) {
+                    Event e = it.next();
+                    put(user, e, renderer);
+                    entityManager.detach(e);
+                    if (user.bytes > maxBytes)
+                        return false;
+                }
+            }
+            return true;
+        });
+        user.complete = Boolean.TRUE.equals(fits);
+        return user.complete;
+    }
+
+    private boolean loadDirty(UserFeeds user) {
+        if (user.dirty.isEmpty())
+            return true;
+        List<Long> ids = new ArrayList<>(user.dirty);
+        user.dirty.removeAll(ids);
+        readOnlyTx.executeWithoutResult(status -> {
+            Renderer renderer = new Renderer();
+            Set<Long> deleted = new HashSet<>(ids);
+            for (Event e : repo.findAllById(ids)) {
+                if (!user.userId.equals(e.getUserId()))
+                    continue;
+                deleted.remove(e.getId());
+                put(user, e, renderer);
+                entityManager.detach(e);
+            }
+            for (Long id : deleted) {
+                Fragment old = user.fragments.remove(id);
+                if (old != null)
+                    user.bytes -= old.bytes().length;
+            }
+        });
+        return user.bytes <= maxBytes;
+    }
+
+    private static void put(UserFeeds user, Event e, Renderer renderer) {
+        byte[] bytes = renderer.render(e);
+        Fragment old = user.fragments.put(e.getId(), new Fragment(e.getTag(), bytes));
+        user.bytes += bytes.length - (old == null ? 0 : old.bytes().length);
+    }
+
+    private static Feed assemble(long gen, UserFeeds user, String tag) {
+        List<byte[]> parts = new ArrayList<>();
+        int size = HEADER.length + FOOTER.length;
+        for (Fragment f : user.fragments.values()) {
+            if (tag == null || tag.equals(f.tag())) {
+                parts.add(f.bytes());
+                size += f.bytes().length;
+            }
+        }
+        byte[] body = new byte[size];
+        System.arraycopy(HEADER, 0, body, 0, HEADER.length);
+        int pos = HEADER.length;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, body, pos, part.length);
+            pos += part.length;
+        }
+        System.arraycopy(FOOTER, 0, body, pos, FOOTER.length);
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(size / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(gzipped, 8192)) {
+            gz.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String hash = contentHash(body);
+        return new Feed(gen, body, gzipped.toByteArray(), "\"ics-" + hash + "\"", "\"ics-" + hash + "-gzip\"");
+    }
+
+    private static String key(String tag) {
+        return tag == null ? "*" : "tag:" + tag;
+    }
+
+    private static String contentHash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** One writer over a reused buffer, cut after every event. */
+    private static final class Renderer {
+        private final ByteArrayOutputStream buf = new ByteArrayOutputStream(1024);
+        private final IcsCalendarWriter writer = new IcsCalendarWriter(buf);
+
+        byte[] render(Event e) {
+            buf.reset();
+            try {
+                writer.writeEvent(e);
+                writer.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return buf.toByteArray();
+        }
+    }
+}
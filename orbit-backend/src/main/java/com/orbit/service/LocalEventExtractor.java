@@ -0,0 +1,346 @@
+package com.orbit.service;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.orbit.service.GeminiService.EventExtraction;
+
+/**
+ * Rule-based date/time extraction used when Gemini is unavailable, and as a
+ * cheap first pass that can make the LLM call unnecessary. All patterns are
+ * compiled once; month and weekday names come from the configured locales.
+ */
+@Service
+public class LocalEventExtractor {
+
+    private static final Pattern ISO_DATE = Pattern.compile("\\b(\\d{4})-(\\d{1,2})-(\\d{1,2})\\b");
+    private static final Pattern NUMERIC_DATE = Pattern.compile("\\b(\\d{1,2})[/.](\\d{1,2})[/.](\\d{4}|\\d{2})\\b");
+    private static final Pattern RELATIVE_DAY = Pattern.compile(
+            "\\b(today|tonight|tomorrow|day after tomorrow)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern IN_N = Pattern.compile(
+            "\\bin\\s+(\\d{1,3})\\s+(day|days|week|weeks)\\b", Pattern.CASE_INSENSITIVE);
+    private static final String MERIDIEM = "([ap])\\.?\\s?m\\.?(?![a-z])";
+    private static final String CLOCK = "(\\d{1,2})(?::([0-5]\\d))?\\s*(?:" + MERIDIEM + ")?";
+    private static final Pattern TIME_RANGE = Pattern.compile(
+            "\\b" + CLOCK + "\\s*(?:-|–|—|to|until|till)\\s*" + CLOCK, Pattern.CASE_INSENSITIVE);
+    private static final Pattern TIME_12H = Pattern.compile(
+            "\\b(\\d{1,2})(?::([0-5]\\d))?\\s*" + MERIDIEM, Pattern.CASE_INSENSITIVE);
+    private static final Pattern TIME_24H = Pattern.compile("\\b([01]?\\d|2[0-3]):([0-5]\\d)\\b");
+    private static final Pattern NOON = Pattern.compile("\\b(noon|midday|midnight)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final Clock clock;
+    private final boolean monthFirst;
+    private final Map<String, Month> monthNames = new HashMap<>();
+    private final Map<String, DayOfWeek> weekdayNames = new HashMap<>();
+    private final Pattern monthDay;
+    private final Pattern dayMonth;
+    private final Pattern weekday;
+
+    @Autowired
+    public LocalEventExtractor(@Value("${orbit.extract.local.locales:en-US}") String locales) {
+        this(locales, Clock.systemDefaultZone());
+    }
+
+    LocalEventExtractor(String locales, Clock clock) {
+        this.clock = clock;
+        List<Locale> parsed = new ArrayList<>();
+        for (String tag : locales.split(",")) {
+            if (!tag.isBlank()) parsed.add(Locale.forLanguageTag(tag.strip()));
+        }
+        if (parsed.isEmpty()) parsed.add(Locale.US);
+        // 05/03/2026 reads as May 3rd in the US and as 5 March nearly everywhere else
+        this.monthFirst = "US".equals(parsed.get(0).getCountry());
+
+        for (Locale locale : parsed) {
+            for (Month m : Month.values()) {
+                putName(monthNames, m.getDisplayName(TextStyle.FULL, locale), m);
+                putName(monthNames, m.getDisplayName(TextStyle.SHORT, locale), m);
+            }
+            for (DayOfWeek d : DayOfWeek.values()) {
+                // full names only, "Sun" and "Sat" are too often something else
+                putName(weekdayNames, d.getDisplayName(TextStyle.FULL, locale), d);
+            }
+        }
+        putName(monthNames, "sept", Month.SEPTEMBER);
+
+        String months = alternation(monthNames.keySet());
+        this.monthDay = Pattern.compile("(?<![\\p{L}])(" + months + ")\\.?\\s+(\\d{1,2})(?:st|nd|rd|th)?(?!\\d)(?:,?\\s+(\\d{4}))?",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        this.dayMonth = Pattern.compile("\\b(\\d{1,2})(?:st|nd|rd|th|\\.)?\\s+(?:of\\s+)?(" + months + ")\\.?(?![\\p{L}])(?:,?\\s+(\\d{4}))?",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        this.weekday = Pattern.compile("(?:\\b(next|this|on)\\s+)?(?<![\\p{L}])(" + alternation(weekdayNames.keySet()) + ")(?![\\p{L}])",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    public record DateCandidate(LocalDate date, int position, double score) {}
+
+    public record TimeCandidate(LocalTime start, LocalTime end, int position, double score) {}
+
+    /** Candidates ordered by descending score; {@link #score()} rates the best combination. */
+    public record Result(List<DateCandidate> dates, List<TimeCandidate> times) {
+
+        public DateCandidate bestDate() {
+            return dates.isEmpty() ? null : dates.get(0);
+        }
+
+        /** The time closest to the best date, which is usually the one that belongs to it. */
+        public TimeCandidate bestTime() {
+            DateCandidate date = bestDate();
+            if (times.isEmpty()) return null;
+            if (date == null) return times.get(0);
+            return times.stream()
+                    .min(Comparator.comparingInt(t -> Math.abs(t.position() - date.position())))
+                    .orElse(null);
+        }
+
+        /**
+         * Whether the text names one date, however often, and a time of day:
+         * the shape of a single event the local rules can answer alone.
+         */
+        public boolean singleEvent() {
+            return !times.isEmpty() && !dates.isEmpty()
+                    && dates.stream().allMatch(d -> d.date().equals(dates.get(0).date()));
+        }
+
+        public double score() {
+            DateCandidate date = bestDate();
+            if (date == null) return 0;
+            TimeCandidate time = bestTime();
+            return time == null ? date.score() * 0.9 : date.score() * (0.9 + 0.1 * time.score());
+        }
+    }
+
+    /** Whether the text mentions a date or time of day at all; much cheaper than {@link #analyze}. */
+    public boolean mentionsDate(String text) {
+        if (text == null || text.isEmpty()) return false;
+        return ISO_DATE.matcher(text).find()
+                || NUMERIC_DATE.matcher(text).find()
+                || monthDay.matcher(text).find()
+                || dayMonth.matcher(text).find()
+                || RELATIVE_DAY.matcher(text).find()
+                || IN_N.matcher(text).find()
+                || weekday.matcher(text).find()
+                || TIME_12H.matcher(text).find()
+                || TIME_24H.matcher(text).find();
+    }
+
+    public Result analyze(String text) {
+        if (text == null || text.isEmpty()) return new Result(List.of(), List.of());
+        LocalDate today = LocalDate.now(clock);
+        List<DateCandidate> dates = new ArrayList<>();
+        List<TimeCandidate> times = new ArrayList<>();
+
+        Matcher m = ISO_DATE.matcher(text);
+        while (m.find()) {
+            int y = num(m, 1), month = num(m, 2), day = num(m, 3);
+            addDate(dates, m.start(), 0.95, () -> LocalDate.of(y, month, day));
+        }
+
+        m = NUMERIC_DATE.matcher(text);
+        while (m.find()) {
+            int a = num(m, 1), b = num(m, 2), year = num(m, 3);
+            if (year < 100) year += 2000;
+            final int y = year;
+            if (a > 12 || b > 12) {
+                // only one reading is valid, so there is no ambiguity to pay for
+                addDate(dates, m.start(), 0.85, () -> a > 12 ? LocalDate.of(y, b, a) : LocalDate.of(y, a, b));
+            } else {
+                addDate(dates, m.start(), monthFirst ? 0.75 : 0.6, () -> LocalDate.of(y, a, b));
+                addDate(dates, m.start(), monthFirst ? 0.6 : 0.75, () -> LocalDate.of(y, b, a));
+            }
+        }
+
+        m = monthDay.matcher(text);
+        while (m.find()) {
+            Month month = monthNames.get(m.group(1).toLowerCase(Locale.ROOT));
+            int day = num(m, 2);
+            String year = m.group(3);
+            addDate(dates, m.start(), year != null ? 0.9 : 0.8,
+                    () -> year != null ? LocalDate.of(Integer.parseInt(year), month, day) : upcoming(today, month, day));
+        }
+
+        m = dayMonth.matcher(text);
+        while (m.find()) {
+            int day = num(m, 1);
+            Month month = monthNames.get(m.group(2).toLowerCase(Locale.ROOT));
+            String year = m.group(3);
+            addDate(dates, m.start(), year != null ? 0.9 : 0.8,
+                    () -> year != null ? LocalDate.of(Integer.parseInt(year), month, day) : upcoming(today, month, day));
+        }
+
+        m = RELATIVE_DAY.matcher(text);
+        while (m.find()) {
+            String word = m.group(1).toLowerCase(Locale.ROOT);
+            int offset = switch (word) {
+                case "tomorrow" -> 1;
+                case "day after tomorrow" -> 2;
+                default -> 0;
+            };
+            addDate(dates, m.start(), 0.75, () -> today.plusDays(offset));
+        }
+
+        m = IN_N.matcher(text);
+        while (m.find()) {
+            int n = num(m, 1);
+            boolean weeks = m.group(2).toLowerCase(Locale.ROOT).startsWith("week");
+            addDate(dates, m.start(), 0.65, () -> weeks ? today.plusWeeks(n) : today.plusDays(n));
+        }
+
+        m = weekday.matcher(text);
+        while (m.find()) {
+            DayOfWeek day = weekdayNames.get(m.group(2).toLowerCase(Locale.ROOT));
+            LocalDate date = "next".equalsIgnoreCase(m.group(1))
+                    ? today.with(TemporalAdjusters.next(day))
+                    : today.with(TemporalAdjusters.nextOrSame(day));
+            // bare weekday names show up in schedules and nav text, so they rank low
+            addDate(dates, m.start(), m.group(1) != null ? 0.6 : 0.45, () -> date);
+        }
+
+        int rangeEnd = -1;
+        m = TIME_RANGE.matcher(text);
+        while (m.find()) {
+            String endMeridiem = m.group(6);
+            String startMeridiem = m.group(3) != null ? m.group(3) : endMeridiem; // "3-5pm"
+            if (startMeridiem == null && (m.group(2) == null || m.group(5) == null)) continue; // "1-2" is not a time
+            LocalTime start = toTime(num(m, 1), m.group(2), startMeridiem);
+            LocalTime end = toTime(num(m, 4), m.group(5), endMeridiem);
+            if (start != null && end != null) {
+                times.add(new TimeCandidate(start, end, m.start(), 0.95));
+                rangeEnd = Math.max(rangeEnd, m.end());
+            }
+        }
+
+        m = TIME_12H.matcher(text);
+        while (m.find()) {
+            if (m.start() < rangeEnd && overlapsRange(times, m.start())) continue;
+            LocalTime t = toTime(num(m, 1), m.group(2), m.group(3));
+            if (t != null) times.add(new TimeCandidate(t, null, m.start(), m.group(2) != null ? 0.9 : 0.85));
+        }
+
+        m = TIME_24H.matcher(text);
+        while (m.find()) {
+            if (overlapsRange(times, m.start()) || followedByMeridiem(text, m.end())) continue;
+            LocalTime t = LocalTime.of(num(m, 1), num(m, 2));
+            times.add(new TimeCandidate(t, null, m.start(), 0.8));
+        }
+
+        m = NOON.matcher(text);
+        while (m.find()) {
+            boolean midnight = m.group(1).equalsIgnoreCase("midnight");
+            times.add(new TimeCandidate(midnight ? LocalTime.MIDNIGHT : LocalTime.NOON, null, m.start(), 0.7));
+        }
+
+        Comparator<DateCandidate> byDateScore = Comparator.comparingDouble(DateCandidate::score).reversed();
+        dates.sort(byDateScore.thenComparingInt(DateCandidate::position));
+        Comparator<TimeCandidate> byTimeScore = Comparator.comparingDouble(TimeCandidate::score).reversed();
+        times.sort(byTimeScore.thenComparingInt(TimeCandidate::position));
+        return new Result(dates, times);
+    }
+
+    /**
+     * Build an extraction purely from local rules. Used as the Gemini fallback
+     * and for local-first hits that skip the LLM.
+     */
+    public EventExtraction toExtraction(Result result, String snippet, String title) {
+        EventExtraction extraction = new EventExtraction();
+        DateCandidate date = result.bestDate();
+        TimeCandidate time = result.bestTime();
+        extraction.title = title != null && !title.isEmpty() ? title : "Untitled Event";
+        extraction.date = date != null ? date.date().toString() : null;
+        extraction.time = time != null ? String.format("%02d:%02d", time.start().getHour(), time.start().getMinute()) : null;
+        extraction.tag = "Event";
+        extraction.description = snippet.length() > 200 ? snippet.substring(0, 200) + "..." : snippet;
+        extraction.confidence = date != null ? 0.5 + 0.3 * result.score() : 0.5;
+        extraction.sourceSnippet = snippet;
+        extraction.url = null;
+        extraction.fallback = true;
+        return extraction;
+    }
+
+    private interface DateSupplier {
+        LocalDate get() throws DateTimeException;
+    }
+
+    private static void addDate(List<DateCandidate> dates, int position, double score, DateSupplier supplier) {
+        try {
+            dates.add(new DateCandidate(supplier.get(), position, score));
+        } catch (DateTimeException e) {
+            // 2026-02-31, 13/13/2026 and friends are not dates
+        }
+    }
+
+    /** Month/day without a year: this year, unless that is already well in the past. */
+    private static LocalDate upcoming(LocalDate today, Month month, int day) {
+        LocalDate date = LocalDate.of(today.getYear(), month, day);
+        return date.isBefore(today.minusDays(30)) ? date.plusYears(1) : date;
+    }
+
+    private static LocalTime toTime(int hour, String minutes, String meridiem) {
+        int minute = minutes != null ? Integer.parseInt(minutes) : 0;
+        if (meridiem != null) {
+            if (hour < 1 || hour > 12) return null;
+            boolean pm = Character.toLowerCase(meridiem.charAt(0)) == 'p';
+            hour = hour % 12 + (pm ? 12 : 0);
+        } else if (hour > 23) {
+            return null;
+        }
+        return LocalTime.of(hour, minute);
+    }
+
+    private static boolean overlapsRange(List<TimeCandidate> times, int position) {
+        for (TimeCandidate t : times) {
+            if (t.end() != null && position >= t.position() && position - t.position() < 24) return true;
+        }
+        return false;
+    }
+
+    private static boolean followedByMeridiem(String text, int end) {
+        int i = end;
+        while (i < text.length() && text.charAt(i) == ' ') i++;
+        if (i >= text.length()) return false;
+        char c = Character.toLowerCase(text.charAt(i));
+        return (c == 'a' || c == 'p') && i + 1 < text.length()
+                && (Character.toLowerCase(text.charAt(i + 1)) == 'm' || text.charAt(i + 1) == '.');
+    }
+
+    private static int num(Matcher m, int group) {
+        return Integer.parseInt(m.group(group));
+    }
+
+    private static <T> void putName(Map<String, T> names, String name, T value) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (key.endsWith(".")) key = key.substring(0, key.length() - 1);
+        if (key.length() >= 3) names.putIfAbsent(key, value);
+    }
+
+    // longest first so "september" wins over "sep"
+    private static String alternation(Iterable<String> names) {
+        List<String> sorted = new ArrayList<>();
+        names.forEach(sorted::add);
+        sorted.sort(Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()));
+        StringBuilder sb = new StringBuilder();
+        for (String n : sorted) {
+            if (sb.length() > 0) sb.append('|');
+            sb.append(Pattern.quote(n));
+        }
+        return sb.toString();
+    }
+}
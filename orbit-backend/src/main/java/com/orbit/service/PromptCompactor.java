@@ -0,0 +1,228 @@
+package com.orbit.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shrinks page text before it is put into a prompt, since every character
+ * scraped is billed as input tokens. Markup is stripped, whitespace collapsed
+ * and short boilerplate lines (cookie banners, sign-in links, menus repeated
+ * around the page) dropped. Text still over {@code orbit.extract.prompt.max-tokens}
+ * is cut down to the paragraphs that mention a date, with the heading above
+ * each, before anything else is kept.
+ */
+@Component
+public class PromptCompactor {
+
+    private static final Pattern MARKUP = Pattern.compile("<(?:[a-zA-Z][\\w-]*|/[a-zA-Z][\\w-]*|!--)[^>]*>");
+    private static final Pattern DROPPED_ELEMENTS = Pattern.compile(
+            "<(script|style|noscript|svg|template|nav|footer)\\b[^>]*>.*?</\\1\\s*>|<!--.*?-->",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern BLOCK_TAG = Pattern.compile(
+            "</?(?:p|div|br|li|ul|ol|tr|table|h[1-6]|section|article|header|main|aside|dd|dt|blockquote|pre)\\b[^>]*>",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CELL_TAG = Pattern.compile("</?t[dh]\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ENTITY = Pattern.compile("&(#\\d{1,7}|#[xX][0-9a-fA-F]{1,6}|[a-zA-Z]{2,6});");
+    private static final Pattern INVISIBLE = Pattern.compile("[\\u200B-\\u200D\\u2060\\uFEFF\\u00AD]");
+    private static final Pattern HORIZONTAL_SPACE = Pattern.compile("[\\h\\x0B\\f]+");
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n{3,}");
+    private static final Pattern BOILERPLATE = Pattern.compile(
+            "skip to (main )?content|we use cookies|cookie (policy|settings|preferences)|accept (all )?cookies"
+                    + "|privacy (policy|notice)|terms of (use|service)|all rights reserved"
+                    + "|©|copyright|^(sign|log) ?(in|out|up)\\b|^(share|follow us|subscribe)\\b|^(home|menu|search|back to top)$",
+            Pattern.CASE_INSENSITIVE);
+    private static final int SHORT_LINE = 80;
+
+    private final LocalEventExtractor dates;
+    private final int maxTokens;
+    private final double charsPerToken;
+
+    public PromptCompactor(LocalEventExtractor dates,
+            @Value("${orbit.extract.prompt.max-tokens:4000}") int maxTokens,
+            @Value("${orbit.extract.prompt.chars-per-token:4}") double charsPerToken) {
+        this.dates = dates;
+        this.maxTokens = maxTokens;
+        this.charsPerToken = charsPerToken;
+    }
+
+    /** The text to send and its estimated size in tokens before and after compaction. */
+    public record Compacted(String text, int rawTokens, int tokens) {
+
+        public int saved() {
+            return rawTokens - tokens;
+        }
+    }
+
+    /** {@link #clean} and then trim to the token budget; 0 or less disables the budget. */
+    public Compacted compact(String text) {
+        String raw = text != null ? text : "";
+        return budget(clean(raw), tokens(raw));
+    }
+
+    /**
+     * Already {@link #clean cleaned} text trimmed to the token budget, e.g.
+     * one chunk of a long page; rawTokens is its share of the page as received.
+     */
+    public Compacted budget(String cleaned, int rawTokens) {
+        String trimmed = maxTokens > 0 && tokens(cleaned) > maxTokens ? fit(cleaned, maxTokens) : cleaned;
+        return new Compacted(trimmed, rawTokens, tokens(trimmed));
+    }
+
+    /**
+     * Markup, invisible characters, repeated whitespace and boilerplate
+     * removed; paragraph breaks are kept for {@link DocumentChunker}.
+     */
+    public String clean(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String s = text.replace("\r\n", "\n").replace('\r', '\n');
+        if (MARKUP.matcher(s).find()) {
+            s = stripMarkup(s);
+        }
+        s = INVISIBLE.matcher(s).replaceAll("");
+        s = HORIZONTAL_SPACE.matcher(s).replaceAll(" ");
+        return dropBoilerplate(s.split("\n", -1));
+    }
+
+    /** Estimated tokens; Gemini averages about four characters per token for English text. */
+    public int tokens(String text) {
+        return text == null || text.isEmpty() ? 0 : (int) Math.ceil(text.length() / charsPerToken);
+    }
+
+    private static String stripMarkup(String html) {
+        String s = DROPPED_ELEMENTS.matcher(html).replaceAll(" ");
+        s = BLOCK_TAG.matcher(s).replaceAll("\n");
+        s = CELL_TAG.matcher(s).replaceAll(" ");
+        s = MARKUP.matcher(s).replaceAll("");
+        return decodeEntities(s);
+    }
+
+    private static String decodeEntities(String s) {
+        Matcher m = ENTITY.matcher(s);
+        StringBuilder sb = new StringBuilder(s.length());
+        while (m.find()) {
+            String name = m.group(1);
+            String replacement;
+            if (name.charAt(0) == '#') {
+                boolean hex = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X');
+                int cp = Integer.parseInt(name.substring(hex ? 2 : 1), hex ? 16 : 10);
+                replacement = Character.isValidCodePoint(cp) ? Character.toString(cp) : m.group();
+            } else {
+                replacement = switch (name.toLowerCase(Locale.ROOT)) {
+                    case "nbsp", "ensp", "emsp", "thinsp" -> " ";
+                    case "amp" -> "&";
+                    case "lt" -> "<";
+                    case "gt" -> ">";
+                    case "quot" -> "\"";
+                    case "apos" -> "'";
+                    case "ndash" -> "–";
+                    case "mdash" -> "—";
+                    default -> m.group();
+                };
+            }
+            m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Short lines that are boilerplate, or repeat an earlier line, go unless
+     * they or a neighbour mention a date: in a schedule a repeated "Quiz"
+     * line is an event next to its date, in a menu it is noise.
+     */
+    private String dropBoilerplate(String[] lines) {
+        boolean[] dated = new boolean[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = lines[i].strip();
+            dated[i] = dates.mentionsDate(lines[i]);
+        }
+        Set<String> seen = new HashSet<>();
+        StringBuilder sb = new StringBuilder();
+        int previous = -1; // last non-empty line
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.isEmpty()) {
+                sb.append('\n');
+                continue;
+            }
+            int next = i + 1;
+            while (next < lines.length && lines[next].isEmpty()) {
+                next++;
+            }
+            boolean nearDate = (previous >= 0 && dated[previous]) || (next < lines.length && dated[next]);
+            previous = i;
+            if (line.length() <= SHORT_LINE && !dated[i]) {
+                boolean repeated = !seen.add(line.toLowerCase(Locale.ROOT));
+                if (!nearDate && (repeated || BOILERPLATE.matcher(line).find())) {
+                    continue;
+                }
+            }
+            sb.append(line).append('\n');
+        }
+        return BLANK_LINES.matcher(sb).replaceAll("\n\n").strip();
+    }
+
+    /**
+     * Paragraphs that mention a date, each with the paragraph before it when
+     * that is a short heading, then the rest in page order, as long as they
+     * fit. Kept paragraphs stay in page order.
+     */
+    private String fit(String text, int budget) {
+        String[] paragraphs = text.split("\n\n");
+        boolean[] keep = new boolean[paragraphs.length];
+        int budgetChars = (int) (budget * charsPerToken);
+        int used = 0;
+
+        List<Integer> order = new ArrayList<>(paragraphs.length);
+        boolean[] queued = new boolean[paragraphs.length];
+        for (int i = 0; i < paragraphs.length; i++) {
+            if (dates.mentionsDate(paragraphs[i])) {
+                if (i > 0 && !queued[i - 1] && paragraphs[i - 1].length() <= SHORT_LINE) {
+                    order.add(i - 1);
+                    queued[i - 1] = true;
+                }
+                order.add(i);
+                queued[i] = true;
+            }
+        }
+        for (int i = 0; i < paragraphs.length; i++) {
+            if (!queued[i]) {
+                order.add(i);
+            }
+        }
+        for (int i : order) {
+            int cost = paragraphs[i].length() + 2;
+            if (used + cost <= budgetChars) {
+                keep[i] = true;
+                used += cost;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(Math.min(text.length(), budgetChars));
+        for (int i = 0; i < paragraphs.length; i++) {
+            if (keep[i]) {
+                if (sb.length() > 0) {
+                    sb.append("\n\n");
+                }
+                sb.append(paragraphs[i]);
+            }
+        }
+        if (sb.length() == 0) {
+            // one paragraph larger than the whole budget: keep its start
+            String first = paragraphs[order.get(0)];
+            int space = first.lastIndexOf(' ', budgetChars);
+            sb.append(first, 0, space > 0 ? space : budgetChars);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package com.orbit.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per-user limits on extraction, so one heavy user cannot spend the shared
+ * Gemini budget or crowd out everyone else: a token bucket refilled at
+ * {@code orbit.tenancy.extract.per-minute} pages, a daily page quota (UTC
+ * days), and a cap on requests in flight at once. Pages are counted whether
+ * or not they end up cached. Only enforced with multi-tenancy on; counters
+ * are in memory, matching the single backend instance.
+ */
+@Service
+public class TenantQuotas {
+
+    private static final Permit UNLIMITED = () -> {
+    };
+
+    private final TenantService tenants;
+    private final Clock clock;
+    private final double perMinute;
+    private final double burst;
+    private final long dailyQuota;
+    private final int maxConcurrent;
+    private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TenantQuotas(TenantService tenants,
+            @Value("${orbit.tenancy.extract.per-minute:60}") double perMinute,
+            @Value("${orbit.tenancy.extract.burst:60}") double burst,
+            @Value("${orbit.tenancy.extract.daily-quota:1000}") long dailyQuota,
+            @Value("${orbit.tenancy.extract.max-concurrent:4}") int maxConcurrent) {
+        this(tenants, perMinute, burst, dailyQuota, maxConcurrent, Clock.systemUTC());
+    }
+
+    TenantQuotas(TenantService tenants, double perMinute, double burst, long dailyQuota, int maxConcurrent,
+            Clock clock) {
+        this.tenants = tenants;
+        this.perMinute = perMinute;
+        this.burst = Math.max(1, burst);
+        this.dailyQuota = dailyQuota;
+        this.maxConcurrent = maxConcurrent;
+        this.clock = clock;
+    }
+
+    /** Held while an extraction runs; close it when the work is done. */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /** The user is over a limit; retry after the given number of seconds. */
+    public static class QuotaExceededException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        QuotaExceededException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long retryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    /**
+     * Takes {@code pages} from the user's allowance.
+     *
+     * @throws QuotaExceededException when a limit is reached; nothing is taken then
+     */
+    public Permit acquire(String userId, int pages) {
+        if (!tenants.isEnabled())
+            return UNLIMITED;
+        Usage u = usage.computeIfAbsent(userId, id -> new Usage(burst, clock.millis()));
+        synchronized (u) {
+            long now = clock.millis();
+            LocalDate today = LocalDate.ofInstant(clock.instant(), ZoneOffset.UTC);
+            if (!today.equals(u.day)) {
+                u.day = today;
+                u.usedToday = 0;
+            }
+            if (u.usedToday + pages > dailyQuota) {
+                long untilMidnight = Duration.between(clock.instant(),
+                        today.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC)).toSeconds();
+                throw new QuotaExceededException("Daily extraction quota used up", Math.max(1, untilMidnight));
+            }
+            if (u.inFlight >= maxConcurrent)
+                throw new QuotaExceededException("Too many extractions in progress", 1);
+            u.tokens = Math.min(burst, u.tokens + (now - u.lastRefill) * perMinute / 60_000);
+            u.lastRefill = now;
+            // a batch larger than the bucket waits for a full bucket, then runs into debt
+            double needed = Math.min(pages, burst);
+            if (u.tokens < needed) {
+                long wait = (long) Math.ceil((needed - u.tokens) * 60 / perMinute);
+                throw new QuotaExceededException("Extraction rate limit reached", Math.max(1, wait));
+            }
+            u.tokens -= pages;
+            u.usedToday += pages;
+            u.inFlight++;
+        }
+        return new Permit() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                synchronized (u) {
+                    if (!closed) {
+                        closed = true;
+                        u.inFlight--;
+                    }
+                }
+            }
+        };
+    }
+
+    private static final class Usage {
+        double tokens;
+        long lastRefill;
+        LocalDate day;
+        long usedToday;
+        int inFlight;
+
+        Usage(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.orbit.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.orbit.entity.UserAccount;
+import com.orbit.repository.UserAccountRepository;
+
+/**
+ * Who a request belongs to. With {@code orbit.tenancy.enabled} off (one
+ * backend per person, the default) everything belongs to
+ * {@link UserAccount#LOCAL}. With it on, users sign in with Google and get an
+ * API token the extension sends as {@code Authorization: Bearer}; only its
+ * hash is stored. ICS feeds are authorized by a separate feed key in the URL,
+ * since calendar apps cannot send headers.
+ */
+@Service
+public class TenantService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final UserAccountRepository users;
+
+    @Value("${orbit.tenancy.enabled:false}")
+    private boolean enabled;
+
+    public TenantService(UserAccountRepository users) {
+        this.users = users;
+    }
+
+    public record SignIn(String userId, String token, String feedKey) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** The user an API token was issued to, or null when it is unknown. */
+    public String userForToken(String token) {
+        if (token == null || token.isBlank())
+            return null;
+        return users.findByTokenHash(hash(token)).map(UserAccount::getId).orElse(null);
+    }
+
+    public String userForFeedKey(String feedKey) {
+        if (feedKey == null || feedKey.isBlank())
+            return null;
+        return users.findByFeedKey(feedKey).map(UserAccount::getId).orElse(null);
+    }
+
+    /** Key for the user's ICS subscription URL; null when feeds need no key. */
+    public String feedKey(String userId) {
+        if (!enabled)
+            return null;
+        return users.findById(userId).map(UserAccount::getFeedKey).orElse(null);
+    }
+
+    /**
+     * The user id a Google account signs in as, so its calendar can be
+     * connected before {@link #signIn} issues a token.
+     */
+    public String accountId(String googleSubject) {
+        if (googleSubject == null || googleSubject.isBlank() || UserAccount.LOCAL.equals(googleSubject))
+            throw new IllegalArgumentException("Missing Google account id");
+        return googleSubject;
+    }
+
+    /**
+     * Creates or updates the user for a Google account and issues a new API
+     * token, which replaces the previous one. The feed key is kept so existing
+     * calendar subscriptions keep working.
+     */
+    @Transactional
+    public SignIn signIn(String googleSubject, String email) {
+        String id = accountId(googleSubject);
+        Instant now = Instant.now();
+        UserAccount user = users.findById(id).orElseGet(() -> {
+            UserAccount u = new UserAccount(id);
+            u.setCreatedAt(now);
+            return u;
+        });
+        String token = randomToken();
+        user.setTokenHash(hash(token));
+        if (user.getFeedKey() == null)
+            user.setFeedKey(randomToken());
+        if (email != null)
+            user.setEmail(email);
+        user.setSignedInAt(now);
+        users.save(user);
+        return new SignIn(user.getId(), token, user.getFeedKey());
+    }
+
+    private static String randomToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
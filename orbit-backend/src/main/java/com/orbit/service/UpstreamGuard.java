@@ -0,0 +1,76 @@
+package com.orbit.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the Gemini upstream: circuit breaker, then
+ * the adaptive rate limiter, then the in-flight cap. Every admitted call must
+ * be reported back exactly once through one of the {@code on*} methods.
+ */
+public class UpstreamGuard {
+
+    public enum Admission { ADMITTED, CIRCUIT_OPEN, RATE_LIMITED, CONCURRENCY_LIMIT }
+
+    private final CircuitBreaker breaker;
+    private final AdaptiveRateLimiter limiter;
+    private final Semaphore inFlight;
+
+    public UpstreamGuard(CircuitBreaker breaker, AdaptiveRateLimiter limiter, int maxInFlight) {
+        this.breaker = breaker;
+        this.limiter = limiter;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /** Waits at most maxWaitMs in total for a rate permit and an in-flight slot. */
+    public Admission admit(long maxWaitMs) throws InterruptedException {
+        if (!breaker.tryAcquire()) {
+            return Admission.CIRCUIT_OPEN;
+        }
+        long start = System.nanoTime();
+        long wait = limiter.reserve(maxWaitMs);
+        if (wait < 0) {
+            breaker.release();
+            return Admission.RATE_LIMITED;
+        }
+        try {
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            long left = maxWaitMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!inFlight.tryAcquire(Math.max(0, left), TimeUnit.MILLISECONDS)) {
+                breaker.release();
+                return Admission.CONCURRENCY_LIMIT;
+            }
+        } catch (InterruptedException e) {
+            breaker.release();
+            throw e;
+        }
+        return Admission.ADMITTED;
+    }
+
+    public void onSuccess() {
+        inFlight.release();
+        breaker.onSuccess();
+        limiter.onSuccess();
+    }
+
+    public void onThrottled(long retryAfterMs) {
+        inFlight.release();
+        breaker.onFailure();
+        limiter.onThrottled(retryAfterMs);
+    }
+
+    public void onFailure() {
+        inFlight.release();
+        breaker.onFailure();
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    public double currentRate() {
+        return limiter.currentRate();
+    }
+}
@@ -0,0 +1,137 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.orbit.entity.CalendarPush;
+import com.orbit.entity.Event;
+import com.orbit.entity.UserAccount;
+import com.orbit.orbit_backend.OrbitBackendApplication;
+import com.orbit.repository.CalendarPushRepository;
+import com.orbit.repository.GoogleCredentialRepository;
+import com.orbit.support.FakeGoogleServer;
+
+@SpringBootTest(classes = OrbitBackendApplication.class)
+class CalendarPushQueueTest {
+
+	private static final FakeGoogleServer GOOGLE = newServer();
+
+	@DynamicPropertySource
+	static void google(DynamicPropertyRegistry registry) {
+		// its own context, so its own database: create-drop would reset the shared one under the other tests
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:orbit_push;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;"
+				+ "DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=DATE,TIME,VALUE");
+		registry.add("google.oauth.token-url", () -> GOOGLE.baseUrl() + "/token");
+		registry.add("google.calendar.batch-url", () -> GOOGLE.baseUrl() + "/batch/calendar/v3");
+		registry.add("google.calendar.push.enabled", () -> "true");
+		registry.add("google.calendar.push.interval-ms", () -> "3600000");
+	}
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private GoogleCalendarService google;
+
+	@Autowired
+	private CalendarPushQueue pushQueue;
+
+	@Autowired
+	private CalendarPushRepository queue;
+
+	@Autowired
+	private GoogleCredentialRepository credentials;
+
+	@AfterEach
+	void tearDown() {
+		eventService.clearAll(UserAccount.LOCAL);
+		queue.deleteAllInBatch();
+		credentials.deleteAllInBatch();
+	}
+
+	@AfterAll
+	static void stopServer() {
+		GOOGLE.close();
+	}
+
+	@Test
+	void pushesATermInBatchesAndKeepsGoogleInStep() {
+		google.connect(UserAccount.LOCAL, google.exchangeCode("good-code"));
+		List<Event> term = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			term.add(event("Lecture " + i, "2026-09-" + String.format("%02d", 1 + i % 28), i));
+		}
+		List<Long> ids = eventService.saveAll(UserAccount.LOCAL, term).ids;
+		pushQueue.drain();
+
+		assertEquals(120, GOOGLE.events().size());
+		assertEquals(3, GOOGLE.batchCount()); // 50 + 50 + 20 calls
+		assertEquals(1, GOOGLE.tokenRequestCount()); // the access token from the exchange is reused
+
+		// an edit is resent with the same id: the insert conflicts and becomes an update
+		Event moved = event("Lecture 0", "2026-09-01", 0);
+		moved.setTime("11:30");
+		eventService.save(UserAccount.LOCAL, moved);
+		pushQueue.drain();
+		assertEquals(120, GOOGLE.events().size());
+		assertEquals("2026-09-01T11:30:00", GOOGLE.events().get(GoogleCalendarService.googleEventId(ids.get(0)))
+				.path("start").path("dateTime").asText());
+
+		// a rejected token is refreshed and the batch resent
+		GOOGLE.expireAccessToken();
+		eventService.delete(UserAccount.LOCAL, ids.get(1));
+		pushQueue.drain();
+		assertFalse(GOOGLE.events().containsKey(GoogleCalendarService.googleEventId(ids.get(1))));
+		assertEquals(2, GOOGLE.tokenRequestCount());
+
+		// a failed batch stays queued with backoff
+		GOOGLE.failNextBatches(1);
+		eventService.delete(UserAccount.LOCAL, ids.get(2));
+		pushQueue.drain();
+		CalendarPush pending = queue.findById(ids.get(2)).orElseThrow();
+		assertEquals(1, pending.getAttempts());
+		assertEquals("batch 503", pending.getLastError());
+		assertEquals(1, pushQueue.status(UserAccount.LOCAL).pending());
+
+		// rows with nothing to send are settled in place and do not end the drain early
+		List<Event> undated = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			undated.add(event("Reading " + i, i < 110 ? "TBA" : "2026-10-" + String.format("%02d", i - 100), i));
+		}
+		List<Long> later = eventService.saveAll(UserAccount.LOCAL, undated).ids;
+		pushQueue.drain();
+		for (Long id : later.subList(110, 120)) {
+			assertTrue(GOOGLE.events().containsKey(GoogleCalendarService.googleEventId(id)));
+		}
+		assertTrue(queue.findAllById(later).isEmpty());
+	}
+
+	private static Event event(String title, String date, int i) {
+		Event e = new Event();
+		e.setTitle(title);
+		e.setDate(date);
+		e.setTime(i % 2 == 0 ? "10:00" : null);
+		e.setUrl("https://example.edu/cs201/" + i);
+		return e;
+	}
+
+	private static FakeGoogleServer newServer() {
+		try {
+			return new FakeGoogleServer();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.orbit.dto.ExtractedEvent;
+
+class DocumentChunkerTest {
+
+	@Test
+	void splitsOnSectionsAndRepeatsTheTail() {
+		String text = "Week 1:\nIntro lecture on 2026-01-12.\n\nWeek 2:\nQuiz one on 2026-01-19. Bring a pencil.\n\n"
+				+ "Week 3:\nMidterm exam on 2026-01-26 in the main hall.";
+
+		List<String> chunks = new DocumentChunker(100, 30).split(text);
+
+		assertEquals(List.of(
+				"Week 1:\nIntro lecture on 2026-01-12.\n\nWeek 2:\nQuiz one on 2026-01-19. Bring a pencil.",
+				"2026-01-19. Bring a pencil.\n\nWeek 3:\nMidterm exam on 2026-01-26 in the main hall."), chunks);
+		assertEquals(List.of(text), new DocumentChunker(1000, 30).split(text));
+	}
+
+	@Test
+	void cutsOversizedParagraphsWithinTheLimit() {
+		List<String> chunks = new DocumentChunker(50, 10).split("word ".repeat(40));
+
+		assertTrue(chunks.size() > 1);
+		assertTrue(chunks.stream().allMatch(c -> c.length() <= 50));
+	}
+
+	@Test
+	void mergerFoldsEventsSeenByOverlappingChunks() {
+		EventMerger merger = new EventMerger();
+		merger.add(List.of(event("CS101 Midterm", "2026-03-05", null, 0.7)));
+
+		List<ExtractedEvent> added = merger.add(List.of(
+				event("Midterm", "2026-03-05", "14:30", 0.9),
+				event("Midterm", "2026-04-20", null, 0.9)));
+
+		assertEquals(1, added.size());
+		assertEquals("2026-04-20", added.get(0).date);
+		assertEquals(2, merger.events().size());
+		assertEquals("14:30", merger.events().get(0).time);
+	}
+
+	@Test
+	void mergerKeepsEventsThatOnlyShareLettersOrLackADate() {
+		List<ExtractedEvent> merged = EventMerger.merge(List.of(
+				event("Quiz 1", "2026-03-05", null, 0.8),
+				event("Quiz 10", "2026-03-05", null, 0.8),
+				event("Lab", "2026-03-05", null, 0.8),
+				event("Collaboration session", "2026-03-05", null, 0.8),
+				event("Exam", null, null, 0.8),
+				event("Midterm exam", null, null, 0.8)));
+
+		assertEquals(6, merged.size());
+		assertEquals(1, new EventMerger().add(List.of(merged.get(4), merged.get(4))).size());
+	}
+
+	private static ExtractedEvent event(String title, String date, String time, double confidence) {
+		ExtractedEvent ev = new ExtractedEvent();
+		ev.title = title;
+		ev.date = date;
+		ev.time = time;
+		ev.confidence = confidence;
+		return ev;
+	}
+}
@@ -0,0 +1,28 @@
+package com.orbit.service;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * The {@link EventSearchServiceTest} cases against the generated tsvector
+ * column. Needs a throwaway PostgreSQL database, for example
+ * {@code ORBIT_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/orbit_test}
+ * plus {@code ORBIT_TEST_POSTGRES_USER} and {@code ORBIT_TEST_POSTGRES_PASSWORD};
+ * skipped otherwise.
+ */
+@EnabledIfEnvironmentVariable(named = "ORBIT_TEST_POSTGRES_URL", matches = ".+")
+class EventSearchServicePostgresTest extends EventSearchServiceTest {
+
+	@DynamicPropertySource
+	static void postgres(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getenv("ORBIT_TEST_POSTGRES_URL"));
+		registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("ORBIT_TEST_POSTGRES_USER", "postgres"));
+		registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("ORBIT_TEST_POSTGRES_PASSWORD", ""));
+	}
+
+	@Override
+	boolean expectsPostgres() {
+		return true;
+	}
+}
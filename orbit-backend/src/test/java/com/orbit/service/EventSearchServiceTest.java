@@ -0,0 +1,118 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.orbit.dto.EventSummary;
+import com.orbit.entity.Event;
+import com.orbit.entity.UserAccount;
+import com.orbit.orbit_backend.OrbitBackendApplication;
+
+/**
+ * Runs on H2, so it covers the in-process inverted index.
+ * {@link EventSearchServicePostgresTest} runs the same cases against the
+ * tsvector query.
+ */
+@SpringBootTest(classes = OrbitBackendApplication.class)
+class EventSearchServiceTest {
+
+	private static final String OTHER = "other-user";
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private EventSearchService searchService;
+
+	@AfterEach
+	void tearDown() {
+		eventService.clearAll(UserAccount.LOCAL);
+		eventService.clearAll(OTHER);
+	}
+
+	boolean expectsPostgres() {
+		return false;
+	}
+
+	@Test
+	void runsOnTheExpectedPath() {
+		assertEquals(expectsPostgres(), ReflectionTestUtils.getField(searchService, "postgres"));
+	}
+
+	@Test
+	void titleMatchesRankAboveSnippetMatches() {
+		Event inSnippet = event("Office hours", "Bring your compiler questions and the parser draft.");
+		Event inTitle = event("Compiler parser lab", null);
+		eventService.save(UserAccount.LOCAL, inSnippet);
+		eventService.save(UserAccount.LOCAL, inTitle);
+		eventService.save(UserAccount.LOCAL, event("Database lecture", "Bring a laptop."));
+
+		assertEquals(List.of("Compiler parser lab", "Office hours"), titles(UserAccount.LOCAL, "compiler PARSER"));
+	}
+
+	@Test
+	void everyQueryTermMustMatch() {
+		eventService.save(UserAccount.LOCAL, event("Compiler lecture", null));
+		eventService.save(UserAccount.LOCAL, event("Midterm exam", null));
+		eventService.save(UserAccount.LOCAL, event("Compiler exam", "Covers parsing and type checking."));
+
+		assertEquals(List.of("Compiler exam"), titles(UserAccount.LOCAL, "compiler exam"));
+		assertEquals(List.of("Compiler exam"), titles(UserAccount.LOCAL, "exam parsing"));
+		assertEquals(List.of(), titles(UserAccount.LOCAL, "compiler midterm"));
+	}
+
+	@Test
+	void onlyReturnsTheSearchingUsersEvents() {
+		Event mine = eventService.save(UserAccount.LOCAL, event("Compiler exam", null));
+		Event theirs = eventService.save(OTHER, event("Compiler exam", null));
+
+		assertEquals(List.of(mine.getId()), ids(UserAccount.LOCAL, "compiler exam"));
+		assertEquals(List.of(theirs.getId()), ids(OTHER, "compiler exam"));
+		assertEquals(List.of(), ids("nobody", "compiler exam"));
+	}
+
+	@Test
+	void followsSavesAndDeletes() {
+		Event saved = eventService.save(UserAccount.LOCAL, event("Midterm exam", "Room 101."));
+		assertEquals(List.of(saved.getId()), ids(UserAccount.LOCAL, "midterm"));
+
+		Event edit = event("Final exam", "Moved to the gym.");
+		edit.setId(saved.getId());
+		eventService.save(UserAccount.LOCAL, edit);
+		assertEquals(List.of(), ids(UserAccount.LOCAL, "midterm"));
+		assertEquals(List.of(), ids(UserAccount.LOCAL, "room"));
+		assertEquals(List.of(saved.getId()), ids(UserAccount.LOCAL, "final gym"));
+
+		eventService.delete(UserAccount.LOCAL, saved.getId());
+		assertEquals(List.of(), ids(UserAccount.LOCAL, "final"));
+
+		eventService.saveAll(UserAccount.LOCAL, List.of(event("Quiz one", null), event("Quiz two", null)));
+		assertEquals(List.of("Quiz two", "Quiz one"), titles(UserAccount.LOCAL, "quiz")); // ties: newest first
+		eventService.clearAll(UserAccount.LOCAL);
+		assertEquals(List.of(), ids(UserAccount.LOCAL, "quiz"));
+	}
+
+	private List<String> titles(String userId, String query) {
+		return searchService.search(userId, query, 10, 0).items.stream().map(EventSummary::getTitle).toList();
+	}
+
+	private List<Long> ids(String userId, String query) {
+		return searchService.search(userId, query, 10, 0).items.stream().map(EventSummary::getId).toList();
+	}
+
+	private static Event event(String title, String snippet) {
+		Event e = new Event();
+		e.setTitle(title);
+		e.setDate("2026-03-05");
+		e.setUrl("https://x.edu/" + title.toLowerCase().replace(' ', '-'));
+		e.setSourceSnippet(snippet);
+		return e;
+	}
+}
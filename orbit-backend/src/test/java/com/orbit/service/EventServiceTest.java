@@ -0,0 +1,147 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.orbit.dto.BulkSaveResponse;
+import com.orbit.dto.EventChanges;
+import com.orbit.dto.EventSearchPage;
+import com.orbit.dto.EventSummary;
+import com.orbit.entity.Event;
+import com.orbit.entity.UserAccount;
+import com.orbit.orbit_backend.OrbitBackendApplication;
+import com.orbit.repository.EventRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(classes = OrbitBackendApplication.class)
+class EventServiceTest {
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private EventRepository repo;
+
+	@Autowired
+	private EventSearchService searchService;
+
+	@Autowired
+	private EntityManagerFactory emf;
+
+	@AfterEach
+	void tearDown() {
+		eventService.clearAll(UserAccount.LOCAL);
+	}
+
+	@Test
+	void bulkSaveBatchesInsertsAndUpsertsByNaturalKey() {
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			events.add(event("Lecture " + i, "2026-03-05", "https://x.edu/cs101"));
+		}
+		events.add(event("  LECTURE 0!", "2026-03-05", "https://x.edu/cs101#week1")); // same key as item 0
+
+		Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+		stats.setStatisticsEnabled(true);
+		stats.clear();
+		BulkSaveResponse first = eventService.saveAll(UserAccount.LOCAL, events);
+		long statements = stats.getPrepareStatementCount();
+		stats.setStatisticsEnabled(false);
+
+		assertEquals(100, first.created);
+		assertEquals(1, first.duplicates);
+		assertEquals(first.ids.get(0), first.ids.get(100));
+		assertTrue(statements < 10, "expected batched inserts, got " + statements + " statements");
+
+		events.forEach(e -> e.setTag("Educational"));
+		BulkSaveResponse second = eventService.saveAll(UserAccount.LOCAL, events);
+
+		assertEquals(0, second.created);
+		assertEquals(100, second.updated);
+		assertEquals(first.ids, second.ids);
+		assertEquals(100, repo.count());
+		assertEquals("Educational", repo.findById(first.ids.get(5)).orElseThrow().getTag());
+	}
+
+	@Test
+	void saveMergesIntoTheCapturedEvent() {
+		Event saved = eventService.save(UserAccount.LOCAL, event("Team sync", "2026-03-05", "https://x.com"));
+		Event again = event("team  sync", "2026-03-05", "https://x.com");
+		again.setTime("15:00");
+
+		assertEquals(saved.getId(), eventService.save(UserAccount.LOCAL, again).getId());
+		assertEquals(1, repo.count());
+		assertEquals("15:00", repo.findAll().get(0).getTime());
+	}
+
+	@Test
+	void changesTokenStaysBehindWritesThatMayNotHaveCommitted() {
+		Event saved = eventService.save(UserAccount.LOCAL, event("Team sync", "2026-03-05", "https://x.com"));
+
+		EventChanges snapshot = eventService.changesSince(UserAccount.LOCAL, null);
+		assertTrue(Long.parseLong(snapshot.token) < saved.getUpdatedAt().toEpochMilli());
+		EventChanges next = eventService.changesSince(UserAccount.LOCAL, snapshot.token);
+		assertEquals(List.of(saved.getId()), next.upserts.stream().map(Event::getId).toList());
+		assertTrue(Long.parseLong(next.token) < saved.getUpdatedAt().toEpochMilli());
+	}
+
+	@Test
+	void rangeQueriesUseTypedStartColumns() {
+		Event late = event("Seminar", "2026-04-10", "https://x.edu/a");
+		late.setTime("9:30");
+		Event early = event("Breakfast", "2026-04-10", "https://x.edu/b");
+		early.setTime("08:00");
+		eventService.saveAll(UserAccount.LOCAL, List.of(late, early,
+				event("Deadline", "2026-05-01", "https://x.edu/c"),
+				event("Sometime", "next week", "https://x.edu/d")));
+
+		Event stored = repo.findById(late.getId()).orElseThrow();
+		assertEquals(LocalDate.of(2026, 4, 10), stored.getStartDate());
+		assertEquals(LocalTime.of(9, 30), stored.getStartTime());
+
+		List<EventSummary> april = repo.findStartingBetween(UserAccount.LOCAL, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 5, 1));
+		assertEquals(List.of("Breakfast", "Seminar"), april.stream().map(EventSummary::getTitle).toList());
+		assertEquals(3, repo.findStartingBetween(UserAccount.LOCAL, LocalDate.of(2026, 1, 1), LocalDate.of(2027, 1, 1)).size());
+	}
+
+	@Test
+	void searchRanksTitleMatchesFirstAndFollowsDeletes() {
+		Event inSnippet = event("Office hours", "2026-03-01", "https://x.edu/1");
+		inSnippet.setSourceSnippet("Bring questions about the compiler project");
+		Event inTitle = event("Compiler project due", "2026-03-02", "https://x.edu/2");
+		Event other = event("Compiler lecture", "2026-03-03", "https://x.edu/3");
+		eventService.saveAll(UserAccount.LOCAL, List.of(inSnippet, inTitle, other));
+
+		EventSearchPage first = searchService.search(UserAccount.LOCAL, "Compiler PROJECT", 1, 0);
+		assertEquals(List.of("Compiler project due"), first.items.stream().map(EventSummary::getTitle).toList());
+		assertEquals(1, first.nextOffset);
+		EventSearchPage second = searchService.search(UserAccount.LOCAL, "compiler project", 1, 1);
+		assertEquals(List.of("Office hours"), second.items.stream().map(EventSummary::getTitle).toList());
+		assertEquals(null, second.nextOffset);
+
+		eventService.delete(UserAccount.LOCAL, inTitle.getId());
+		assertEquals(List.of("Office hours"), searchService.search(UserAccount.LOCAL, "compiler project", 10, 0).items
+				.stream().map(EventSummary::getTitle).toList());
+	}
+
+	private static Event event(String title, String date, String url) {
+		Event e = new Event();
+		e.setTitle(title);
+		e.setDate(date);
+		e.setUrl(url);
+		return e;
+	}
+}
@@ -0,0 +1,60 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class EventSimilarityIndexTest {
+
+	@Test
+	void findsTheSameEventCapturedFromAnotherPage() {
+		EventSimilarityIndex index = new EventSimilarityIndex(null, new LocalEventExtractor("en-US"), null, true, 0.6);
+		index.put(1L, "amy", "CS101 Midterm Exam", "2026-03-18", "The CS101 midterm exam is on March 18 at 2:30pm in Hall B");
+		index.put(2L, "amy", "CS101 Final Exam", "2026-05-04", "The CS101 final exam is on May 4 at 9am in the gym");
+		index.put(3L, "amy", "Spring Mixer", "2026-03-18", "Join us for the spring mixer on March 18");
+
+		EventSimilarityIndex.Match match = index.findDuplicate("amy", "CS101 midterm exam!", "2026-03-18",
+				"Reminder: the CS101 midterm exam is on March 18 at 2:30pm in Hall B");
+		assertNotNull(match);
+		assertEquals(1L, match.eventId());
+
+		// same title on another day is another event, and the event itself is not its own duplicate
+		assertNull(index.findDuplicate("amy", "CS101 Midterm Exam", "2026-03-25",
+				"The CS101 midterm exam is on March 18 at 2:30pm in Hall B"));
+		assertNull(index.findDuplicate("amy", "CS101 Midterm Exam", "2026-03-18",
+				"The CS101 midterm exam is on March 18 at 2:30pm in Hall B", 1L));
+		// another user's copy of the page is theirs alone
+		assertNull(index.findDuplicate("ben", "CS101 midterm exam!", "2026-03-18",
+				"Reminder: the CS101 midterm exam is on March 18 at 2:30pm in Hall B"));
+		assertNull(index.findDuplicate("amy", "Office Hours", "2026-03-18", "Office hours with the TA in room 204"));
+	}
+
+	@Test
+	void editsAndDeletesMoveEventsBetweenBuckets() {
+		EventSimilarityIndex index = new EventSimilarityIndex(null, new LocalEventExtractor("en-US"), null, true, 0.6);
+		index.put(1L, "amy", "Robotics Club Meeting", "2026-04-02", "Weekly robotics club meeting in the lab");
+		index.put(1L, "amy", "Robotics Club Meeting", "2026-04-09", "Weekly robotics club meeting in the lab");
+
+		assertNull(index.findDuplicate("amy", "Robotics Club Meeting", "2026-04-02", "Weekly robotics club meeting in the lab"));
+		assertNotNull(index.findDuplicate("amy", "Robotics club meeting", "2026-04-09", "Weekly robotics club meeting in the lab"));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void comparesDaysWrittenInDifferentFormats() {
+		EventSimilarityIndex index = new EventSimilarityIndex(null, new LocalEventExtractor("en-US"), null, true, 0.6);
+		index.put(1L, "amy", "CS101 Midterm Exam", "March 18, 2026", "The CS101 midterm exam is on March 18 at 2:30pm in Hall B");
+		index.put(2L, "amy", "Spring Mixer", "sometime in spring", "Join us for the spring mixer");
+
+		EventSimilarityIndex.Match match = index.findDuplicate("amy", "CS101 midterm exam", "2026-03-18",
+				"The CS101 midterm exam is on March 18 at 2:30pm in Hall B");
+		assertNotNull(match);
+		assertEquals(1L, match.eventId());
+		assertNotNull(index.findDuplicate("amy", "CS101 midterm exam", "03/18/2026",
+				"The CS101 midterm exam is on March 18 at 2:30pm in Hall B"));
+		// undatable text still only matches itself
+		assertNotNull(index.findDuplicate("amy", "Spring mixer", " sometime in spring ", "Join us for the spring mixer"));
+	}
+}
@@ -0,0 +1,81 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.orbit.dto.ExtractRequest;
+import com.orbit.service.GeminiService.EventExtraction;
+import com.orbit.support.TestUpstreams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExtractionBatcherTest {
+
+	private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private ExtractionBatcher batcher;
+
+	@BeforeEach
+	void setUp() {
+		GeminiService gemini = new GeminiService(new RestTemplate(), new LocalEventExtractor("en-US"),
+				new ExtractionMetrics(new SimpleMeterRegistry()), TestUpstreams.unlimited(1), executor) {
+			@Override
+			public List<List<EventExtraction>> extractEventsBatch(List<ExtractRequest> items) {
+				batchSizes.add(items.size());
+				List<List<EventExtraction>> results = new ArrayList<>();
+				for (ExtractRequest item : items) {
+					EventExtraction e = new EventExtraction();
+					e.title = item.title();
+					results.add(List.of(e));
+				}
+				return results;
+			}
+		};
+		batcher = new ExtractionBatcher(gemini, executor);
+		ReflectionTestUtils.setField(batcher, "windowMs", 200L);
+		ReflectionTestUtils.setField(batcher, "maxBatch", 4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		batcher.shutdown();
+		executor.shutdown();
+	}
+
+	@Test
+	void coalescesRequestsWithinWindow() {
+		CompletableFuture<List<EventExtraction>> a = batcher.submit(new ExtractRequest("", "a", "x"));
+		CompletableFuture<List<EventExtraction>> b = batcher.submit(new ExtractRequest("", "b", "y"));
+
+		assertEquals("a", a.join().get(0).title);
+		assertEquals("b", b.join().get(0).title);
+		assertEquals(List.of(2), batchSizes);
+	}
+
+	@Test
+	void submitAllSplitsIntoFullBatches() {
+		List<ExtractRequest> reqs = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			reqs.add(new ExtractRequest("", "t" + i, "s" + i));
+		}
+
+		List<CompletableFuture<List<EventExtraction>>> futures = batcher.submitAll(reqs);
+
+		for (int i = 0; i < 6; i++) {
+			assertEquals("t" + i, futures.get(i).join().get(0).title);
+		}
+		assertEquals(List.of(4, 2), batchSizes.stream().sorted((x, y) -> y - x).toList());
+	}
+}
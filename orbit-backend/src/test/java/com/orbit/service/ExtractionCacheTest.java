@@ -0,0 +1,66 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.orbit.repository.ExtractionCacheRepository;
+import com.orbit.service.GeminiService.EventExtraction;
+
+class ExtractionCacheTest {
+
+	private ExtractionCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new ExtractionCache(mock(ExtractionCacheRepository.class));
+		ReflectionTestUtils.setField(cache, "maxEntries", 2);
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+	}
+
+	@Test
+	void keyIgnoresWhitespaceAndFragment() {
+		assertEquals(
+				ExtractionCache.keyFor("Exam on  2026-03-05\n", "CS101", "https://x.edu/a#top"),
+				ExtractionCache.keyFor(" Exam on 2026-03-05", "CS101 ", "https://x.edu/a"));
+		assertNotEquals(
+				ExtractionCache.keyFor("ab", "c", ""),
+				ExtractionCache.keyFor("a", "bc", ""));
+	}
+
+	@Test
+	void countsHitsMissesAndLruEvictions() {
+		cache.put("a", extraction("A"));
+		cache.put("b", extraction("B"));
+		assertEquals("A", cache.get("a").orElseThrow().get(0).title); // touch a so b is eldest
+		cache.put("c", extraction("C"));
+
+		assertTrue(cache.get("b").isEmpty());
+		assertTrue(cache.get("a").isPresent());
+		assertEquals(2L, cache.stats().get("hits"));
+		assertEquals(1L, cache.stats().get("misses"));
+		assertEquals(1L, cache.stats().get("evictions"));
+	}
+
+	@Test
+	void expiredEntriesAreEvicted() {
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+		cache.put("a", extraction("A"));
+
+		assertTrue(cache.get("a").isEmpty());
+		assertEquals(1L, cache.stats().get("evictions"));
+	}
+
+	private static List<EventExtraction> extraction(String title) {
+		EventExtraction e = new EventExtraction();
+		e.title = title;
+		return List.of(e);
+	}
+}
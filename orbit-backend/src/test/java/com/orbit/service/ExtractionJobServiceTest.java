@@ -0,0 +1,145 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.orbit.dto.ExtractResponse;
+import com.orbit.dto.ExtractedEvent;
+import com.orbit.dto.JobStatus;
+import com.orbit.entity.UserAccount;
+
+class ExtractionJobServiceTest {
+
+	private final ExtractionService extractionService = mock(ExtractionService.class);
+	private ExtractionJobService jobs;
+
+	@AfterEach
+	void tearDown() {
+		if (jobs != null) {
+			jobs.shutdown();
+		}
+	}
+
+	@Test
+	void publishesEventsPerChunkAndPollsFromOffset() throws Exception {
+		when(extractionService.extractAsync(any(), any(), any())).thenAnswer(inv -> {
+			ExtractionService.Page chunk = inv.getArgument(1);
+			return CompletableFuture.completedFuture(response(chunk.chunks().get(0)));
+		});
+		jobs = new ExtractionJobService(extractionService, 1, 1);
+
+		ExtractionJob job = jobs.submit(UserAccount.LOCAL, page("CS101", "Quiz one", "Quiz two", "Final"), () -> {});
+		JobStatus done = await(job);
+
+		assertEquals(3, done.chunksTotal);
+		assertEquals(3, done.chunksDone);
+		assertEquals(List.of("Quiz two", "Final"), job.snapshot(1).detected.stream().map(e -> e.title).toList());
+		assertEquals(3, job.snapshot(1).next);
+	}
+
+	@Test
+	void finishesWhenSubmittingAChunkThrows() throws Exception {
+		when(extractionService.extractAsync(any(), any(), any()))
+				.thenReturn(CompletableFuture.completedFuture(response("Quiz one")))
+				.thenThrow(new RejectedExecutionException("batcher full"));
+		jobs = new ExtractionJobService(extractionService, 1, 1);
+
+		ExtractionJob job = jobs.submit(UserAccount.LOCAL, page("CS101", "Quiz one", "Quiz two"), () -> {});
+		JobStatus done = await(job);
+
+		assertEquals(List.of("Quiz one"), done.detected.stream().map(e -> e.title).toList());
+		assertTrue(job.expired(System.currentTimeMillis() + 1000, 0)); // swept like any finished job
+	}
+
+	@Test
+	void rejectsWhenQueueIsFull() {
+		CompletableFuture<ExtractResponse> never = new CompletableFuture<>();
+		when(extractionService.extractAsync(any(), any(), any())).thenReturn(never);
+		jobs = new ExtractionJobService(extractionService, 1, 1);
+
+		jobs.submit(UserAccount.LOCAL, page("a", "busy"), () -> {}); // taken by the only worker
+		ThreadPoolExecutor workers = (ThreadPoolExecutor) ReflectionTestUtils.getField(jobs, "workers");
+		while (workers.getActiveCount() == 0) {
+			Thread.onSpinWait();
+		}
+		jobs.submit(UserAccount.LOCAL, page("b", "queued"), () -> {});
+
+		assertThrows(RejectedExecutionException.class, () -> jobs.submit(UserAccount.LOCAL, page("c", "rejected"), () -> {}));
+		never.complete(response("x"));
+	}
+
+	@Test
+	void aSlowSubscriberDelaysNoOneElse() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch fastGotChunk = new CountDownLatch(1);
+		ExecutorService sends = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().factory());
+		try {
+			ExtractionJob job = new ExtractionJob("j", UserAccount.LOCAL, sends);
+			job.subscribe(new SseEmitter() {
+				@Override
+				public void send(SseEventBuilder event) throws IOException {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						throw new IOException(e);
+					}
+				}
+			});
+			job.subscribe(new SseEmitter() {
+				@Override
+				public void send(SseEventBuilder event) {
+					fastGotChunk.countDown();
+				}
+			});
+
+			job.chunkDone(0, List.of(response("Quiz one").detected.get(0))); // returns while the slow send blocks
+			assertTrue(fastGotChunk.await(5, TimeUnit.SECONDS));
+			assertEquals(1, job.snapshot(0).chunksDone);
+		} finally {
+			release.countDown();
+			sends.shutdownNow();
+		}
+	}
+
+	private static JobStatus await(ExtractionJob job) throws InterruptedException {
+		for (int i = 0; i < 200; i++) {
+			JobStatus s = job.snapshot(0);
+			if ("DONE".equals(s.status)) {
+				return s;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("job did not finish");
+	}
+
+	private static ExtractionService.Page page(String title, String... chunks) {
+		return new ExtractionService.Page("https://x.edu", title, List.of(chunks), 0);
+	}
+
+	private static ExtractResponse response(String title) {
+		ExtractedEvent ev = new ExtractedEvent();
+		ev.title = title;
+		ExtractResponse resp = new ExtractResponse();
+		resp.detected = List.of(ev);
+		return resp;
+	}
+}
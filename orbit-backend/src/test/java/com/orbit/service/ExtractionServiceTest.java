@@ -0,0 +1,96 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.orbit.dto.ExtractRequest;
+import com.orbit.dto.ExtractResponse;
+import com.orbit.entity.Event;
+import com.orbit.entity.UserAccount;
+import com.orbit.repository.EventRepository;
+import com.orbit.repository.ExtractionCacheRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExtractionServiceTest {
+
+	private final ExtractionBatcher batcher = mock(ExtractionBatcher.class);
+	private final EventRepository events = mock(EventRepository.class);
+	private final List<String> prompts = new ArrayList<>();
+
+	@Test
+	void longPagesReachGeminiPastThePromptBudget() {
+		when(batcher.submitAll(any())).thenAnswer(inv -> {
+			List<ExtractRequest> reqs = inv.getArgument(0);
+			reqs.forEach(r -> prompts.add(r.snippet()));
+			return reqs.stream().map(r -> CompletableFuture.completedFuture(List.<GeminiService.EventExtraction>of())).toList();
+		});
+		StringBuilder page = new StringBuilder("Course schedule");
+		for (int week = 1; week <= 40; week++) {
+			page.append("\n\nWeek ").append(week).append(" quiz on 2026-").append(String.format("%02d", 1 + week / 28))
+					.append('-').append(String.format("%02d", 1 + week % 28)).append(" in Hall B.");
+		}
+		// about 1,300 characters against a budget of 100 tokens (400 characters)
+		ExtractionService service = service(new PromptCompactor(new LocalEventExtractor("en-US"), 100, 4),
+				new DocumentChunker(300, 0));
+
+		ExtractionService.Page prepared = service.prepare(new ExtractRequest("https://x.edu", "CS101", page.toString()));
+		service.extractAsync(UserAccount.LOCAL, prepared, null).join();
+
+		assertEquals(prepared.chunks().size(), prompts.size());
+		assertTrue(prompts.size() > 1);
+		assertTrue(prompts.get(prompts.size() - 1).contains("Week 40 quiz"));
+		assertTrue(prompts.stream().allMatch(p -> p.length() <= 400));
+	}
+
+	@Test
+	void storedEventsAnswerSingleEventPagesOnly() {
+		EventSimilarityIndex index = new EventSimilarityIndex(null, new LocalEventExtractor("en-US"), null, true, 0.6);
+		String stored = "The CS101 midterm exam is on 2026-03-18 at 2:30pm in Hall B. Bring a calculator.";
+		index.put(7L, UserAccount.LOCAL, "CS101 Midterm Exam", "2026-03-18", stored);
+		Event event = new Event();
+		event.setTitle("CS101 Midterm Exam");
+		event.setDate("2026-03-18");
+		event.setSourceSnippet(stored);
+		when(events.findByIdAndUserId(7L, UserAccount.LOCAL)).thenReturn(Optional.of(event));
+		when(batcher.submit(any())).thenAnswer(inv -> {
+			prompts.add(inv.<ExtractRequest>getArgument(0).snippet());
+			return CompletableFuture.completedFuture(List.<GeminiService.EventExtraction>of());
+		});
+		ExtractionService service = service(new PromptCompactor(new LocalEventExtractor("en-US"), 0, 4),
+				new DocumentChunker(3000, 0), index);
+		ReflectionTestUtils.setField(service, "skipDuplicates", true);
+		ReflectionTestUtils.setField(service, "skipDuplicatesMinScore", 0.6);
+		String intro = "Welcome back, everyone. The forum is the best place for questions about the course.\n\n";
+
+		ExtractResponse single = service.extractAsync(UserAccount.LOCAL,
+				new ExtractRequest("https://forum.x.edu/t/1", "CS101 Midterm Exam", intro + stored)).join();
+		assertEquals(List.of("CS101 Midterm Exam"), single.detected.stream().map(e -> e.title).toList());
+		assertTrue(prompts.isEmpty());
+
+		service.extractAsync(UserAccount.LOCAL, new ExtractRequest("https://forum.x.edu/t/2", "CS101 Midterm Exam",
+				intro + stored + "\n\nThe final exam is on 2026-05-04 at 9am in the gym.")).join();
+		assertEquals(1, prompts.size()); // two events: Gemini has to see the page
+	}
+
+	private ExtractionService service(PromptCompactor compactor, DocumentChunker chunker) {
+		return service(compactor, chunker, new EventSimilarityIndex(null, new LocalEventExtractor("en-US"), null, true, 0.6));
+	}
+
+	private ExtractionService service(PromptCompactor compactor, DocumentChunker chunker, EventSimilarityIndex index) {
+		return new ExtractionService(new ExtractionCache(mock(ExtractionCacheRepository.class)), batcher,
+				new LocalEventExtractor("en-US"), new ExtractionMetrics(new SimpleMeterRegistry()), chunker, compactor,
+				index, events);
+	}
+}
@@ -0,0 +1,196 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orbit.dto.ExtractRequest;
+import com.orbit.service.GeminiService.EventExtraction;
+import com.orbit.support.FakeGeminiServer;
+import com.orbit.support.TestUpstreams;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GeminiServiceTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private FakeGeminiServer server;
+	private GeminiService gemini;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new FakeGeminiServer();
+		gemini = gemini(TestUpstreams.unlimited(4));
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.close();
+		executor.shutdown();
+	}
+
+	@Test
+	void timesSuccessfulCallsAndRecordsConfidence() {
+		EventExtraction e = gemini.extractEvents("Team sync on March 5", "Calendar", "https://x.com").get(0);
+
+		assertFalse(e.fallback);
+		assertEquals(1, registry.get("orbit.gemini.call").tag("outcome", "success").timer().count());
+		assertEquals(1, registry.get("orbit.gemini.parse").timer().count());
+		assertEquals(0.92, registry.get("orbit.extract.confidence").tag("source", "gemini").summary().max(), 1e-9);
+		assertTrue(registry.find("orbit.extract.fallback").counters().isEmpty());
+	}
+
+	@Test
+	void countsFallbacksByCause() {
+		server.errorRate(1.0);
+		assertTrue(gemini.extractEvents("Exam 2026-03-05", "CS101", "").get(0).fallback);
+
+		server.errorRate(0).eventJson("not json at all");
+		assertTrue(gemini.extractEvents("Exam 2026-03-05", "CS101", "").get(0).fallback);
+
+		ReflectionTestUtils.setField(gemini, "apiKey", "");
+		assertTrue(gemini.extractEvents("Exam 2026-03-05", "CS101", "").get(0).fallback);
+
+		assertEquals(1, fallbacks(ExtractionMetrics.HTTP_ERROR));
+		assertEquals(1, fallbacks(ExtractionMetrics.PARSE_ERROR));
+		assertEquals(1, fallbacks(ExtractionMetrics.NO_KEY));
+		assertEquals(1, registry.get("orbit.gemini.call").tag("outcome", ExtractionMetrics.HTTP_ERROR).timer().count());
+	}
+
+	@Test
+	void retryAfterPausesCallsUntilTheUpstreamIsReady() {
+		Clock clock = Clock.systemUTC();
+		gemini = gemini(new UpstreamGuard(new CircuitBreaker(20, 10, 0.5, 30_000, clock),
+				new AdaptiveRateLimiter(10, 0.2, 50, 1, 10, clock), 4));
+		ReflectionTestUtils.setField(gemini, "acquireTimeoutMs", 0L);
+		server.throttleRate(1.0, 30);
+
+		assertTrue(gemini.extractEvents("Exam 2026-03-05", "CS101", "").get(0).fallback);
+		assertTrue(gemini.extractEvents("Exam 2026-03-05", "CS101", "").get(0).fallback);
+
+		assertEquals(1, server.requestCount());
+		assertEquals(1, fallbacks(ExtractionMetrics.THROTTLED));
+		assertEquals(1, fallbacks(ExtractionMetrics.RATE_LIMITED));
+	}
+
+	@Test
+	void openCircuitShortCircuitsToLocalExtraction() {
+		Clock clock = Clock.systemUTC();
+		gemini = gemini(new UpstreamGuard(new CircuitBreaker(4, 2, 0.5, 30_000, clock),
+				new AdaptiveRateLimiter(1000, 1000, 1000, 0, 1000, clock), 4));
+		server.errorRate(1.0);
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(gemini.extractEvents("Exam 2026-03-05", "CS101", "").get(0).fallback);
+		}
+
+		assertEquals(2, server.requestCount());
+		assertEquals(3, fallbacks(ExtractionMetrics.CIRCUIT_OPEN));
+	}
+
+	@Test
+	void hedgesSlowCalls() {
+		ReflectionTestUtils.setField(gemini, "hedgeDelayMs", 50L);
+		server.latencyMs(300);
+
+		assertFalse(gemini.extractEvents("Team sync on March 5", "Calendar", "").get(0).fallback);
+
+		assertEquals(2, server.requestCount());
+		assertEquals(1, registry.get("orbit.gemini.hedge").counter().count());
+	}
+
+	@Test
+	void streamedEventsArriveBeforeTheAnswerIsComplete() {
+		ReflectionTestUtils.setField(gemini, "streamEnabled", true);
+		server.streamPauseMs(20).eventJson(
+				"{\"title\":\"Quiz 1\",\"date\":\"2026-03-05\",\"confidence\":0.9},"
+						+ "{\"title\":\"Final exam\",\"date\":\"2026-05-20\",\"time\":\"09:00\",\"confidence\":0.95}");
+		List<Long> seenAt = new ArrayList<>();
+
+		List<EventExtraction> events = gemini.extractEvents("Quiz and final", "CS101", "",
+				e -> seenAt.add(System.nanoTime()));
+		long doneAt = System.nanoTime();
+
+		assertEquals(List.of("Quiz 1", "Final exam"), events.stream().map(e -> e.title).toList());
+		assertEquals("Event", events.get(0).tag);
+		assertEquals(2, seenAt.size());
+		// the rest of the answer is still several 20 ms pieces away when the first event closes
+		assertTrue(doneAt - seenAt.get(0) >= TimeUnit.MILLISECONDS.toNanos(60));
+		assertEquals(1, registry.get("orbit.gemini.call").tag("kind", "stream").timer().count());
+	}
+
+	@Test
+	void jsonModeSendsTheSchemaAndCorrectsInvalidFields() {
+		ReflectionTestUtils.setField(gemini, "structuredOutput", true);
+		server.eventJson("{\"title\":\"Lab report\",\"date\":\"March 5\",\"time\":\"9:30\",\"tag\":\"work\","
+				+ "\"confidence\":1.4}");
+
+		List<List<EventExtraction>> batch = gemini.extractEventsBatch(List.of(
+				new ExtractRequest("", "CS101", "Lab report due March 5"),
+				new ExtractRequest("", "CS102", "Lab report due March 5")));
+
+		JsonNode config = server.lastRequest().path("generationConfig");
+		assertEquals(0.0, config.path("temperature").asDouble(-1));
+		assertEquals("application/json", config.path("responseMimeType").asText());
+		assertEquals("ARRAY", config.path("responseSchema").path("items").path("properties").path("events")
+				.path("type").asText());
+		for (List<EventExtraction> events : batch) {
+			EventExtraction e = events.get(0);
+			assertFalse(e.fallback);
+			assertNull(e.date);
+			assertEquals("09:30", e.time);
+			assertEquals("Work", e.tag);
+			assertEquals(1.0, e.confidence);
+		}
+		assertEquals(2, registry.get("orbit.gemini.invalid").tag("field", "date").counter().count());
+	}
+
+		@Test
+	void answerParserSkipsProseAndYieldsEachClosedEvent() throws Exception {
+		GeminiResponseReader.Answer answer = new GeminiResponseReader(new ObjectMapper().getFactory()).answer();
+
+		assertEquals(0, feed(answer, "Here you go:\n```json\n[{\"title\":"));
+		assertEquals(1, feed(answer, "\"A\"},{\"ti"));
+		assertEquals(0, feed(answer, ""));
+		assertEquals(1, feed(answer, "tle\":\"B\"}"));
+		assertFalse(answer.isDone());
+		assertEquals(0, feed(answer, "]\n```"));
+		assertTrue(answer.isDone());
+		assertTrue(answer.isArray());
+	}
+
+	private static int feed(GeminiResponseReader.Answer answer, String text) throws IOException {
+		return answer.feed(text.toCharArray(), 0, text.length()).size();
+	}
+
+	private GeminiService gemini(UpstreamGuard guard) {
+		GeminiService service = new GeminiService(new RestTemplate(), new LocalEventExtractor("en-US"),
+				new ExtractionMetrics(registry), guard, executor);
+		ReflectionTestUtils.setField(service, "apiKey", "test");
+		ReflectionTestUtils.setField(service, "apiUrl", server.url());
+		ReflectionTestUtils.setField(service, "acquireTimeoutMs", 1000L);
+		return service;
+	}
+
+	private double fallbacks(String cause) {
+		return registry.get("orbit.extract.fallback").tag("cause", cause).counter().count();
+	}
+}
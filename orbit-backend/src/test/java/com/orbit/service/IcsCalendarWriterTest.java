@@ -0,0 +1,66 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.orbit.entity.Event;
+
+class IcsCalendarWriterTest {
+
+	@Test
+	void writesStableUidAndFoldsLongLines() throws Exception {
+		Event e = new Event();
+		e.setId(42L);
+		e.setTitle("Final exam, room 101; bring ID");
+		e.setDate("2026-05-04");
+		e.setSourceSnippet("é".repeat(100)); // 2 octets each
+		e.setUpdatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IcsCalendarWriter writer = new IcsCalendarWriter(out);
+		writer.begin();
+		writer.writeEvent(e);
+		writer.end();
+		String ics = out.toString(StandardCharsets.UTF_8);
+
+		assertTrue(ics.contains("UID:orbit-event-42@orbit\r\n"));
+		assertTrue(ics.contains("DTSTAMP:20260101T000000Z\r\n"));
+		assertTrue(ics.contains("SUMMARY:Final exam\\, room 101\\; bring ID\r\n"));
+		assertTrue(ics.contains("DTSTART;VALUE=DATE:20260504\r\n"));
+		for (String line : ics.split("\r\n")) {
+			assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+		}
+		assertEquals("é".repeat(100), unfold(ics).lines()
+				.filter(l -> l.startsWith("DESCRIPTION:")).findFirst().orElseThrow().substring(12));
+	}
+
+	@Test
+	void writesTimedEventsAsFloatingLocalTime() throws Exception {
+		Event e = new Event();
+		e.setId(7L);
+		e.setDate("2026-05-04");
+		e.setTime("9:05");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IcsCalendarWriter writer = new IcsCalendarWriter(out);
+		writer.writeEvent(e);
+		writer.end();
+
+		assertTrue(out.toString(StandardCharsets.UTF_8).contains("DTSTART:20260504T090500\r\n"));
+	}
+
+	@Test
+	void escapesBackslashesAndLineBreaks() {
+		assertEquals("a\\\\b\\nc\\nd", IcsCalendarWriter.escape("a\\b\r\nc\nd"));
+	}
+
+	private static String unfold(String ics) {
+		return ics.replace("\r\n ", "");
+	}
+}
@@ -0,0 +1,81 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.orbit.entity.Event;
+import com.orbit.entity.UserAccount;
+import com.orbit.orbit_backend.OrbitBackendApplication;
+
+@SpringBootTest(classes = OrbitBackendApplication.class)
+class IcsFeedCacheTest {
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private IcsFeedCache feeds;
+
+	private static final String OTHER = "other-user";
+
+	@AfterEach
+	void tearDown() {
+		eventService.clearAll(UserAccount.LOCAL);
+		eventService.clearAll(OTHER);
+	}
+
+	@Test
+	void servesFeedsFromMemoryUntilAnEventChanges() throws Exception {
+		Event work = eventService.save(UserAccount.LOCAL, event("Standup", "Work"));
+		eventService.save(UserAccount.LOCAL, event("Dentist", "Personal"));
+
+		IcsFeedCache.Feed all = feeds.feed(UserAccount.LOCAL, null);
+		assertSame(all, feeds.feed(UserAccount.LOCAL, null));
+		assertArrayEquals(all.body(), new GZIPInputStream(new ByteArrayInputStream(all.gzip())).readAllBytes());
+		String workOnly = new String(feeds.feed(UserAccount.LOCAL, "Work").body(), StandardCharsets.UTF_8);
+		assertTrue(workOnly.contains("SUMMARY:Standup"));
+		assertFalse(workOnly.contains("SUMMARY:Dentist"));
+
+		work.setTitle("Standup moved");
+		eventService.save(UserAccount.LOCAL, work);
+		IcsFeedCache.Feed updated = feeds.feed(UserAccount.LOCAL, null);
+		assertNotEquals(all.etag(), updated.etag());
+		assertTrue(new String(updated.body(), StandardCharsets.UTF_8).contains("SUMMARY:Standup moved"));
+
+		eventService.delete(UserAccount.LOCAL, work.getId());
+		assertFalse(new String(feeds.feed(UserAccount.LOCAL, null).body(), StandardCharsets.UTF_8).contains("Standup"));
+	}
+
+	@Test
+	void writesOnlyInvalidateTheOwnersFeeds() {
+		eventService.save(UserAccount.LOCAL, event("Standup", "Work"));
+		IcsFeedCache.Feed mine = feeds.feed(UserAccount.LOCAL, null);
+
+		eventService.save(OTHER, event("Gym", "Personal"));
+		assertSame(mine, feeds.feed(UserAccount.LOCAL, null));
+		String theirs = new String(feeds.feed(OTHER, null).body(), StandardCharsets.UTF_8);
+		assertTrue(theirs.contains("SUMMARY:Gym"));
+		assertFalse(theirs.contains("SUMMARY:Standup"));
+	}
+
+	private static Event event(String title, String tag) {
+		Event e = new Event();
+		e.setTitle(title);
+		e.setDate("2026-06-01");
+		e.setTag(tag);
+		e.setUrl("https://example.com/" + tag);
+		return e;
+	}
+}
@@ -0,0 +1,95 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import com.orbit.service.LocalEventExtractor.Result;
+
+class LocalEventExtractorTest {
+
+	// Wednesday 2026-03-04
+	private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-04T12:00:00Z"), ZoneOffset.UTC);
+
+	private final LocalEventExtractor us = new LocalEventExtractor("en-US", CLOCK);
+	private final LocalEventExtractor uk = new LocalEventExtractor("en-GB", CLOCK);
+
+	@Test
+	void isoDateWithTimeScoresHighest() {
+		Result r = us.analyze("Midterm exam 2026-03-18 at 14:30 in room 2");
+		assertEquals(LocalDate.of(2026, 3, 18), r.bestDate().date());
+		assertEquals(LocalTime.of(14, 30), r.bestTime().start());
+		assertTrue(r.score() > 0.9);
+	}
+
+	@Test
+	void singleEventNeedsOneDateAndATime() {
+		assertTrue(us.analyze("Midterm exam 2026-03-18 at 14:30, that is March 18").singleEvent());
+		Result dateOnly = us.analyze("Midterm exam 2026-03-18 in room 2");
+		assertTrue(dateOnly.score() > 0.85);
+		assertFalse(dateOnly.singleEvent());
+		assertFalse(us.analyze("Quiz 2026-03-18 at 10:00. Final exam 2026-05-02 at 9am.").singleEvent());
+		assertFalse(us.analyze("Review session 05/03/2026 at 5pm").singleEvent()); // May 3 or 5 March
+	}
+
+	@Test
+	void monthNamesInBothOrders() {
+		assertEquals(LocalDate.of(2026, 3, 5), us.analyze("Due March 5th").bestDate().date());
+		assertEquals(LocalDate.of(2027, 1, 12), us.analyze("Kickoff 12 Jan 2027").bestDate().date());
+		assertEquals(LocalDate.of(2026, 9, 1), us.analyze("Starts Sept. 1, 2026").bestDate().date());
+	}
+
+	@Test
+	void monthWithoutYearRollsForwardOncePast() {
+		assertEquals(LocalDate.of(2027, 1, 10), us.analyze("Party on January 10").bestDate().date());
+	}
+
+	@Test
+	void numericDatesFollowLocaleOrder() {
+		assertEquals(LocalDate.of(2026, 5, 3), us.analyze("05/03/2026").bestDate().date());
+		assertEquals(LocalDate.of(2026, 3, 5), uk.analyze("05/03/2026").bestDate().date());
+		assertEquals(2, us.analyze("05/03/2026").dates().size());
+		assertEquals(LocalDate.of(2026, 3, 25), us.analyze("25/03/2026").bestDate().date());
+	}
+
+	@Test
+	void relativeDatesAndWeekdays() {
+		assertEquals(LocalDate.of(2026, 3, 5), us.analyze("tomorrow at 3pm").bestDate().date());
+		assertEquals(LocalTime.of(15, 0), us.analyze("tomorrow at 3pm").bestTime().start());
+		assertEquals(LocalDate.of(2026, 3, 18), us.analyze("in 2 weeks").bestDate().date());
+		assertEquals(LocalDate.of(2026, 3, 9), us.analyze("next Monday").bestDate().date());
+	}
+
+	@Test
+	void timeRangesInheritMeridiem() {
+		Result r = us.analyze("Office hours 3-5pm");
+		assertEquals(LocalTime.of(15, 0), r.times().get(0).start());
+		assertEquals(LocalTime.of(17, 0), r.times().get(0).end());
+
+		r = us.analyze("Lab 10:00 – 11:30");
+		assertEquals(LocalTime.of(10, 0), r.times().get(0).start());
+		assertEquals(LocalTime.of(11, 30), r.times().get(0).end());
+	}
+
+	@Test
+	void localizedMonthNames() {
+		LocalEventExtractor de = new LocalEventExtractor("de-DE,en-US", CLOCK);
+		assertEquals(LocalDate.of(2026, 3, 14), de.analyze("Prüfung am 14. März 2026").bestDate().date());
+	}
+
+	@Test
+	void rejectsNonDates() {
+		Result r = us.analyze("Call 555-1234 or see page 2026-02-31, version 1.2.3");
+		assertNull(r.bestDate());
+		assertTrue(r.times().isEmpty());
+	}
+}
@@ -0,0 +1,44 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PromptCompactorTest {
+
+	private final LocalEventExtractor dates = new LocalEventExtractor("en-US");
+
+	@Test
+	void stripsMarkupWhitespaceAndBoilerplate() {
+		String page = "<html><head><style>body { color: red }</style></head><body>"
+				+ "<nav><a href=\"/\">Home</a> <a href=\"/courses\">Courses</a></nav>"
+				+ "<div>Skip to content</div><div>Courses</div>"
+				+ "<h2>CS101&nbsp;&amp; Lab</h2>"
+				+ "<p>Midterm   exam on <b>March 18</b>,\u200B 2:30pm in Hall&nbsp;B.</p>"
+				+ "<p>Quiz</p><p>April 2</p><p>Quiz</p><p>April 9</p>"
+				+ "<p>Office hours are posted weekly.</p><div>Courses</div>"
+				+ "<footer>© 2026 State University. All rights reserved.</footer>"
+				+ "<script>track();</script></body></html>";
+
+		String text = new PromptCompactor(dates, 0, 4).clean(page);
+
+		assertEquals("Courses\n\nCS101 & Lab\n\nMidterm exam on March 18, 2:30pm in Hall B.\n\nQuiz\n\nApril 2\n\nQuiz\n\n"
+				+ "April 9\n\nOffice hours are posted weekly.", text);
+	}
+
+	@Test
+	void keepsDatedParagraphsWithinTheBudget() {
+		String filler = "The department is proud of its long tradition of teaching and research excellence. ";
+		String page = "About us\n\n" + filler.repeat(5) + "\n\nDeadlines\n\nProject report due on 2026-04-30 at noon."
+				+ "\n\n" + filler.repeat(5) + "\n\nFinal exam: May 12 in the gym.";
+
+		PromptCompactor.Compacted compacted = new PromptCompactor(dates, 40, 4).compact(page);
+
+		// dated paragraphs and their headings first, then whatever else still fits
+		assertEquals("About us\n\nDeadlines\n\nProject report due on 2026-04-30 at noon.\n\nFinal exam: May 12 in the gym.",
+				compacted.text());
+		assertTrue(compacted.tokens() <= 40);
+		assertEquals(compacted.rawTokens() - compacted.tokens(), compacted.saved());
+	}
+}
@@ -0,0 +1,81 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class TenantQuotasTest {
+
+	private final TenantService tenants = mock(TenantService.class);
+	private final SteppingClock clock = new SteppingClock(Instant.parse("2026-03-18T23:00:00Z"));
+
+	@Test
+	void refillsPerUserAndResetsDailyQuotaAtMidnight() {
+		when(tenants.isEnabled()).thenReturn(true);
+		TenantQuotas quotas = new TenantQuotas(tenants, 60, 10, 25, 4, clock);
+
+		quotas.acquire("amy", 10).close();
+		TenantQuotas.QuotaExceededException limited = assertThrows(TenantQuotas.QuotaExceededException.class,
+				() -> quotas.acquire("amy", 5));
+		assertEquals(5, limited.retryAfterSeconds());
+		quotas.acquire("ben", 10).close(); // other users have their own bucket
+
+		clock.advance(Duration.ofSeconds(10));
+		quotas.acquire("amy", 10).close();
+		clock.advance(Duration.ofSeconds(10));
+		TenantQuotas.QuotaExceededException daily = assertThrows(TenantQuotas.QuotaExceededException.class,
+				() -> quotas.acquire("amy", 10));
+		assertEquals(3580, daily.retryAfterSeconds()); // an hour less the 20 seconds waited
+
+		clock.advance(Duration.ofHours(1));
+		quotas.acquire("amy", 10).close();
+	}
+
+	@Test
+	void capsExtractionsInFlight() {
+		when(tenants.isEnabled()).thenReturn(true);
+		TenantQuotas quotas = new TenantQuotas(tenants, 60, 60, 1000, 1, clock);
+
+		TenantQuotas.Permit running = quotas.acquire("amy", 1);
+		assertThrows(TenantQuotas.QuotaExceededException.class, () -> quotas.acquire("amy", 1));
+		running.close();
+		running.close();
+		quotas.acquire("amy", 1).close();
+	}
+
+	private static final class SteppingClock extends Clock {
+		private Instant now;
+
+		SteppingClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration d) {
+			now = now.plus(d);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
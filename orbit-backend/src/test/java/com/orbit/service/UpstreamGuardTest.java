@@ -0,0 +1,107 @@
+package com.orbit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+import com.orbit.service.UpstreamGuard.Admission;
+
+class UpstreamGuardTest {
+
+	private final TickingClock clock = new TickingClock();
+
+	@Test
+	void breakerOpensOnFailureRateAndRecoversAfterAProbe() {
+		CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, 1000, clock);
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		breaker.onFailure(); // 2 of 4
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertFalse(breaker.tryAcquire());
+
+		clock.advance(1000);
+		assertTrue(breaker.tryAcquire());
+		assertFalse(breaker.tryAcquire()); // one probe at a time
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+		clock.advance(1000);
+		assertTrue(breaker.tryAcquire());
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		assertTrue(breaker.tryAcquire());
+	}
+
+	@Test
+	void limiterHalvesOnThrottleAndHonoursRetryAfter() {
+		AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, 1, 100, 1, 1, clock);
+		assertEquals(0, limiter.reserve(0));
+		assertEquals(-1, limiter.reserve(0));
+		assertEquals(100, limiter.reserve(100)); // one token every 100ms at 10 rps
+
+		limiter.onThrottled(5000);
+		assertEquals(5.0, limiter.currentRate(), 1e-9);
+		clock.advance(4000);
+		assertEquals(-1, limiter.reserve(500));
+		assertEquals(1000, limiter.reserve(1000));
+
+		for (int i = 0; i < 50; i++) {
+			limiter.onSuccess();
+		}
+		assertTrue(limiter.currentRate() > 10);
+	}
+
+	@Test
+	void rateLimitedProbeIsGivenBack() throws Exception {
+		AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(1, 1, 1, 0, 1, clock);
+		UpstreamGuard guard = new UpstreamGuard(new CircuitBreaker(1, 1, 0.5, 1000, clock), limiter, 1);
+		assertEquals(Admission.ADMITTED, guard.admit(0));
+		guard.onFailure();
+		assertEquals(Admission.CIRCUIT_OPEN, guard.admit(0));
+
+		clock.advance(1000);
+		limiter.reserve(0); // drain the bucket
+		assertEquals(Admission.RATE_LIMITED, guard.admit(0));
+		clock.advance(1000);
+		assertEquals(Admission.ADMITTED, guard.admit(0)); // the probe is still available
+		guard.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, guard.breakerState());
+	}
+
+	private static final class TickingClock extends Clock {
+		private long millis = 1_000_000;
+
+		void advance(long ms) {
+			millis += ms;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
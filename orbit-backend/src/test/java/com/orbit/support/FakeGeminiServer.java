@@ -0,0 +1,184 @@
+package com.orbit.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the Gemini generateContent endpoint, for tests, load tests and
+ * benchmarks. Answers every POST with a canned event after a configurable
+ * delay, and can inject 5xx errors and 429 throttling at a given rate.
+ * Single prompts get a one-event array, numbered batch prompts get one
+ * {@code {index, events}} element per item. streamGenerateContent calls get
+ * the same text cut into small pieces, one partial response each, with an
+ * optional pause between pieces.
+ */
+public class FakeGeminiServer implements AutoCloseable {
+
+	private static final Pattern BATCH_ITEM = Pattern.compile("\\n\\[(\\d+)\\]\\n");
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final HttpServer server;
+	private final AtomicLong requests = new AtomicLong();
+	private volatile JsonNode lastRequest;
+
+	private volatile long latencyMs;
+	private volatile double errorRate;
+	private volatile double throttleRate;
+	private volatile int retryAfterSeconds = 1;
+	private volatile long streamPauseMs;
+	private volatile String eventJson =
+			"{\"title\":\"Team sync\",\"date\":\"2026-03-05\",\"time\":\"15:00\",\"tag\":\"Work\","
+					+ "\"description\":\"Weekly sync\",\"confidence\":0.92}";
+
+	public FakeGeminiServer() throws IOException {
+		this(0);
+	}
+
+	public FakeGeminiServer(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+		server.createContext("/", this::handle);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+	}
+
+	/** URL to use as {@code gemini.api.url}. */
+	public String url() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/models/fake:generateContent";
+	}
+
+	public FakeGeminiServer latencyMs(long latencyMs) {
+		this.latencyMs = latencyMs;
+		return this;
+	}
+
+	public FakeGeminiServer errorRate(double errorRate) {
+		this.errorRate = errorRate;
+		return this;
+	}
+
+	public FakeGeminiServer throttleRate(double throttleRate, int retryAfterSeconds) {
+		this.throttleRate = throttleRate;
+		this.retryAfterSeconds = retryAfterSeconds;
+		return this;
+	}
+
+	public FakeGeminiServer streamPauseMs(long streamPauseMs) {
+		this.streamPauseMs = streamPauseMs;
+		return this;
+	}
+
+	public FakeGeminiServer eventJson(String eventJson) {
+		this.eventJson = eventJson;
+		return this;
+	}
+
+	public long requestCount() {
+		return requests.get();
+	}
+
+	/** Body of the most recent request, to check the generation settings sent. */
+	public JsonNode lastRequest() {
+		return lastRequest;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		try (exchange) {
+			lastRequest = MAPPER.readTree(exchange.getRequestBody());
+			String prompt = lastRequest.path("contents").path(0).path("parts").path(0).path("text").asText("");
+			if (latencyMs > 0) {
+				Thread.sleep(latencyMs);
+			}
+			double roll = ThreadLocalRandom.current().nextDouble();
+			if (roll < throttleRate) {
+				exchange.getResponseHeaders().add("Retry-After", Integer.toString(retryAfterSeconds));
+				send(exchange, 429, "{\"error\":{\"code\":429,\"status\":\"RESOURCE_EXHAUSTED\"}}");
+				return;
+			}
+			if (roll < throttleRate + errorRate) {
+				send(exchange, 500, "{\"error\":{\"code\":500,\"status\":\"INTERNAL\"}}");
+				return;
+			}
+			if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+				stream(exchange, answerFor(prompt));
+			} else {
+				send(exchange, 200, envelope(answerFor(prompt)));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private String answerFor(String prompt) throws IOException {
+		Matcher m = BATCH_ITEM.matcher(prompt);
+		StringBuilder text = new StringBuilder();
+		if (m.find()) {
+			text.append('[');
+			do {
+				ObjectNode item = MAPPER.createObjectNode();
+				item.put("index", Integer.parseInt(m.group(1)));
+				item.putArray("events").add(MAPPER.readTree(eventJson));
+				if (text.length() > 1) text.append(',');
+				text.append(MAPPER.writeValueAsString(item));
+			} while (m.find());
+			text.append(']');
+		} else {
+			text.append('[').append(eventJson).append(']');
+		}
+		return text.toString();
+	}
+
+	private static String envelope(String text) throws IOException {
+		ObjectNode root = MAPPER.createObjectNode();
+		ObjectNode part = root.putArray("candidates").addObject()
+				.putObject("content").putArray("parts").addObject();
+		part.put("text", text);
+		return MAPPER.writeValueAsString(root);
+	}
+
+	private void stream(HttpExchange exchange, String text) throws IOException, InterruptedException {
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, 0); // chunked
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write('[');
+			for (int i = 0; i < text.length(); i += 16) {
+				if (i > 0) {
+					out.write(',');
+					if (streamPauseMs > 0) {
+						Thread.sleep(streamPauseMs);
+					}
+				}
+				out.write(envelope(text.substring(i, Math.min(text.length(), i + 16))).getBytes(StandardCharsets.UTF_8));
+				out.flush();
+			}
+			out.write(']');
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
@@ -0,0 +1,168 @@
+package com.orbit.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for Google's OAuth token endpoint and the Calendar batch
+ * endpoint. Keeps calendar events in memory, answers inserts of an existing
+ * id with 409 like Google does, and can fail whole batch requests or expire
+ * the current access token on demand.
+ */
+public class FakeGoogleServer implements AutoCloseable {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+	private static final Pattern REQUEST_LINE = Pattern.compile("(?m)^(GET|POST|PUT|PATCH|DELETE) (\\S+) HTTP/1\\.1");
+	private static final Pattern CONTENT_ID = Pattern.compile("(?im)^content-id:\\s*<(\\S+)>");
+
+	private final HttpServer server;
+	private final Map<String, JsonNode> events = new ConcurrentHashMap<>();
+	private final AtomicInteger batches = new AtomicInteger();
+	private final AtomicInteger tokenRequests = new AtomicInteger();
+	private final AtomicInteger failNextBatches = new AtomicInteger();
+	private volatile String accessToken;
+
+	public FakeGoogleServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 64);
+		server.createContext("/token", this::token);
+		server.createContext("/batch/calendar/v3", this::batch);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+	}
+
+	public String baseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	/** Calendar events by Google event id. */
+	public Map<String, JsonNode> events() {
+		return events;
+	}
+
+	public int batchCount() {
+		return batches.get();
+	}
+
+	public int tokenRequestCount() {
+		return tokenRequests.get();
+	}
+
+	public FakeGoogleServer failNextBatches(int count) {
+		failNextBatches.set(count);
+		return this;
+	}
+
+	/** Revokes the current access token, so the next batch gets a 401. */
+	public FakeGoogleServer expireAccessToken() {
+		accessToken = null;
+		return this;
+	}
+
+	private void token(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			tokenRequests.incrementAndGet();
+			Map<String, String> form = new HashMap<>();
+			for (String pair : new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).split("&")) {
+				int eq = pair.indexOf('=');
+				if (eq > 0)
+					form.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+			}
+			String grant = form.getOrDefault("grant_type", "");
+			boolean ok = ("authorization_code".equals(grant) && "good-code".equals(form.get("code")))
+					|| ("refresh_token".equals(grant) && "refresh-1".equals(form.get("refresh_token")));
+			if (!ok) {
+				send(exchange, 400, "application/json", "{\"error\":\"invalid_grant\"}");
+				return;
+			}
+			accessToken = "access-" + tokenRequests.get();
+			String refresh = "authorization_code".equals(grant) ? ",\"refresh_token\":\"refresh-1\"" : "";
+			send(exchange, 200, "application/json",
+					"{\"access_token\":\"" + accessToken + "\",\"expires_in\":3599,\"token_type\":\"Bearer\"" + refresh + "}");
+		}
+	}
+
+	private void batch(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			batches.incrementAndGet();
+			String auth = exchange.getRequestHeaders().getFirst("Authorization");
+			if (accessToken == null || !("Bearer " + accessToken).equals(auth)) {
+				send(exchange, 401, "application/json", "{\"error\":{\"code\":401}}");
+				return;
+			}
+			if (failNextBatches.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+				send(exchange, 503, "application/json", "{\"error\":{\"code\":503}}");
+				return;
+			}
+			Matcher b = BOUNDARY.matcher(exchange.getRequestHeaders().getFirst("Content-Type"));
+			if (!b.find()) {
+				send(exchange, 400, "text/plain", "no boundary");
+				return;
+			}
+			String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			StringBuilder out = new StringBuilder();
+			for (String part : body.split("--" + Pattern.quote(b.group(1)))) {
+				Matcher line = REQUEST_LINE.matcher(part);
+				if (!line.find())
+					continue;
+				Matcher id = CONTENT_ID.matcher(part);
+				String contentId = id.find() ? id.group(1) : "";
+				int blank = part.indexOf("\r\n\r\n", line.end());
+				String json = blank < 0 ? "" : part.substring(blank + 4).trim();
+				int status = apply(line.group(1), line.group(2), json);
+				out.append("--resp\r\nContent-Type: application/http\r\nContent-ID: <response-").append(contentId)
+						.append(">\r\n\r\nHTTP/1.1 ").append(status).append(" X\r\nContent-Type: application/json\r\n\r\n{}\r\n");
+			}
+			out.append("--resp--\r\n");
+			send(exchange, 200, "multipart/mixed; boundary=resp", out.toString());
+		}
+	}
+
+	private int apply(String method, String path, String json) throws IOException {
+		String id = path.substring(path.lastIndexOf('/') + 1);
+		switch (method) {
+			case "POST" -> {
+				JsonNode event = MAPPER.readTree(json);
+				return events.putIfAbsent(event.path("id").asText(), event) == null ? 200 : 409;
+			}
+			case "PUT" -> {
+				return events.replace(id, MAPPER.readTree(json)) != null ? 200 : 404;
+			}
+			case "DELETE" -> {
+				return events.remove(id) != null ? 204 : 410;
+			}
+			default -> {
+				return 405;
+			}
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, String type, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", type);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
@@ -0,0 +1,22 @@
+package com.orbit.support;
+
+import java.time.Clock;
+
+import com.orbit.service.AdaptiveRateLimiter;
+import com.orbit.service.CircuitBreaker;
+import com.orbit.service.UpstreamGuard;
+
+/** Upstream guards for tests and benchmarks that are not about resilience. */
+public final class TestUpstreams {
+
+	private TestUpstreams() {
+	}
+
+	/** Never opens and never throttles; only the in-flight cap applies. */
+	public static UpstreamGuard unlimited(int maxInFlight) {
+		return new UpstreamGuard(
+				new CircuitBreaker(1, 1, 2.0, 0, Clock.systemUTC()),
+				new AdaptiveRateLimiter(1e9, 1e9, 1e9, 0, 1e9, Clock.systemUTC()),
+				maxInFlight);
+	}
+}